@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+@SupportedAnnotationTypes(EntityIndexProcessor.ENTITY_ANNOTATION)
+public class EntityIndexProcessor extends AbstractProcessor {
+    static final String ENTITY_ANNOTATION = "pl.polsl.skirentalservice.core.db.EntityInjector";
+    private static final String ENTITY_INDEX = "META-INF/ski-entity-index";
+
+    private final Set<String> entityClasses = new TreeSet<>();
+    private final List<Element> originatingElements = new ArrayList<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (final TypeElement annotation : annotations) {
+            for (final Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element instanceof TypeElement typeElement) {
+                    entityClasses.add(processingEnv.getElementUtils().getBinaryName(typeElement).toString());
+                    originatingElements.add(element);
+                }
+            }
+        }
+        if (roundEnv.processingOver() && !entityClasses.isEmpty()) {
+            writeEntityIndex();
+        }
+        return false;
+    }
+
+    private void writeEntityIndex() {
+        try {
+            final FileObject index = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT,
+                "", ENTITY_INDEX, originatingElements.toArray(Element[]::new));
+            try (final Writer writer = index.openWriter()) {
+                for (final String entityClass : entityClasses) {
+                    writer.write(entityClass);
+                    writer.write('\n');
+                }
+            }
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                "Generated entity index with " + entityClasses.size() + " classes");
+        } catch (IOException ex) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                "Unable to write entity index. Exception: " + ex.getMessage());
+        }
+    }
+}
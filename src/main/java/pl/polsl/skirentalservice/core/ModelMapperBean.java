@@ -5,7 +5,6 @@
 package pl.polsl.skirentalservice.core;
 
 import jakarta.ejb.Singleton;
-import jakarta.ejb.Startup;
 import org.modelmapper.Conditions;
 import org.modelmapper.ModelMapper;
 import org.modelmapper.config.Configuration;
@@ -14,11 +13,10 @@ import org.modelmapper.convention.MatchingStrategies;
 import java.lang.reflect.Type;
 
 @Singleton
-@Startup
 public class ModelMapperBean {
-    private final ModelMapper modelMapper;
+    private ModelMapper modelMapper;
 
-    public ModelMapperBean() {
+    public void initialize() {
         modelMapper = new ModelMapper();
         modelMapper.getConfiguration()
             .setPropertyCondition(Conditions.isNotNull())
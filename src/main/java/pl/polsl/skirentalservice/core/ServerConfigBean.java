@@ -8,6 +8,7 @@ import jakarta.ejb.Singleton;
 import jakarta.ejb.Startup;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import pl.polsl.skirentalservice.core.db.MigrationMode;
 
 import java.util.Properties;
 
@@ -23,6 +24,20 @@ public class ServerConfigBean {
     private final String systemVersion;
     private final String titlePageTag;
     private final int maturityAge;
+    private final long countCacheTtlSec;
+    private final long approximateCountThreshold;
+    private final String connectionProvider;
+    private final long longHeldConnectionMs;
+    private final long daoMetricsDumpIntervalMin;
+    private final int counterBlockSize;
+    private final int barcodePoolSize;
+    private final MigrationMode migrationMode;
+    private final long bootstrapAwaitSec;
+    private final boolean warmupEnabled;
+    private final long archiveReturnedAfterDays;
+    private final long archiveIntervalMin;
+    private final long uploadRetryIntervalMin;
+    private final int uploadMaxAttempts;
 
     public ServerConfigBean() {
         environment = AppEnvironment.loadEnviroment();
@@ -35,5 +50,19 @@ public class ServerConfigBean {
         systemVersion = properties.getProperty("ski.system-version");
         titlePageTag = properties.getProperty("ski.title-page-tag");
         maturityAge = Integer.parseInt(properties.getProperty("ski.maturity-age"));
+        countCacheTtlSec = Long.parseLong(properties.getProperty("ski.count-cache-ttl-sec", "60"));
+        approximateCountThreshold = Long.parseLong(properties.getProperty("ski.approximate-count-threshold", "0"));
+        connectionProvider = properties.getProperty("ski.db.connection-provider");
+        longHeldConnectionMs = Long.parseLong(properties.getProperty("ski.db.long-held-connection-ms", "5000"));
+        daoMetricsDumpIntervalMin = Long.parseLong(properties.getProperty("ski.dao-metrics-dump-interval-min", "15"));
+        counterBlockSize = Integer.parseInt(properties.getProperty("ski.counter-block-size", "20"));
+        barcodePoolSize = Integer.parseInt(properties.getProperty("ski.barcode-pool-size", "10"));
+        migrationMode = MigrationMode.findByMode(properties.getProperty("ski.db.migration-mode"));
+        bootstrapAwaitSec = Long.parseLong(properties.getProperty("ski.bootstrap-await-sec", "30"));
+        warmupEnabled = Boolean.parseBoolean(properties.getProperty("ski.warmup-enabled", "true"));
+        archiveReturnedAfterDays = Long.parseLong(properties.getProperty("ski.archive-returned-after-days", "365"));
+        archiveIntervalMin = Long.parseLong(properties.getProperty("ski.archive-interval-min", "1440"));
+        uploadRetryIntervalMin = Long.parseLong(properties.getProperty("ski.upload.retry-interval-min", "1"));
+        uploadMaxAttempts = Integer.parseInt(properties.getProperty("ski.upload.max-attempts", "10"));
     }
 }
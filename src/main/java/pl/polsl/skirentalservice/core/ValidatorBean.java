@@ -5,7 +5,6 @@
 package pl.polsl.skirentalservice.core;
 
 import jakarta.ejb.Singleton;
-import jakarta.ejb.Startup;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Validation;
 import jakarta.validation.Validator;
@@ -14,19 +13,26 @@ import lombok.Getter;
 import pl.polsl.skirentalservice.dto.FormSelectsDto;
 import pl.polsl.skirentalservice.dto.FormValueInfoTupleDto;
 
+import java.util.List;
 import java.util.Set;
 
 @Singleton
-@Startup
 public class ValidatorBean {
     @Getter
-    private final Validator validator;
+    private Validator validator;
 
-    public ValidatorBean() {
+    public void initialize() {
         final ValidatorFactory validatorFactory = Validation.buildDefaultValidatorFactory();
         this.validator = validatorFactory.getValidator();
     }
 
+    public void warmUp(List<Class<? extends ReqValidatePojo>> validatedClasses) {
+        // constraints metadata is built lazily per class, so first form submit not wait for introspection
+        for (final Class<? extends ReqValidatePojo> validatedClass : validatedClasses) {
+            validator.getConstraintsForClass(validatedClass);
+        }
+    }
+
     public <T extends ReqValidatePojo> FormValueInfoTupleDto validateField(T req, String field, String value) {
         final Set<ConstraintViolation<T>> constraints = validator.validateProperty(req, field);
         final FormValueInfoTupleDto resDto = new FormValueInfoTupleDto(value);
@@ -46,11 +46,17 @@ public class XMLConfigLoader<T extends AbstractXMLProperties> {
             if (!value.startsWith("${") || !value.endsWith("}")) {
                 continue;
             }
-            final String envValue = System.getenv(StringUtils.substringBetween(value, "${", "}"));
-            if (envValue == null) {
+            // optional variables declare default value after colon, ex. ${SKI_MYSQL_REPLICA_URL:}
+            final String placeholder = StringUtils.substringBetween(value, "${", "}");
+            final String envValue = System.getenv(StringUtils.substringBefore(placeholder, ":"));
+            if (envValue != null) {
+                property.setValue(envValue);
+                continue;
+            }
+            if (!placeholder.contains(":")) {
                 throw new IllegalStateException("Missing " + name + " required environment variable");
             }
-            property.setValue(envValue);
+            property.setValue(StringUtils.substringAfter(placeholder, ":"));
         }
     }
 }
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.core.barcode;
+
+import jakarta.annotation.Resource;
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Timeout;
+import jakarta.ejb.TimerConfig;
+import jakarta.ejb.TimerService;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.krysalis.barcode4j.impl.upcean.EAN13Bean;
+import org.krysalis.barcode4j.output.bitmap.BitmapCanvasProvider;
+import pl.polsl.skirentalservice.core.ServerConfigBean;
+import pl.polsl.skirentalservice.core.db.CounterAllocatorBean;
+import pl.polsl.skirentalservice.dto.GeneratedBarcodeData;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Slf4j
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class BarcodePoolBean {
+    private static final String EAN13_COUNTER = "EAN13";
+    // restricted circulation prefix, codes starting with 2 are reserved for in-store numbering
+    private static final String EAN13_PREFIX = "2";
+
+    private final AtomicBoolean refillScheduled = new AtomicBoolean();
+    private final BlockingQueue<GeneratedBarcodeData> barcodesPool;
+
+    private final CounterAllocatorBean counterAllocatorBean;
+    private final int poolSize;
+
+    @Resource
+    private TimerService timerService;
+
+    @Inject
+    public BarcodePoolBean(CounterAllocatorBean counterAllocatorBean, ServerConfigBean serverConfigBean) {
+        this.counterAllocatorBean = counterAllocatorBean;
+        poolSize = serverConfigBean.getBarcodePoolSize();
+        barcodesPool = new ArrayBlockingQueue<>(poolSize);
+    }
+
+    public void initPool() {
+        scheduleRefill();
+    }
+
+    public GeneratedBarcodeData takeBarcode() {
+        GeneratedBarcodeData barcode = barcodesPool.poll();
+        if (barcodesPool.size() <= poolSize / 2) {
+            scheduleRefill();
+        }
+        if (barcode == null) {
+            log.warn("Pool of pre-rendered barcodes is empty, barcode will be rendered on demand");
+            barcode = generateBarcode();
+        }
+        return barcode;
+    }
+
+    @Timeout
+    public void refillPool() {
+        final long startMillis = System.currentTimeMillis();
+        int generated = 0;
+        try {
+            while (barcodesPool.remainingCapacity() > 0) {
+                barcodesPool.offer(generateBarcode());
+                generated++;
+            }
+        } finally {
+            refillScheduled.set(false);
+        }
+        log.info("Refilled barcodes pool with {} codes in {}ms", generated, System.currentTimeMillis() - startMillis);
+    }
+
+    private void scheduleRefill() {
+        if (refillScheduled.compareAndSet(false, true)) {
+            timerService.createSingleActionTimer(0, new TimerConfig(null, false));
+        }
+    }
+
+    private GeneratedBarcodeData generateBarcode() {
+        final long codeNumber = counterAllocatorBean.nextValue(EAN13_COUNTER);
+        final String barcode = getBarcodeChecksum(EAN13_PREFIX + String.format("%011d", codeNumber));
+        try (final ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+            final EAN13Bean barcodeGenerator = new EAN13Bean();
+            final var canvas = new BitmapCanvasProvider(250, BufferedImage.TYPE_BYTE_BINARY, true, 0);
+            barcodeGenerator.generateBarcode(canvas, barcode);
+            ImageIO.write(canvas.getBufferedImage(), "png", outputStream);
+            return new GeneratedBarcodeData(barcode, outputStream.toByteArray());
+        } catch (IOException ex) {
+            throw new RuntimeException(ex.getMessage());
+        }
+    }
+
+    private String getBarcodeChecksum(String barcode) {
+        int result = 0;
+        for (int i = 0; i < barcode.length(); i++) {
+            int barSign = Character.getNumericValue(barcode.charAt(i));
+            result += barSign * (i % 2 == 0 ? 1 : 3);
+        }
+        result = (10 - result % 10) % 10;
+        barcode += result;
+        return barcode;
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.core.bootstrap;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.enterprise.concurrent.ManagedExecutorService;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import pl.polsl.skirentalservice.core.ModelMapperBean;
+import pl.polsl.skirentalservice.core.ReqValidatePojo;
+import pl.polsl.skirentalservice.core.ServerConfigBean;
+import pl.polsl.skirentalservice.core.ValidatorBean;
+import pl.polsl.skirentalservice.core.barcode.BarcodePoolBean;
+import pl.polsl.skirentalservice.core.db.PersistenceBean;
+import pl.polsl.skirentalservice.core.mail.MailServiceBean;
+import pl.polsl.skirentalservice.core.s3.ObjectStorageBean;
+import pl.polsl.skirentalservice.core.ssh.SshSocketBean;
+import pl.polsl.skirentalservice.dto.attribute.AttributeModalReqDto;
+import pl.polsl.skirentalservice.dto.change_password.ChangeForgottenPasswordReqDto;
+import pl.polsl.skirentalservice.dto.change_password.RequestToChangePasswordReqDto;
+import pl.polsl.skirentalservice.dto.customer.AddEditCustomerReqDto;
+import pl.polsl.skirentalservice.dto.employer.AddEditEmployerReqDto;
+import pl.polsl.skirentalservice.dto.equipment.AddEditEquipmentReqDto;
+import pl.polsl.skirentalservice.dto.first_access.FirstAccessReqDto;
+import pl.polsl.skirentalservice.dto.login.LoginFormReqDto;
+import pl.polsl.skirentalservice.dto.rent.AddEditEquipmentCartReqDto;
+import pl.polsl.skirentalservice.dto.rent.NewRentDetailsReqDto;
+import pl.polsl.skirentalservice.service.RentService;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Singleton
+@Startup
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class BootstrapBean {
+    private static final List<Class<? extends ReqValidatePojo>> VALIDATED_FORMS = List.of(
+        LoginFormReqDto.class, FirstAccessReqDto.class, RequestToChangePasswordReqDto.class,
+        ChangeForgottenPasswordReqDto.class, AddEditCustomerReqDto.class, AddEditEmployerReqDto.class,
+        AddEditEquipmentReqDto.class, AttributeModalReqDto.class, NewRentDetailsReqDto.class,
+        AddEditEquipmentCartReqDto.class
+    );
+
+    private final Map<String, CompletableFuture<Void>> tasks = new LinkedHashMap<>();
+    private final Map<String, StartupTiming> timings = new ConcurrentHashMap<>();
+    private final Set<String> warmUps = new HashSet<>();
+    private final CountDownLatch readiness = new CountDownLatch(1);
+
+    private final PersistenceBean persistenceBean;
+    private final ObjectStorageBean objectStorageBean;
+    private final MailServiceBean mailServiceBean;
+    private final SshSocketBean sshSocketBean;
+    private final ModelMapperBean modelMapperBean;
+    private final ValidatorBean validatorBean;
+    private final BarcodePoolBean barcodePoolBean;
+    private final RentService rentService;
+    private final ServerConfigBean serverConfigBean;
+
+    // container managed threads, so beans called by initializers run with application context
+    @Resource
+    private ManagedExecutorService executor;
+
+    private long startMillis;
+    private volatile List<String> failedBeans = List.of();
+
+    @Inject
+    public BootstrapBean(
+        PersistenceBean persistenceBean, ObjectStorageBean objectStorageBean, MailServiceBean mailServiceBean,
+        SshSocketBean sshSocketBean, ModelMapperBean modelMapperBean, ValidatorBean validatorBean,
+        BarcodePoolBean barcodePoolBean, RentService rentService, ServerConfigBean serverConfigBean
+    ) {
+        this.persistenceBean = persistenceBean;
+        this.objectStorageBean = objectStorageBean;
+        this.mailServiceBean = mailServiceBean;
+        this.sshSocketBean = sshSocketBean;
+        this.modelMapperBean = modelMapperBean;
+        this.validatorBean = validatorBean;
+        this.barcodePoolBean = barcodePoolBean;
+        this.rentService = rentService;
+        this.serverConfigBean = serverConfigBean;
+    }
+
+    @PostConstruct
+    public void startInfrastructure() {
+        startMillis = System.currentTimeMillis();
+        submit("PersistenceBean", persistenceBean::initialize);
+        submit("ObjectStorageBean", objectStorageBean::initialize);
+        submit("MailServiceBean", mailServiceBean::initialize);
+        submit("SshSocketBean", sshSocketBean::initialize);
+        submit("ModelMapperBean", modelMapperBean::initialize);
+        submit("ValidatorBean", validatorBean::initialize);
+        // pool is filled with codes reserved from database counter
+        submit("BarcodePoolBean", barcodePoolBean::initPool, "PersistenceBean");
+        if (serverConfigBean.isWarmupEnabled()) {
+            // lazy parsing and metadata building is done before readiness, not during first requests
+            submitWarmUp("WarmUp:Validator", () -> validatorBean.warmUp(VALIDATED_FORMS), "ValidatorBean");
+            submitWarmUp("WarmUp:MailTemplates", mailServiceBean::warmUpTemplates, "MailServiceBean");
+            submitWarmUp("WarmUp:RentPath", rentService::warmUp, "PersistenceBean", "ModelMapperBean");
+        }
+
+        CompletableFuture.allOf(tasks.values().toArray(CompletableFuture[]::new)).whenComplete((result, ex) -> {
+            // failed and skipped (dependency failed) beans are not initialized, so gate must stay closed
+            failedBeans = tasks.entrySet().stream()
+                .filter(task -> !warmUps.contains(task.getKey()))
+                .filter(task -> task.getValue().isCompletedExceptionally())
+                .map(Map.Entry::getKey)
+                .toList();
+            logTimingReport();
+            readiness.countDown();
+        });
+    }
+
+    public boolean isReady() {
+        return readiness.getCount() == 0 && failedBeans.isEmpty();
+    }
+
+    public boolean isFailed() {
+        return !failedBeans.isEmpty();
+    }
+
+    public List<String> getFailedBeans() {
+        return failedBeans;
+    }
+
+    // true when all beans were initialized, false on timeout or when bootstrap ended with failure
+    public boolean awaitReady(long timeoutMillis) throws InterruptedException {
+        return readiness.await(timeoutMillis, TimeUnit.MILLISECONDS) && failedBeans.isEmpty();
+    }
+
+    public List<StartupTiming> getTimings() {
+        return timings.values().stream()
+            .sorted(Comparator.comparingLong(StartupTiming::startOffsetMillis))
+            .toList();
+    }
+
+    private void submit(String beanName, Runnable initializer, String... dependsOn) {
+        submitTask(beanName, () -> initializeBean(beanName, initializer, true), dependsOn);
+    }
+
+    // warm-up is only best-effort, its failure is reported in timings, but application is still ready
+    private void submitWarmUp(String warmUpName, Runnable warmUp, String... dependsOn) {
+        warmUps.add(warmUpName);
+        submitTask(warmUpName, () -> initializeBean(warmUpName, warmUp, false), dependsOn);
+    }
+
+    private void submitTask(String taskName, Runnable task, String... dependsOn) {
+        final CompletableFuture<?>[] dependencies = Arrays.stream(dependsOn)
+            .map(tasks::get)
+            .toArray(CompletableFuture[]::new);
+        // bean is not initialized when any of its dependencies failed
+        tasks.put(taskName, CompletableFuture.allOf(dependencies).thenRunAsync(task, executor));
+    }
+
+    private void initializeBean(String beanName, Runnable initializer, boolean required) {
+        final long beanStartMillis = System.currentTimeMillis();
+        boolean failed = true;
+        try {
+            initializer.run();
+            failed = false;
+        } catch (RuntimeException ex) {
+            if (required) {
+                log.error("Unable to initialize bean: {}. Exception: {}", beanName, ex.getMessage());
+                throw ex;
+            }
+            log.warn("Unable to finish warm-up: {}, skipped. Exception: {}", beanName, ex.getMessage());
+        } finally {
+            final long endMillis = System.currentTimeMillis();
+            timings.put(beanName, new StartupTiming(beanName, beanStartMillis - startMillis,
+                endMillis - beanStartMillis, failed));
+        }
+    }
+
+    private void logTimingReport() {
+        final List<StartupTiming> startupTimings = getTimings();
+        final long sequentialMillis = startupTimings.stream().mapToLong(StartupTiming::durationMillis).sum();
+        final List<String> skipped = tasks.keySet().stream()
+            .filter(beanName -> !timings.containsKey(beanName))
+            .toList();
+        if (!failedBeans.isEmpty()) {
+            log.error("Infrastructure initialization failed in {}ms, application will answer 503. Failed: {}. " +
+                "Beans: {}. Skipped: {}", System.currentTimeMillis() - startMillis, failedBeans, startupTimings,
+                skipped);
+            return;
+        }
+        log.info("Infrastructure ready in {}ms (sum of beans initialization: {}ms). Beans: {}. Skipped: {}",
+            System.currentTimeMillis() - startMillis, sequentialMillis, startupTimings, skipped);
+    }
+}
@@ -0,0 +1,18 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.core.bootstrap;
+
+public record StartupTiming(
+    String beanName,
+    long startOffsetMillis,
+    long durationMillis,
+    boolean failed
+) {
+    @Override
+    public String toString() {
+        return beanName + " [start: +" + startOffsetMillis + "ms, took: " + durationMillis + "ms" +
+            (failed ? ", FAILED" : "") + "]";
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.core.db;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.MappedSuperclass;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+@EntityInjector
+@MappedSuperclass
+@NoArgsConstructor
+public abstract class AbstractAuditableEntity {
+    @Column(name = "created_at", insertable = false, updatable = false)
+    private Date createdAt;
+
+    @Column(name = "updated_at", insertable = false, updatable = false)
+    private Date updatedAt;
+
+    public abstract Long getId();
+
+    public abstract void setId(Long id);
+
+    Date getCreatedAt() {
+        return createdAt;
+    }
+
+    void setCreatedAt(Date createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    Date getUpdatedAt() {
+        return updatedAt;
+    }
+
+    void setUpdatedAt(Date updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    @Override
+    public String toString() {
+        return '{' +
+            "id=" + getId() +
+            ", createdAt=" + createdAt +
+            ", updatedAt=" + updatedAt +
+            '}';
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.core.db;
+
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+
+@Slf4j
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class AfterCommit {
+
+    // action is called only when transaction is committed, when row locks are already released, so it can be used
+    // for network calls (storage, mail); data is already committed, so action error is only logged
+    public static void run(Session session, Runnable action) {
+        session.getTransaction().registerSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status != Status.STATUS_COMMITTED) {
+                    return;
+                }
+                try {
+                    action.run();
+                } catch (RuntimeException ex) {
+                    log.error("Unable to finish after commit action. Cause: {}", ex.getMessage());
+                }
+            }
+        });
+    }
+}
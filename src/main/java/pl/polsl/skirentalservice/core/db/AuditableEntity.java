@@ -7,53 +7,22 @@ package pl.polsl.skirentalservice.core.db;
 import jakarta.persistence.*;
 import lombok.NoArgsConstructor;
 
-import java.util.Date;
-
 @EntityInjector
 @MappedSuperclass
 @NoArgsConstructor
-public abstract class AuditableEntity {
+public abstract class AuditableEntity extends AbstractAuditableEntity {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "id")
     private Long id;
 
-    @Column(name = "created_at", insertable = false, updatable = false)
-    private Date createdAt;
-
-    @Column(name = "updated_at", insertable = false, updatable = false)
-    private Date updatedAt;
-
+    @Override
     public Long getId() {
         return id;
     }
 
+    @Override
     public void setId(Long id) {
         this.id = id;
     }
-
-    Date getCreatedAt() {
-        return createdAt;
-    }
-
-    void setCreatedAt(Date createdAt) {
-        this.createdAt = createdAt;
-    }
-
-    Date getUpdatedAt() {
-        return updatedAt;
-    }
-
-    void setUpdatedAt(Date updatedAt) {
-        this.updatedAt = updatedAt;
-    }
-
-    @Override
-    public String toString() {
-        return '{' +
-            "id=" + id +
-            ", createdAt=" + createdAt +
-            ", updatedAt=" + updatedAt +
-            '}';
-    }
 }
@@ -0,0 +1,14 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.core.db;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class CacheRegion {
+    public static final String DICTIONARIES = "dictionaries";
+    public static final String DICTIONARY_QUERIES = "dictionary-queries";
+}
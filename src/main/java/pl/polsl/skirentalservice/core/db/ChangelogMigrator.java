@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.core.db;
+
+import liquibase.Liquibase;
+import liquibase.database.Database;
+import liquibase.database.DatabaseFactory;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.LiquibaseException;
+import liquibase.resource.ClassLoaderResourceAccessor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+@Slf4j
+public class ChangelogMigrator {
+    private static final String LIQUIBASE_CONF = "db/db.changelog.xml";
+    private static final String CHANGELOG_DIGEST = "db/changelog.digest";
+
+    private final Connection connection;
+    private final String localDigest;
+
+    public ChangelogMigrator(Connection connection) {
+        this.connection = connection;
+        localDigest = loadLocalDigest();
+    }
+
+    public void migrate(MigrationMode mode) throws LiquibaseException {
+        final long startMillis = System.currentTimeMillis();
+        switch (mode) {
+            case NONE -> log.info("Database migrations are disabled on this node");
+            case VERIFY -> {
+                // node must not serve requests on schema older than its entities, so initialization is failed
+                // and readiness gate stays closed
+                if (!isUpToDate()) {
+                    throw new IllegalStateException("Database schema is not up to date with changelog digest: " +
+                        localDigest + ". Run migrations with " + MigrationRunner.class.getName() +
+                        " before starting nodes in verify mode");
+                }
+                log.info("Database schema is up to date with changelog digest: {}", localDigest);
+            }
+            case UPDATE -> {
+                // changelog lock is taken only when there is something to migrate
+                if (isUpToDate()) {
+                    log.info("Database schema is up to date with changelog digest: {}. Update skipped", localDigest);
+                } else {
+                    update();
+                }
+            }
+        }
+        log.info("Database migrations in {} mode finished in {}ms", mode.getMode(),
+            System.currentTimeMillis() - startMillis);
+    }
+
+    // single query instead of parsing all changelogs, digest is stored as tag of last applied changeset
+    private boolean isUpToDate() {
+        if (localDigest == null) {
+            return false;
+        }
+        final String sqlFindLastTag = "SELECT tag FROM _liquibase_changelog ORDER BY orderexecuted DESC LIMIT 1";
+        try (final PreparedStatement statement = connection.prepareStatement(sqlFindLastTag);
+             final ResultSet resultSet = statement.executeQuery()) {
+            return resultSet.next() && localDigest.equals(resultSet.getString(1));
+        } catch (SQLException ex) {
+            // changelog table not exist before first migration
+            return false;
+        }
+    }
+
+    private void update() throws LiquibaseException {
+        final JdbcConnection jdbcConnection = new JdbcConnection(connection);
+        final Database database = DatabaseFactory.getInstance().findCorrectDatabaseImplementation(jdbcConnection);
+        final Liquibase liquibase = new Liquibase(LIQUIBASE_CONF, new ClassLoaderResourceAccessor(), database);
+
+        liquibase.getDatabase().setDatabaseChangeLogTableName("_liquibase_changelog");
+        liquibase.getDatabase().setDatabaseChangeLogLockTableName("_liquibase_changelog_lock");
+        liquibase.update();
+        if (localDigest != null) {
+            liquibase.tag(localDigest);
+        }
+        log.info("Successful applied Liquibase changelog with digest: {}", localDigest);
+    }
+
+    // digest is computed from all changelog files by build, see changelogDigest gradle task
+    private String loadLocalDigest() {
+        try (final InputStream inputStream = ChangelogMigrator.class.getClassLoader()
+            .getResourceAsStream(CHANGELOG_DIGEST)) {
+            if (inputStream == null) {
+                log.warn("Unable to find changelog digest: {}. Liquibase update will be always run", CHANGELOG_DIGEST);
+                return null;
+            }
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8).trim();
+        } catch (IOException ex) {
+            log.warn("Unable to load changelog digest: {}. Exception: {}", CHANGELOG_DIGEST, ex.getMessage());
+            return null;
+        }
+    }
+}
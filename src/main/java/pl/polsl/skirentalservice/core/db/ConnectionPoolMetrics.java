@@ -0,0 +1,26 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.core.db;
+
+import java.util.List;
+import java.util.Map;
+
+public record ConnectionPoolMetrics(
+    String provider,
+    int active,
+    int idle,
+    int pending,
+    long acquired,
+    double acquireP50Millis,
+    double acquireP95Millis,
+    double acquireP99Millis,
+    double acquireMaxMillis,
+    Map<String, Long> acquireLatencyBuckets,
+    long longHeldReleased,
+    List<HeldConnection> longHeldConnections
+) {
+    public record HeldConnection(String caller, String thread, long heldMillis) {
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.core.db;
+
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.Singleton;
+import jakarta.inject.Inject;
+import jakarta.persistence.Table;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import pl.polsl.skirentalservice.core.ServerConfigBean;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+@Slf4j
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class CountCacheBean {
+    private final Map<CountCacheKey, CachedCount> cachedCounts = new ConcurrentHashMap<>();
+    private final Map<Class<?>, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    private final long ttlMillis;
+    private final long approximateCountThreshold;
+
+    @Inject
+    public CountCacheBean(ServerConfigBean serverConfigBean) {
+        this(serverConfigBean.getCountCacheTtlSec(), serverConfigBean.getApproximateCountThreshold());
+    }
+
+    public CountCacheBean(long ttlSec, long approximateCountThreshold) {
+        ttlMillis = ttlSec * 1000;
+        this.approximateCountThreshold = approximateCountThreshold;
+        log.info("Initialized count cache with TTL: {}s and approximate count threshold: {}", ttlSec,
+            approximateCountThreshold);
+    }
+
+    public Long getTotalCount(Session session, CountCacheKey key, Supplier<Long> exactCountSupplier) {
+        final long now = System.currentTimeMillis();
+        final long generation = getGeneration(key.entityClazz()).get();
+
+        final CachedCount cachedCount = cachedCounts.get(key);
+        if (cachedCount != null && cachedCount.generation() == generation && cachedCount.expiredAt() > now) {
+            return cachedCount.count();
+        }
+        Long count = null;
+        if (approximateCountThreshold > 0 && key.isUnfiltered()) {
+            count = findApproximateCount(session, key.entityClazz());
+        }
+        if (count == null) {
+            count = exactCountSupplier.get();
+        }
+        // value counted before invalidation is rejected on next read by generation mismatch
+        cachedCounts.put(key, new CachedCount(count, generation, now + ttlMillis));
+        return count;
+    }
+
+    public void invalidate(Class<?>... entityClazzes) {
+        for (final Class<?> entityClazz : entityClazzes) {
+            getGeneration(entityClazz).incrementAndGet();
+            cachedCounts.keySet().removeIf(key -> key.entityClazz().equals(entityClazz));
+        }
+    }
+
+    private Long findApproximateCount(Session session, Class<?> entityClazz) {
+        final Table table = entityClazz.getAnnotation(Table.class);
+        if (table == null) {
+            return null;
+        }
+        // InnoDB statistics from sampled index pages, cheap but only estimate which may differ from exact value
+        // by 40-50% (MySQL docs), so it is used only as total of large unfiltered lists, where pages count may be
+        // inexact
+        final String sqlApproximateCount = """
+                SELECT TABLE_ROWS FROM information_schema.TABLES
+                WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = :tableName
+            """;
+        final Object tableRows = session.createNativeQuery(sqlApproximateCount, Object.class)
+            .setParameter("tableName", table.name())
+            .uniqueResult();
+        if (!(tableRows instanceof Number approximateCount) || approximateCount.longValue() < approximateCountThreshold) {
+            return null;
+        }
+        return approximateCount.longValue();
+    }
+
+    private AtomicLong getGeneration(Class<?> entityClazz) {
+        return generations.computeIfAbsent(entityClazz, clazz -> new AtomicLong());
+    }
+
+    private record CachedCount(Long count, long generation, long expiredAt) {
+    }
+}
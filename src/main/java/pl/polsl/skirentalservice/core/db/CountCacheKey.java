@@ -0,0 +1,28 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.core.db;
+
+import org.apache.commons.lang3.StringUtils;
+import pl.polsl.skirentalservice.core.servlet.pageable.FilterDataDto;
+
+public record CountCacheKey(
+    Class<?> entityClazz,
+    String searchColumn,
+    String searchText,
+    Object employerId
+) {
+    public static CountCacheKey of(Class<?> entityClazz, FilterDataDto filterData, Object employerId) {
+        return new CountCacheKey(entityClazz, filterData.getSearchColumn(),
+            StringUtils.defaultString(filterData.getSearchText()), employerId);
+    }
+
+    public static CountCacheKey of(Class<?> entityClazz, FilterDataDto filterData) {
+        return of(entityClazz, filterData, null);
+    }
+
+    public boolean isUnfiltered() {
+        return employerId == null && StringUtils.isBlank(searchText);
+    }
+}
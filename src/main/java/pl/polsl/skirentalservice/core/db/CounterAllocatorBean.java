@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.core.db;
+
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.Singleton;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import pl.polsl.skirentalservice.core.ServerConfigBean;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class CounterAllocatorBean {
+    private final Map<String, CounterBlock> counterBlocks = new ConcurrentHashMap<>();
+
+    private final PersistenceBean persistenceBean;
+    private final int blockSize;
+
+    @Inject
+    public CounterAllocatorBean(PersistenceBean persistenceBean, ServerConfigBean serverConfigBean) {
+        this.persistenceBean = persistenceBean;
+        blockSize = serverConfigBean.getCounterBlockSize();
+    }
+
+    public long nextValue(String counterName) {
+        final CounterBlock block = counterBlocks.computeIfAbsent(counterName, name -> new CounterBlock());
+        synchronized (block) {
+            if (block.nextValue >= block.endValue) {
+                // values from not fully used block are skipped after restart, but never given twice
+                block.nextValue = reserveBlock(counterName);
+                block.endValue = block.nextValue + blockSize;
+            }
+            return block.nextValue++;
+        }
+    }
+
+    private long reserveBlock(String counterName) {
+        return persistenceBean.startTransaction(session -> {
+            final long firstValue = lockCounter(session, counterName);
+            final String sqlReserveBlock = """
+                    UPDATE _counters SET next_value = next_value + :size WHERE counter_name = :name
+                """;
+            session.createNativeMutationQuery(sqlReserveBlock)
+                .setParameter("size", blockSize)
+                .setParameter("name", counterName)
+                .executeUpdate();
+            session.getTransaction().commit();
+            log.info("Reserved values block [{}, {}) of counter: {}", firstValue, firstValue + blockSize, counterName);
+            return firstValue;
+        });
+    }
+
+    private long lockCounter(Session session, String counterName) {
+        final String sqlCreateCounter = """
+                INSERT INTO _counters (counter_name, next_value) VALUES (:name, 1)
+                ON DUPLICATE KEY UPDATE next_value = next_value
+            """;
+        session.createNativeMutationQuery(sqlCreateCounter)
+            .setParameter("name", counterName)
+            .executeUpdate();
+        final String sqlFindCounter = "SELECT next_value FROM _counters WHERE counter_name = :name FOR UPDATE";
+        final Object nextValue = session.createNativeQuery(sqlFindCounter, Object.class)
+            .setParameter("name", counterName)
+            .getSingleResult();
+        return ((Number) nextValue).longValue();
+    }
+
+    private static class CounterBlock {
+        private long nextValue;
+        private long endValue;
+    }
+}
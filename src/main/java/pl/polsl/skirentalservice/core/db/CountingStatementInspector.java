@@ -0,0 +1,21 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.core.db;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+public class CountingStatementInspector implements StatementInspector {
+    private static final ThreadLocal<long[]> PREPARED_STATEMENTS = ThreadLocal.withInitial(() -> new long[1]);
+
+    @Override
+    public String inspect(String sql) {
+        PREPARED_STATEMENTS.get()[0]++;
+        return sql;
+    }
+
+    public static long getPreparedStatementsCount() {
+        return PREPARED_STATEMENTS.get()[0];
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.core.db;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.BasicType;
+import org.hibernate.type.StandardBasicTypes;
+
+import java.util.StringJoiner;
+
+public class FullTextFunctionContributor implements FunctionContributor {
+    private static final int MAX_INDEXED_COLUMNS = 3;
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        final BasicType<Double> relevanceType = functionContributions.getTypeConfiguration()
+            .getBasicTypeRegistry()
+            .resolve(StandardBasicTypes.DOUBLE);
+        // MATCH columns list must be equal to columns of FULLTEXT index, so each columns count has own function
+        for (int columns = 1; columns <= MAX_INDEXED_COLUMNS; columns++) {
+            final StringJoiner columnsPattern = new StringJoiner(", ");
+            for (int column = 1; column <= columns; column++) {
+                columnsPattern.add("?" + column);
+            }
+            functionContributions.getFunctionRegistry().registerPattern("fulltext_match_" + columns,
+                "MATCH (" + columnsPattern + ") AGAINST (?" + (columns + 1) + " IN BOOLEAN MODE)", relevanceType);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.core.db;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class LatencyHistogram {
+    private static final long[] BUCKET_BOUNDS_MILLIS = { 1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000 };
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_BOUNDS_MILLIS.length + 1);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void record(long elapsedNanos) {
+        final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        int bucket = 0;
+        while (bucket < BUCKET_BOUNDS_MILLIS.length && elapsedMillis > BUCKET_BOUNDS_MILLIS[bucket]) {
+            bucket++;
+        }
+        buckets.incrementAndGet(bucket);
+        count.incrementAndGet();
+        totalNanos.addAndGet(elapsedNanos);
+        maxNanos.accumulateAndGet(elapsedNanos, Math::max);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public double getMeanMillis() {
+        final long currentCount = count.get();
+        return currentCount == 0 ? 0 : (double) totalNanos.get() / currentCount / 1_000_000;
+    }
+
+    public double getMaxMillis() {
+        return maxNanos.get() / 1_000_000D;
+    }
+
+    // upper bound of bucket containing requested percentile, last bucket is reported as max value
+    public double getPercentileMillis(double percentile) {
+        final long currentCount = count.get();
+        if (currentCount == 0) {
+            return 0;
+        }
+        final long rank = (long) Math.ceil(percentile / 100 * currentCount);
+        long accumulated = 0;
+        for (int bucket = 0; bucket < BUCKET_BOUNDS_MILLIS.length; bucket++) {
+            accumulated += buckets.get(bucket);
+            if (accumulated >= rank) {
+                return Math.min(BUCKET_BOUNDS_MILLIS[bucket], getMaxMillis());
+            }
+        }
+        return getMaxMillis();
+    }
+
+    public Map<String, Long> getBuckets() {
+        final Map<String, Long> snapshot = new LinkedHashMap<>();
+        for (int bucket = 0; bucket < BUCKET_BOUNDS_MILLIS.length; bucket++) {
+            snapshot.put("<=" + BUCKET_BOUNDS_MILLIS[bucket] + "ms", buckets.get(bucket));
+        }
+        snapshot.put(">" + BUCKET_BOUNDS_MILLIS[BUCKET_BOUNDS_MILLIS.length - 1] + "ms",
+            buckets.get(BUCKET_BOUNDS_MILLIS.length));
+        return snapshot;
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.core.db;
+
+import com.mchange.v2.c3p0.PooledDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.HibernateException;
+import org.hibernate.boot.registry.classloading.spi.ClassLoaderService;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.service.spi.Configurable;
+import org.hibernate.service.spi.ServiceRegistryAwareService;
+import org.hibernate.service.spi.ServiceRegistryImplementor;
+import org.hibernate.service.spi.Stoppable;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+public class MeteredConnectionProvider implements ConnectionProvider, Configurable, Stoppable,
+    ServiceRegistryAwareService {
+    public static final String DELEGATE_PROVIDER = "ski.db.connection-provider";
+    public static final String LONG_HELD_THRESHOLD_MILLIS = "ski.db.long-held-connection-ms";
+
+    private static final String SERVICES_PACKAGE = "pl.polsl.skirentalservice.service";
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+
+    private final Map<Connection, Checkout> checkouts = new ConcurrentHashMap<>();
+    private final LatencyHistogram acquireLatency = new LatencyHistogram();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicLong longHeldReleased = new AtomicLong();
+
+    private ServiceRegistryImplementor serviceRegistry;
+    private ConnectionProvider delegate;
+    private long longHeldThresholdMillis;
+
+    @Override
+    public void injectServices(ServiceRegistryImplementor serviceRegistry) {
+        this.serviceRegistry = serviceRegistry;
+    }
+
+    @Override
+    public void configure(Map<String, Object> configurationValues) {
+        final String delegateClassName = (String) configurationValues.get(DELEGATE_PROVIDER);
+        longHeldThresholdMillis = Long.parseLong((String) configurationValues
+            .getOrDefault(LONG_HELD_THRESHOLD_MILLIS, "5000"));
+        try {
+            final Class<ConnectionProvider> delegateClazz = serviceRegistry.getService(ClassLoaderService.class)
+                .classForName(delegateClassName);
+            delegate = delegateClazz.getConstructor().newInstance();
+        } catch (ReflectiveOperationException ex) {
+            throw new HibernateException("Unable to instantiate connection provider: " + delegateClassName, ex);
+        }
+        if (delegate instanceof ServiceRegistryAwareService registryAwareService) {
+            registryAwareService.injectServices(serviceRegistry);
+        }
+        if (delegate instanceof Configurable configurable) {
+            configurable.configure(configurationValues);
+        }
+        log.info("Initialized metered connection provider. Delegate: {}, long held threshold: {}ms",
+            delegateClassName, longHeldThresholdMillis);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        final long startNanos = System.nanoTime();
+        pending.incrementAndGet();
+        final Connection connection;
+        try {
+            connection = delegate.getConnection();
+        } finally {
+            pending.decrementAndGet();
+        }
+        acquireLatency.record(System.nanoTime() - startNanos);
+        checkouts.put(connection, new Checkout(findCaller(), Thread.currentThread().getName(), System.nanoTime()));
+        return connection;
+    }
+
+    @Override
+    public void closeConnection(Connection connection) throws SQLException {
+        final Checkout checkout = checkouts.remove(connection);
+        if (checkout != null) {
+            final long heldMillis = checkout.getHeldMillis();
+            if (heldMillis > longHeldThresholdMillis) {
+                longHeldReleased.incrementAndGet();
+                log.warn("Connection was held for {}ms by {} (thread: {})", heldMillis, checkout.caller(),
+                    checkout.thread());
+            }
+        }
+        delegate.closeConnection(connection);
+    }
+
+    public ConnectionPoolMetrics getMetrics() {
+        final List<ConnectionPoolMetrics.HeldConnection> longHeldConnections = checkouts.values().stream()
+            .filter(checkout -> checkout.getHeldMillis() > longHeldThresholdMillis)
+            .map(checkout -> new ConnectionPoolMetrics.HeldConnection(checkout.caller(), checkout.thread(),
+                checkout.getHeldMillis()))
+            .sorted(Comparator.comparingLong(ConnectionPoolMetrics.HeldConnection::heldMillis).reversed())
+            .toList();
+        return new ConnectionPoolMetrics(delegate.getClass().getSimpleName(), checkouts.size(), findIdleCount(),
+            pending.get(), acquireLatency.getCount(), acquireLatency.getPercentileMillis(50),
+            acquireLatency.getPercentileMillis(95), acquireLatency.getPercentileMillis(99),
+            acquireLatency.getMaxMillis(), acquireLatency.getBuckets(), longHeldReleased.get(), longHeldConnections);
+    }
+
+    private int findIdleCount() {
+        // idle connections are known only by pool implementation, -1 when pool does not expose it
+        if (!delegate.isUnwrappableAs(DataSource.class)) {
+            return -1;
+        }
+        try {
+            if (delegate.unwrap(DataSource.class) instanceof PooledDataSource pooledDataSource) {
+                return pooledDataSource.getNumIdleConnectionsDefaultUser();
+            }
+        } catch (SQLException ex) {
+            log.warn("Unable to get idle connections count. Exception: {}", ex.getMessage());
+        }
+        return -1;
+    }
+
+    private String findCaller() {
+        return STACK_WALKER.walk(frames -> frames
+            // synthetic lambda frames are skipped, caller is service method which opened persistence block
+            .filter(frame -> frame.getClassName().startsWith(SERVICES_PACKAGE))
+            .filter(frame -> !frame.getMethodName().startsWith("lambda$"))
+            .findFirst()
+            .map(frame -> frame.getClassName().substring(frame.getClassName().lastIndexOf('.') + 1)
+                + "#" + frame.getMethodName())
+            .orElse("unknown"));
+    }
+
+    @Override
+    public boolean supportsAggressiveRelease() {
+        return delegate.supportsAggressiveRelease();
+    }
+
+    @Override
+    public boolean isUnwrappableAs(Class<?> unwrapType) {
+        return unwrapType.isAssignableFrom(getClass()) || delegate.isUnwrappableAs(unwrapType);
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> unwrapType) {
+        if (unwrapType.isAssignableFrom(getClass())) {
+            return unwrapType.cast(this);
+        }
+        return delegate.unwrap(unwrapType);
+    }
+
+    @Override
+    public void stop() {
+        if (delegate instanceof Stoppable stoppable) {
+            stoppable.stop();
+        }
+    }
+
+    private record Checkout(String caller, String thread, long startNanos) {
+        long getHeldMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        }
+    }
+}
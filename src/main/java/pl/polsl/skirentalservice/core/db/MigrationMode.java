@@ -0,0 +1,28 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.core.db;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum MigrationMode {
+    UPDATE("update"),
+    VERIFY("verify"),
+    NONE("none"),
+    ;
+
+    private final String mode;
+
+    public static MigrationMode findByMode(String mode) {
+        for (final MigrationMode migrationMode : values()) {
+            if (migrationMode.mode.equalsIgnoreCase(mode)) {
+                return migrationMode;
+            }
+        }
+        return UPDATE;
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.core.db;
+
+import liquibase.exception.LiquibaseException;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import pl.polsl.skirentalservice.core.XMLConfigLoader;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Properties;
+
+// one-shot migrations entry point, run before starting application nodes in verify mode
+@Slf4j
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class MigrationRunner {
+    public static void main(String[] args) {
+        final Configuration configurationHib = new Configuration().configure(PersistenceBean.HIBERNATE_CONF);
+        XMLConfigLoader.replaceAllPlaceholders(configurationHib.getProperties());
+        final Properties properties = configurationHib.getProperties();
+
+        try (final Connection connection = DriverManager.getConnection(properties.getProperty(AvailableSettings.URL),
+            properties.getProperty(AvailableSettings.USER), properties.getProperty(AvailableSettings.PASS))) {
+            new ChangelogMigrator(connection).migrate(MigrationMode.UPDATE);
+        } catch (SQLException ex) {
+            log.error("Unable to connect with database. Exception: {}", ex.getMessage());
+            System.exit(1);
+        } catch (LiquibaseException ex) {
+            log.error("Unable to apply Liquibase changelog. Exception: {}", ex.getMessage());
+            System.exit(1);
+        }
+    }
+}
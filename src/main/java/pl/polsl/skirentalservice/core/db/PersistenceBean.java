@@ -5,75 +5,104 @@
 package pl.polsl.skirentalservice.core.db;
 
 import jakarta.ejb.Singleton;
-import jakarta.ejb.Startup;
-import liquibase.Liquibase;
-import liquibase.database.Database;
-import liquibase.database.DatabaseFactory;
-import liquibase.database.jvm.JdbcConnection;
+import jakarta.inject.Inject;
 import liquibase.exception.LiquibaseException;
-import liquibase.resource.ClassLoaderResourceAccessor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.hibernate.CacheMode;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.boot.MetadataSources;
 import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
 import org.hibernate.cfg.Configuration;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
 import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
 import org.hibernate.service.ServiceRegistry;
-import org.reflections.Reflections;
-import org.reflections.scanners.Scanners;
-import org.reflections.util.ClasspathHelper;
-import org.reflections.util.ConfigurationBuilder;
 import pl.polsl.skirentalservice.core.AbstractAppException;
+import pl.polsl.skirentalservice.core.ServerConfigBean;
 import pl.polsl.skirentalservice.core.XMLConfigLoader;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
 import java.sql.SQLException;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Singleton
-@Startup
 public class PersistenceBean {
-    private static final String LIQUIBASE_CONF = "db/db.changelog.xml";
-    private static final String HIBERNATE_CONF = "db/hibernate.cfg.xml";
+    static final String HIBERNATE_CONF = "db/hibernate.cfg.xml";
+    private static final String ENTITY_INDEX = "META-INF/ski-entity-index";
+    private static final String REPLICA_URL = "ski.replica.connection.url";
+    private static final String REPLICA_USERNAME = "ski.replica.connection.username";
+    private static final String REPLICA_PASSWORD = "ski.replica.connection.password";
+    private static final String REPLICA_LAG_GUARD_SEC = "ski.replica.lag-guard-sec";
+
+    private final ServerConfigBean serverConfigBean;
 
     private SessionFactory sessionFactory;
+    private SessionFactory replicaSessionFactory;
+    private long replicaLagGuardMillis;
+
+    @Inject
+    public PersistenceBean(ServerConfigBean serverConfigBean) {
+        this.serverConfigBean = serverConfigBean;
+    }
+
+    // session factory built outside of container (ex. on in-memory database), without migrations and replica
+    PersistenceBean(SessionFactory sessionFactory) {
+        serverConfigBean = null;
+        this.sessionFactory = sessionFactory;
+    }
 
-    public PersistenceBean() {
+    public void initialize() {
         final Configuration configurationHib = new Configuration().configure(HIBERNATE_CONF);
         configurationHib.setImplicitNamingStrategy(new CustomPhysicalNamingStrategy());
         XMLConfigLoader.replaceAllPlaceholders(configurationHib.getProperties());
 
-        final org.reflections.Configuration configuration = new ConfigurationBuilder()
-            .setUrls(ClasspathHelper.forPackage("pl.polsl.skirentalservice"))
-            .setScanners(Scanners.TypesAnnotated);
-
-        final Reflections reflections = new Reflections(configuration);
-        final Set<Class<?>> annotatedClasses = reflections.getTypesAnnotatedWith(EntityInjector.class);
-        for (Class<?> entityClazz : annotatedClasses) {
+        // provider declared in server config replace default from hibernate config and is wrapped by metrics
+        final String connectionProvider = StringUtils.defaultIfBlank(serverConfigBean.getConnectionProvider(),
+            configurationHib.getProperty(AvailableSettings.CONNECTION_PROVIDER));
+        configurationHib.setProperty(MeteredConnectionProvider.DELEGATE_PROVIDER, connectionProvider);
+        configurationHib.setProperty(MeteredConnectionProvider.LONG_HELD_THRESHOLD_MILLIS,
+            String.valueOf(serverConfigBean.getLongHeldConnectionMs()));
+        configurationHib.setProperty(AvailableSettings.CONNECTION_PROVIDER, MeteredConnectionProvider.class.getName());
+
+        final long entitiesStartMillis = System.currentTimeMillis();
+        final List<Class<?>> entityClasses = loadEntityIndex();
+        for (final Class<?> entityClazz : entityClasses) {
             configurationHib.addAnnotatedClass(entityClazz);
         }
-        final String entities = annotatedClasses.stream().map(Class::getSimpleName).collect(Collectors.joining(", "));
+        final String entities = entityClasses.stream().map(Class::getSimpleName).collect(Collectors.joining(", "));
         log.info("Successful loaded Hibernate entities: [{}]", entities);
+        log.info("Loaded {} entities from build-time index in {}ms", entityClasses.size(),
+            System.currentTimeMillis() - entitiesStartMillis);
         try {
             final ServiceRegistry serviceRegistry = new StandardServiceRegistryBuilder()
                 .applySettings(configurationHib.getProperties()).build();
 
             final MetadataSources sources = new MetadataSources(serviceRegistry);
             final ConnectionProvider provider = sources.getServiceRegistry().getService(ConnectionProvider.class);
-            final JdbcConnection jdbcConnection = new JdbcConnection(provider.getConnection());
-
-            final Database database = DatabaseFactory.getInstance().findCorrectDatabaseImplementation(jdbcConnection);
-            final Liquibase liquibase = new Liquibase(LIQUIBASE_CONF, new ClassLoaderResourceAccessor(), database);
-
-            liquibase.getDatabase().setDatabaseChangeLogTableName("_liquibase_changelog");
-            liquibase.getDatabase().setDatabaseChangeLogLockTableName("_liquibase_changelog_lock");
-            liquibase.update();
+            final Connection connection = provider.getConnection();
+            try {
+                new ChangelogMigrator(connection).migrate(serverConfigBean.getMigrationMode());
+            } finally {
+                provider.closeConnection(connection);
+            }
 
             sessionFactory = configurationHib.buildSessionFactory(serviceRegistry);
+            replicaSessionFactory = buildReplicaSessionFactory(configurationHib);
         } catch (SQLException ex) {
             log.error("Unable to connect with database. Exception: {}", ex.getMessage());
         } catch (LiquibaseException ex) {
@@ -81,9 +110,91 @@ public class PersistenceBean {
         }
     }
 
+    // index is generated by annotation processor from classes marked with @EntityInjector, no classpath scan is needed;
+    // session factory without some entities would fail only on first query, so broken index stops initialization
+    static List<Class<?>> loadEntityIndex() {
+        final List<Class<?>> entityClasses = new ArrayList<>();
+        final ClassLoader classLoader = PersistenceBean.class.getClassLoader();
+        try (final InputStream inputStream = classLoader.getResourceAsStream(ENTITY_INDEX)) {
+            if (inputStream == null) {
+                throw new IllegalStateException("Unable to find entity index: " + ENTITY_INDEX +
+                    ". Check if annotation processor was run");
+            }
+            final BufferedReader reader = new BufferedReader(
+                new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+            for (final String entityClassName : reader.lines().filter(StringUtils::isNotBlank).toList()) {
+                entityClasses.add(Class.forName(entityClassName, false, classLoader));
+            }
+        } catch (IOException | ClassNotFoundException ex) {
+            throw new IllegalStateException("Unable to load entity index: " + ENTITY_INDEX + ". Exception: " +
+                ex.getMessage(), ex);
+        }
+        if (entityClasses.isEmpty()) {
+            throw new IllegalStateException("Entity index: " + ENTITY_INDEX + " is empty");
+        }
+        return entityClasses;
+    }
+
+    private SessionFactory buildReplicaSessionFactory(Configuration configurationHib) {
+        final Properties properties = configurationHib.getProperties();
+        final String replicaUrl = properties.getProperty(REPLICA_URL);
+        if (StringUtils.isBlank(replicaUrl)) {
+            log.info("Read replica is not configured. All queries will be executed on primary database");
+            return null;
+        }
+        replicaLagGuardMillis = Long.parseLong(properties.getProperty(REPLICA_LAG_GUARD_SEC, "5")) * 1000;
+
+        final Properties replicaProperties = new Properties();
+        replicaProperties.putAll(properties);
+        replicaProperties.put(AvailableSettings.URL, replicaUrl);
+        replicaProperties.put(AvailableSettings.USER, StringUtils.defaultIfBlank(
+            properties.getProperty(REPLICA_USERNAME), properties.getProperty(AvailableSettings.USER)));
+        replicaProperties.put(AvailableSettings.PASS, StringUtils.defaultIfBlank(
+            properties.getProperty(REPLICA_PASSWORD), properties.getProperty(AvailableSettings.PASS)));
+        try {
+            final ServiceRegistry replicaServiceRegistry = new StandardServiceRegistryBuilder()
+                .applySettings(replicaProperties).build();
+            final SessionFactory replicaFactory = configurationHib.buildSessionFactory(replicaServiceRegistry);
+            log.info("Successful connected with read replica. Lag guard window: {}ms", replicaLagGuardMillis);
+            return replicaFactory;
+        } catch (Exception ex) {
+            log.error("Unable to connect with read replica, fallback to primary database. Exception: {}",
+                ex.getMessage());
+            return null;
+        }
+    }
+
+    public Map<String, ConnectionPoolMetrics> getPoolMetrics() {
+        final Map<String, ConnectionPoolMetrics> poolMetrics = new LinkedHashMap<>();
+        poolMetrics.put("primary", getPoolMetrics(sessionFactory));
+        if (replicaSessionFactory != null) {
+            poolMetrics.put("replica", getPoolMetrics(replicaSessionFactory));
+        }
+        return poolMetrics;
+    }
+
+    private ConnectionPoolMetrics getPoolMetrics(SessionFactory factory) {
+        return factory.unwrap(SessionFactoryImplementor.class).getServiceRegistry()
+            .getService(ConnectionProvider.class)
+            .unwrap(MeteredConnectionProvider.class)
+            .getMetrics();
+    }
+
+    private Session openReadSession() {
+        // reads directly after write in the same HTTP session could hit not yet replicated data
+        if (replicaSessionFactory == null || ReplicaLagGuard.isPrimaryRequired(replicaLagGuardMillis)) {
+            return sessionFactory.openSession();
+        }
+        final Session session = replicaSessionFactory.openSession();
+        session.setDefaultReadOnly(true);
+        // second level cache is shared with primary, lagging replica must not put stale data into it
+        session.setCacheMode(CacheMode.GET);
+        return session;
+    }
+
     public <T> T startNonTransactQuery(Function<Session, T> executableCode) {
         T response;
-        try (final Session session = sessionFactory.openSession()) {
+        try (final Session session = openReadSession()) {
             response = executableCode.apply(session);
         } catch (Exception ex) {
             throw new TransactionalException(ex);
@@ -104,6 +215,7 @@ public class PersistenceBean {
             try {
                 session.beginTransaction();
                 response = executableTransaction.apply(session);
+                ReplicaLagGuard.markWrite();
             } catch (AbstractAppException ex) {
                 rollbackSideEffects.run();
                 if (session.getTransaction().isActive()) {
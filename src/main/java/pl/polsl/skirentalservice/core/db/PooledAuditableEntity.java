@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.core.db;
+
+import jakarta.persistence.*;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.TableGenerator;
+
+// ids are reserved in blocks from _id_generators table, which allows Hibernate to batch line items inserts
+// (with IDENTITY strategy every single INSERT must be executed immediately to get generated id)
+@EntityInjector
+@MappedSuperclass
+@NoArgsConstructor
+public abstract class PooledAuditableEntity extends AbstractAuditableEntity {
+    @Id
+    @GeneratedValue(generator = "pooled_id_generator")
+    @GenericGenerator(name = "pooled_id_generator", strategy = "enhanced-table", parameters = {
+        @Parameter(name = TableGenerator.TABLE_PARAM, value = "_id_generators"),
+        @Parameter(name = TableGenerator.SEGMENT_COLUMN_PARAM, value = "sequence_name"),
+        @Parameter(name = TableGenerator.VALUE_COLUMN_PARAM, value = "next_val"),
+        @Parameter(name = TableGenerator.CONFIG_PREFER_SEGMENT_PER_ENTITY, value = "true"),
+        @Parameter(name = TableGenerator.INCREMENT_PARAM, value = "50"),
+        @Parameter(name = TableGenerator.OPT_PARAM, value = "pooled")
+    })
+    @Column(name = "id")
+    private Long id;
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public void setId(Long id) {
+        this.id = id;
+    }
+}
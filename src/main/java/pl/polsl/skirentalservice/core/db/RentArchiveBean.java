@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.core.db;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.ejb.Timeout;
+import jakarta.ejb.TimerConfig;
+import jakarta.ejb.TimerService;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import pl.polsl.skirentalservice.core.ServerConfigBean;
+import pl.polsl.skirentalservice.dao.RentDao;
+import pl.polsl.skirentalservice.dao.core.DaoInstrumentation;
+import pl.polsl.skirentalservice.dao.hibernate.RentDaoHib;
+import pl.polsl.skirentalservice.entity.ArchivedRentEntity;
+import pl.polsl.skirentalservice.entity.ArchivedRentReturnEntity;
+import pl.polsl.skirentalservice.entity.RentEntity;
+import pl.polsl.skirentalservice.entity.RentReturnEntity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Slf4j
+@Singleton
+@Startup
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class RentArchiveBean {
+    // rents moved in single transaction, short transactions not block sellers working on hot tables
+    private static final int BATCH_SIZE = 200;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final PersistenceBean persistenceBean;
+    private final CountCacheBean countCacheBean;
+    private final long archiveAfterDays;
+    private final long archiveIntervalMillis;
+
+    @Resource
+    private TimerService timerService;
+
+    @Inject
+    public RentArchiveBean(
+        PersistenceBean persistenceBean, CountCacheBean countCacheBean, ServerConfigBean serverConfigBean
+    ) {
+        this.persistenceBean = persistenceBean;
+        this.countCacheBean = countCacheBean;
+        archiveAfterDays = serverConfigBean.getArchiveReturnedAfterDays();
+        archiveIntervalMillis = serverConfigBean.getArchiveIntervalMin() * 60 * 1000;
+    }
+
+    @PostConstruct
+    public void scheduleArchive() {
+        if (archiveAfterDays <= 0 || archiveIntervalMillis <= 0) {
+            log.info("Scheduled archive of returned rents is disabled");
+            return;
+        }
+        timerService.createIntervalTimer(archiveIntervalMillis, archiveIntervalMillis, new TimerConfig(null, false));
+        log.info("Scheduled archive of rents returned before {} days every {}ms", archiveAfterDays,
+            archiveIntervalMillis);
+    }
+
+    @Timeout
+    public void archiveReturnedRents() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            final long startMillis = System.currentTimeMillis();
+            final LocalDateTime returnedBefore = LocalDateTime.now().minusDays(archiveAfterDays);
+            int archivedRents = 0;
+            int movedRents;
+            do {
+                movedRents = moveBatchToArchive(returnedBefore);
+                archivedRents += movedRents;
+            } while (movedRents == BATCH_SIZE);
+            if (archivedRents > 0) {
+                countCacheBean.invalidate(RentEntity.class, RentReturnEntity.class, ArchivedRentEntity.class,
+                    ArchivedRentReturnEntity.class);
+            }
+            log.info("Moved {} rents returned before {} to archive in {}ms", archivedRents, returnedBefore,
+                System.currentTimeMillis() - startMillis);
+        } catch (RuntimeException ex) {
+            log.error("Unable to move returned rents to archive. Cause: {}", ex.getMessage());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private int moveBatchToArchive(LocalDateTime returnedBefore) {
+        return persistenceBean.startTransaction(session -> {
+            final RentDao rentDao = DaoInstrumentation.instrument(new RentDaoHib(session));
+            final List<Long> rentIds = rentDao.findAllArchivableRentsIds(returnedBefore, BATCH_SIZE);
+            if (!rentIds.isEmpty()) {
+                rentDao.moveRentsToArchive(rentIds);
+            }
+            session.getTransaction().commit();
+            return rentIds.size();
+        });
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.core.db;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class ReplicaLagGuard {
+    private static final ThreadLocal<WriteScope> WRITE_SCOPE = new ThreadLocal<>();
+
+    public static void openScope(Long lastWriteMillis) {
+        WRITE_SCOPE.set(new WriteScope(lastWriteMillis));
+    }
+
+    public static Long closeScope() {
+        final WriteScope scope = WRITE_SCOPE.get();
+        WRITE_SCOPE.remove();
+        return scope == null || !scope.written ? null : scope.lastWriteMillis;
+    }
+
+    static void markWrite() {
+        final WriteScope scope = WRITE_SCOPE.get();
+        if (scope != null) {
+            scope.lastWriteMillis = System.currentTimeMillis();
+            scope.written = true;
+        }
+    }
+
+    static boolean isPrimaryRequired(long lagWindowMillis) {
+        final WriteScope scope = WRITE_SCOPE.get();
+        if (scope == null || scope.lastWriteMillis == null) {
+            return false;
+        }
+        return System.currentTimeMillis() - scope.lastWriteMillis < lagWindowMillis;
+    }
+
+    private static class WriteScope {
+        private Long lastWriteMillis;
+        private boolean written;
+
+        private WriteScope(Long lastWriteMillis) {
+            this.lastWriteMillis = lastWriteMillis;
+        }
+    }
+}
@@ -40,13 +40,16 @@ public class MailServiceBean {
     private static final String MAIL_CFG_DEV = "/mail/mail.cfg.dev.xml";
     private static final String FREEMARKER_PATH = "/mail/templates";
 
-    private final Session mailSession;
-    private final Configuration freemarkerConfig;
-    private final Properties configProperties;
+    private Session mailSession;
+    private Configuration freemarkerConfig;
+    private Properties configProperties;
 
     @Inject
     public MailServiceBean(ServerConfigBean serverConfigBean) {
         this.serverConfigBean = serverConfigBean;
+    }
+
+    public void initialize() {
         final String configFile = serverConfigBean.getEnvironment().isDevOrDocker() ? MAIL_CFG_DEV : MAIL_CFG;
         final XMLConfigLoader<XMLMailConfig> xmlConfigLoader = new XMLConfigLoader<>(configFile, XMLMailConfig.class);
         final Properties allConfigProperties = xmlConfigLoader.loadConfig();
@@ -132,6 +135,18 @@ public class MailServiceBean {
         }
     }
 
+    public void warmUpTemplates() {
+        // parsed templates are kept in freemarker cache, so first sent message not wait for parsing
+        for (final MailTemplate template : MailTemplate.values()) {
+            try {
+                freemarkerConfig.getTemplate(template.getFullName());
+            } catch (IOException ex) {
+                log.warn("Unable to warm up freemarker template. Template name: {}", template);
+            }
+        }
+        log.info("Successful parsed {} freemarker templates.", MailTemplate.values().length);
+    }
+
     public String getDomain() {
         return "@" + configProperties.getProperty("mail.smtp.domain");
     }
@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.core.s3;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FileUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URLEncoder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// objects in buckets are immutable after put, so cached files are invalidated only by delete
+@Slf4j
+class DiskObjectCache {
+    private static final String DIRECTORY_PREFIX = "ski-s3-cache-";
+    private static final String LOCK_FILE = ".lock";
+
+    private final Path directory;
+    private final FileChannel lockChannel;
+    private final long maxSizeBytes;
+    private final long maxObjectSizeBytes;
+    // access ordered map, eldest entry is the least recently served object
+    private final Map<String, CachedObject> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long sizeBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong servedBytes = new AtomicLong();
+    private final AtomicLong fetchedBytes = new AtomicLong();
+    private final AtomicLong storedBytes = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    DiskObjectCache(Path rootDirectory, long maxSizeBytes, long maxObjectSizeBytes) throws IOException {
+        this.maxSizeBytes = maxSizeBytes;
+        this.maxObjectSizeBytes = maxObjectSizeBytes;
+        // root directory can be shared by other instances (or other files), so every instance has own subdirectory
+        // and only not locked subdirectories of this cache are removed
+        Files.createDirectories(rootDirectory);
+        removeStaleDirectories(rootDirectory);
+        directory = Files.createTempDirectory(rootDirectory, DIRECTORY_PREFIX);
+        lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE);
+        lockChannel.lock();
+        log.info("Initialized S3 objects disk cache in: {}, max size: {} bytes", directory, maxSizeBytes);
+    }
+
+    synchronized FetchedObjectMetadata getMetadata(S3Bucket bucket, String key) {
+        final CachedObject cachedObject = entries.get(createKey(bucket, key));
+        return cachedObject == null ? null : cachedObject.metadata();
+    }
+
+    boolean accepts(long contentLength) {
+        return contentLength <= maxObjectSizeBytes;
+    }
+
+    // false when object is not cached (or was evicted in the meantime) and must be fetched from S3
+    boolean transferTo(S3Bucket bucket, String key, ObjectRange range, OutputStream out) throws IOException {
+        final CachedObject cachedObject;
+        synchronized (this) {
+            cachedObject = entries.get(createKey(bucket, key));
+        }
+        if (cachedObject == null) {
+            misses.incrementAndGet();
+            return false;
+        }
+        try (final FileChannel channel = FileChannel.open(cachedObject.path(), StandardOpenOption.READ)) {
+            final WritableByteChannel outChannel = Channels.newChannel(out);
+            long position = range.start();
+            final long end = range.end() + 1;
+            while (position < end) {
+                position += channel.transferTo(position, end - position, outChannel);
+            }
+        } catch (NoSuchFileException ex) {
+            misses.incrementAndGet();
+            return false;
+        }
+        hits.incrementAndGet();
+        servedBytes.addAndGet(range.getLength());
+        return true;
+    }
+
+    Path createTempFile() throws IOException {
+        return Files.createTempFile(directory, "fetch-", ".tmp");
+    }
+
+    void put(S3Bucket bucket, String key, byte[] data, FetchedObjectMetadata metadata) {
+        if (!accepts(data.length)) {
+            return;
+        }
+        try {
+            final Path tempFile = createTempFile();
+            Files.write(tempFile, data);
+            commit(bucket, key, tempFile, metadata);
+        } catch (IOException ex) {
+            log.warn("Unable to put object: {} from bucket: {} in disk cache. Cause: {}", key, bucket,
+                ex.getMessage());
+        }
+    }
+
+    // fully written temporary file is moved atomically, so readers never see partially written object
+    void commit(S3Bucket bucket, String key, Path tempFile, FetchedObjectMetadata metadata) throws IOException {
+        final String cacheKey = createKey(bucket, key);
+        final Path path = directory.resolve(cacheKey);
+        Files.createDirectories(path.getParent());
+        Files.move(tempFile, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        synchronized (this) {
+            final CachedObject previous = entries.put(cacheKey, new CachedObject(path, metadata));
+            if (previous != null) {
+                sizeBytes -= previous.metadata().contentLength();
+            }
+            sizeBytes += metadata.contentLength();
+            evictEldest();
+        }
+        storedBytes.addAndGet(metadata.contentLength());
+    }
+
+    void invalidate(S3Bucket bucket, String key) {
+        final CachedObject cachedObject;
+        synchronized (this) {
+            cachedObject = entries.remove(createKey(bucket, key));
+            if (cachedObject == null) {
+                return;
+            }
+            sizeBytes -= cachedObject.metadata().contentLength();
+        }
+        deleteFile(cachedObject.path());
+    }
+
+    void recordFetched(long bytes) {
+        fetchedBytes.addAndGet(bytes);
+    }
+
+    synchronized ObjectCacheStats getStats() {
+        final long hitsCount = hits.get();
+        final long total = hitsCount + misses.get();
+        return new ObjectCacheStats(hitsCount, misses.get(), total == 0 ? 0 : (double) hitsCount / total,
+            servedBytes.get(), fetchedBytes.get(), storedBytes.get(), evictions.get(), entries.size(), sizeBytes,
+            maxSizeBytes);
+    }
+
+    // index is kept only in memory, so files of this instance are useless after close
+    void close() {
+        try {
+            lockChannel.close();
+            FileUtils.deleteDirectory(directory.toFile());
+            log.info("Removed S3 objects disk cache directory: {}", directory);
+        } catch (IOException ex) {
+            log.warn("Unable to remove S3 objects disk cache directory: {}. Cause: {}", directory, ex.getMessage());
+        }
+    }
+
+    private void evictEldest() {
+        final Iterator<CachedObject> iterator = entries.values().iterator();
+        while (sizeBytes > maxSizeBytes && iterator.hasNext()) {
+            final CachedObject eldest = iterator.next();
+            iterator.remove();
+            sizeBytes -= eldest.metadata().contentLength();
+            evictions.incrementAndGet();
+            // already opened channels still read unlinked file, new readers fall back to S3
+            deleteFile(eldest.path());
+        }
+    }
+
+    private void deleteFile(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ex) {
+            log.warn("Unable to delete cached object file: {}. Cause: {}", path, ex.getMessage());
+        }
+    }
+
+    // lock of crashed or not closed instance is released by operating system, so its directory can be removed
+    private void removeStaleDirectories(Path rootDirectory) throws IOException {
+        try (final DirectoryStream<Path> cacheDirectories = Files
+            .newDirectoryStream(rootDirectory, DIRECTORY_PREFIX + "*")) {
+            for (final Path cacheDirectory : cacheDirectories) {
+                if (Files.isDirectory(cacheDirectory) && isNotLocked(cacheDirectory)) {
+                    FileUtils.deleteDirectory(cacheDirectory.toFile());
+                    log.info("Removed stale S3 objects disk cache directory: {}", cacheDirectory);
+                }
+            }
+        }
+    }
+
+    private boolean isNotLocked(Path cacheDirectory) {
+        try (final FileChannel channel = FileChannel.open(cacheDirectory.resolve(LOCK_FILE),
+            StandardOpenOption.WRITE)) {
+            final FileLock lock = channel.tryLock();
+            return lock != null;
+        } catch (OverlappingFileLockException ex) {
+            // locked by other application deployed in the same JVM
+            return false;
+        } catch (IOException ex) {
+            // directory without lock file could be just created by other instance
+            return false;
+        }
+    }
+
+    // dots are encoded too, so key can not point outside of bucket directory
+    private String createKey(S3Bucket bucket, String key) {
+        return bucket.getBucketName() + "/" + URLEncoder.encode(key, StandardCharsets.UTF_8).replace(".", "%2E");
+    }
+
+    private record CachedObject(Path path, FetchedObjectMetadata metadata) {
+    }
+}
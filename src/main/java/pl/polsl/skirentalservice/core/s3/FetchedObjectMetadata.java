@@ -0,0 +1,22 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.core.s3;
+
+import lombok.Builder;
+
+import java.util.Date;
+
+@Builder
+public record FetchedObjectMetadata(
+    String contentType,
+    long contentLength,
+    String eTag,
+    Date lastModified
+) {
+    // S3 returns etag without quotes, in HTTP headers it must be quoted string
+    public String getQuotedETag() {
+        return "\"" + eTag + "\"";
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.core.s3;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.entity.ContentType;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Date;
+import java.util.Objects;
+
+// every bucket is a directory in storage root, object key is file name in bucket directory
+@Slf4j
+class FileSystemObjectStorage implements ObjectStorage {
+    private static final String TEMP_FILE_PREFIX = ".upload-";
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    private final Path directory;
+
+    FileSystemObjectStorage(Path directory) throws IOException {
+        this.directory = directory.toAbsolutePath().normalize();
+        for (final S3Bucket bucket : S3Bucket.values()) {
+            final Path bucketDirectory = Files.createDirectories(getBucketDirectory(bucket));
+            removeAbandonedTempFiles(bucketDirectory);
+        }
+        log.info("Initialized filesystem object storage in: {}", this.directory);
+    }
+
+    @Override
+    public FetchedObjectMetadata getObjectMetadata(S3Bucket bucket, String key) {
+        final Path path = resolveObject(bucket, key);
+        if (path == null) {
+            return null;
+        }
+        try {
+            final BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            if (!attributes.isRegularFile()) {
+                return null;
+            }
+            final long lastModifiedMillis = attributes.lastModifiedTime().toMillis();
+            // file is replaced by new one on every put, so size and modification time identify content
+            return FetchedObjectMetadata.builder()
+                .contentType(Objects.requireNonNullElse(URLConnection.guessContentTypeFromName(key),
+                    ContentType.APPLICATION_OCTET_STREAM.getMimeType()))
+                .contentLength(attributes.size())
+                .eTag(Long.toHexString(attributes.size()) + "-" + Long.toHexString(lastModifiedMillis))
+                .lastModified(new Date(lastModifiedMillis / 1000 * 1000))
+                .build();
+        } catch (NoSuchFileException ex) {
+            return null;
+        } catch (IOException ex) {
+            log.error("Unable to read object: {} metadata from bucket: {}. Cause: {}", key, bucket, ex.getMessage());
+            throw new RuntimeException(ex);
+        }
+    }
+
+    // bytes are copied by kernel from file to socket (zero-copy), not through heap buffer
+    @Override
+    public void streamObject(S3Bucket bucket, String key, ObjectRange range, OutputStream out) throws IOException {
+        final Path path = resolveObject(bucket, key);
+        if (path == null) {
+            throw new NoSuchFileException(key);
+        }
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final WritableByteChannel outChannel = Channels.newChannel(out);
+            long position = range.start();
+            final long end = range.end() + 1;
+            while (position < end) {
+                position += channel.transferTo(position, end - position, outChannel);
+            }
+        }
+    }
+
+    @Override
+    public void putObject(S3Bucket bucket, String key, InputStream in, ContentType type, long length) {
+        final Path path = resolveObject(bucket, key);
+        if (path == null) {
+            throw new IllegalArgumentException("Invalid object key: " + key);
+        }
+        Path tempFile = null;
+        try {
+            tempFile = Files.createTempFile(path.getParent(), TEMP_FILE_PREFIX, TEMP_FILE_SUFFIX);
+            try (final FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                channel.transferFrom(Channels.newChannel(in), 0, Long.MAX_VALUE);
+                channel.force(true);
+            }
+            // readers see old or new file, never partially written object
+            Files.move(tempFile, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException ex) {
+            log.info("Unable to persist object in bucket: {} with key: {}", bucket, key);
+            deleteTempFile(tempFile);
+            throw new RuntimeException(ex);
+        }
+    }
+
+    @Override
+    public void putObject(S3Bucket bucket, String key, byte[] in, ContentType type) {
+        putObject(bucket, key, new ByteArrayInputStream(in), type, in.length);
+    }
+
+    @Override
+    public void deleteObject(S3Bucket bucket, String key) {
+        final Path path = resolveObject(bucket, key);
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ex) {
+            log.error("Unable to delete object: {} from bucket: {}. Cause: {}", key, bucket, ex.getMessage());
+            throw new RuntimeException(ex);
+        }
+    }
+
+    @Override
+    public URL generatePresignedUrl(S3Bucket bucket, String key) {
+        return null;
+    }
+
+    @Override
+    public ObjectCacheStats getCacheStats() {
+        return null;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    // keys are plain file names, key leading out of bucket directory (or to temp file) is treated as not existing
+    private Path resolveObject(S3Bucket bucket, String key) {
+        if (key == null || key.isBlank() || key.startsWith(".")) {
+            return null;
+        }
+        final Path bucketDirectory = getBucketDirectory(bucket);
+        try {
+            final Path path = bucketDirectory.resolve(key).normalize();
+            return bucketDirectory.equals(path.getParent()) ? path : null;
+        } catch (InvalidPathException ex) {
+            return null;
+        }
+    }
+
+    private Path getBucketDirectory(S3Bucket bucket) {
+        return directory.resolve(bucket.getBucketName());
+    }
+
+    // temp files left by interrupted put (ex. server crash) are never moved to objects
+    private void removeAbandonedTempFiles(Path bucketDirectory) throws IOException {
+        final String glob = TEMP_FILE_PREFIX + "*" + TEMP_FILE_SUFFIX;
+        try (final DirectoryStream<Path> tempFiles = Files.newDirectoryStream(bucketDirectory, glob)) {
+            for (final Path tempFile : tempFiles) {
+                deleteTempFile(tempFile);
+            }
+        }
+    }
+
+    private void deleteTempFile(Path tempFile) {
+        if (tempFile == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(tempFile);
+        } catch (IOException ex) {
+            log.warn("Unable to delete temp file: {}. Cause: {}", tempFile, ex.getMessage());
+        }
+    }
+}
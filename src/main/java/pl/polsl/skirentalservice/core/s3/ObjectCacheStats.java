@@ -0,0 +1,19 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.core.s3;
+
+public record ObjectCacheStats(
+    long hits,
+    long misses,
+    double hitRate,
+    long servedBytes,
+    long fetchedBytes,
+    long storedBytes,
+    long evictions,
+    int entries,
+    long sizeBytes,
+    long maxSizeBytes
+) {
+}
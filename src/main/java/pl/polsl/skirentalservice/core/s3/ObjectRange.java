@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.core.s3;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+
+public record ObjectRange(long start, long end, boolean partial) {
+    private static final String BYTES_UNIT = "bytes=";
+
+    public static ObjectRange full(long contentLength) {
+        return new ObjectRange(0, contentLength - 1, false);
+    }
+
+    // only single range is supported, for multiple or malformed ranges whole object is sent (allowed by RFC 9110)
+    // null is returned when range is not satisfiable and 416 should be sent
+    public static ObjectRange parse(String rangeHeader, long contentLength) {
+        if (!StringUtils.startsWith(rangeHeader, BYTES_UNIT) || rangeHeader.contains(",")) {
+            return full(contentLength);
+        }
+        final String range = rangeHeader.substring(BYTES_UNIT.length()).trim();
+        final String startValue = StringUtils.substringBefore(range, "-").trim();
+        final String endValue = StringUtils.substringAfter(range, "-").trim();
+        if (!range.contains("-") || !isEmptyOrDigits(startValue) || !isEmptyOrDigits(endValue)
+            || (startValue.isEmpty() && endValue.isEmpty())) {
+            return full(contentLength);
+        }
+        if (startValue.isEmpty()) {
+            // suffix range, last N bytes of object
+            final long suffixLength = NumberUtils.toLong(endValue, Long.MAX_VALUE);
+            if (suffixLength == 0 || contentLength == 0) {
+                return null;
+            }
+            return new ObjectRange(Math.max(0, contentLength - suffixLength), contentLength - 1, true);
+        }
+        final long start = NumberUtils.toLong(startValue, Long.MAX_VALUE);
+        final long end = endValue.isEmpty() ? contentLength - 1 : NumberUtils.toLong(endValue, Long.MAX_VALUE);
+        if (start >= contentLength) {
+            return null;
+        }
+        if (end < start) {
+            return full(contentLength);
+        }
+        return new ObjectRange(start, Math.min(end, contentLength - 1), true);
+    }
+
+    public long getLength() {
+        return end - start + 1;
+    }
+
+    public String getContentRange(long contentLength) {
+        return "bytes " + start + "-" + end + "/" + contentLength;
+    }
+
+    private static boolean isEmptyOrDigits(String value) {
+        return value.isEmpty() || StringUtils.isNumeric(value);
+    }
+}
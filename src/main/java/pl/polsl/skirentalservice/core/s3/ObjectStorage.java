@@ -0,0 +1,27 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.core.s3;
+
+import org.apache.http.entity.ContentType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+
+// storage backend of bucket objects, implementation is selected by s3.storage property; implementations must be
+// thread-safe, methods are called concurrently without any lock
+public interface ObjectStorage {
+    FetchedObjectMetadata getObjectMetadata(S3Bucket bucket, String key);
+    void streamObject(S3Bucket bucket, String key, ObjectRange range, OutputStream out) throws IOException;
+    void putObject(S3Bucket bucket, String key, InputStream in, ContentType type, long length);
+    void putObject(S3Bucket bucket, String key, byte[] in, ContentType type);
+    void deleteObject(S3Bucket bucket, String key);
+    // null when backend not support direct access to objects, then object is sent by application
+    URL generatePresignedUrl(S3Bucket bucket, String key);
+    ObjectCacheStats getCacheStats();
+    // releases local resources (ex. disk cache files) on application shutdown
+    void close();
+}
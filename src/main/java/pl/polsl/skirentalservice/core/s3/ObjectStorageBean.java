@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.core.s3;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.entity.ContentType;
+import pl.polsl.skirentalservice.core.XMLConfigLoader;
+import pl.polsl.skirentalservice.core.mail.Attachment;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Properties;
+
+// storage backends are thread-safe, container write lock would serialize all transfers to (slow) clients
+@Slf4j
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class ObjectStorageBean implements ObjectStorage {
+    private static final String S3_CFG = "/s3/s3.cfg.xml";
+
+    // set by bootstrap thread and read without lock by request threads
+    private volatile ObjectStorage storage;
+    private volatile Map<S3Bucket, S3DeliveryMode> deliveryModes;
+
+    public void initialize() {
+        final XMLConfigLoader<XMLS3Config> xmlConfigLoader = new XMLConfigLoader<>(S3_CFG, XMLS3Config.class);
+        final Properties s3Properties = xmlConfigLoader.loadConfig();
+        final ObjectStorageType storageType = ObjectStorageType.findByType(s3Properties.getProperty("s3.storage"));
+        storage = switch (storageType) {
+            case S3 -> new S3ObjectStorage(s3Properties);
+            case FILESYSTEM -> createFileSystemStorage(s3Properties);
+        };
+        deliveryModes = loadDeliveryModes(s3Properties);
+        log.info("Initialized object storage: {}", storageType);
+    }
+
+    @Override
+    public FetchedObjectMetadata getObjectMetadata(S3Bucket bucket, String key) {
+        return storage.getObjectMetadata(bucket, key);
+    }
+
+    @Override
+    public void streamObject(S3Bucket bucket, String key, ObjectRange range, OutputStream out) throws IOException {
+        storage.streamObject(bucket, key, range, out);
+    }
+
+    @Override
+    public void putObject(S3Bucket bucket, String key, InputStream in, ContentType type, long length) {
+        storage.putObject(bucket, key, in, type, length);
+    }
+
+    @Override
+    public void putObject(S3Bucket bucket, String key, byte[] in, ContentType type) {
+        storage.putObject(bucket, key, in, type);
+    }
+
+    public void putObject(S3Bucket bucket, Attachment attachment) {
+        storage.putObject(bucket, attachment.name(), attachment.data(), attachment.type());
+    }
+
+    @Override
+    public void deleteObject(S3Bucket bucket, String key) {
+        storage.deleteObject(bucket, key);
+    }
+
+    @Override
+    public URL generatePresignedUrl(S3Bucket bucket, String key) {
+        return storage.generatePresignedUrl(bucket, key);
+    }
+
+    @Override
+    public ObjectCacheStats getCacheStats() {
+        return storage.getCacheStats();
+    }
+
+    @Override
+    @PreDestroy
+    public void close() {
+        // storage is not created when initialization failed
+        if (storage != null) {
+            storage.close();
+        }
+    }
+
+    public S3DeliveryMode getDeliveryMode(S3Bucket bucket) {
+        return deliveryModes.getOrDefault(bucket, S3DeliveryMode.PROXY);
+    }
+
+    private ObjectStorage createFileSystemStorage(Properties s3Properties) {
+        final String directory = StringUtils.defaultIfBlank(s3Properties.getProperty("s3.filesystem.directory"),
+            Path.of(System.getProperty("user.home"), "ski-storage").toString());
+        try {
+            return new FileSystemObjectStorage(Path.of(directory));
+        } catch (IOException ex) {
+            throw new IllegalStateException("Unable to create filesystem object storage in: " + directory, ex);
+        }
+    }
+
+    private Map<S3Bucket, S3DeliveryMode> loadDeliveryModes(Properties s3Properties) {
+        final Map<S3Bucket, S3DeliveryMode> modes = new EnumMap<>(S3Bucket.class);
+        for (final S3Bucket bucket : S3Bucket.values()) {
+            modes.put(bucket, S3DeliveryMode.findByMode(s3Properties
+                .getProperty("s3.delivery-mode." + bucket.getBucketName())));
+        }
+        log.info("Loaded S3 objects delivery modes: {}", modes);
+        return modes;
+    }
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.core.s3;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum ObjectStorageType {
+    // S3 compatible service (MinIO, AWS)
+    S3("s3"),
+    // directories in local filesystem, one directory per bucket
+    FILESYSTEM("filesystem"),
+    ;
+
+    private final String type;
+
+    public static ObjectStorageType findByType(String type) {
+        for (final ObjectStorageType storageType : values()) {
+            if (storageType.type.equalsIgnoreCase(type)) {
+                return storageType;
+            }
+        }
+        return S3;
+    }
+}
@@ -0,0 +1,314 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.core.s3;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.ejb.Timeout;
+import jakarta.ejb.TimerConfig;
+import jakarta.ejb.TimerService;
+import jakarta.enterprise.concurrent.ManagedExecutorService;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.entity.ContentType;
+import org.hibernate.Session;
+import pl.polsl.skirentalservice.core.ServerConfigBean;
+import pl.polsl.skirentalservice.core.db.AfterCommit;
+import pl.polsl.skirentalservice.core.db.PersistenceBean;
+import pl.polsl.skirentalservice.core.mail.Attachment;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Slf4j
+@Singleton
+@Startup
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class PendingUploadBean {
+    private static final int RETRY_BATCH_SIZE = 50;
+    // fresh uploads are still handled by worker started after commit
+    private static final long RETRY_AFTER_SEC = 30;
+    // claim must be longer than any put, after this time row can be claimed again by other uploader
+    private static final long CLAIM_LEASE_SEC = 600;
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final AtomicBoolean retrying = new AtomicBoolean();
+
+    private final PersistenceBean persistenceBean;
+    private final ObjectStorageBean objectStorageBean;
+    private final long retryIntervalMillis;
+    private final int maxAttempts;
+
+    @Resource
+    private TimerService timerService;
+
+    // container managed threads, so beans called by uploads run with application context
+    @Resource
+    private ManagedExecutorService executor;
+
+    @Inject
+    public PendingUploadBean(
+        PersistenceBean persistenceBean, ObjectStorageBean objectStorageBean, ServerConfigBean serverConfigBean
+    ) {
+        this.persistenceBean = persistenceBean;
+        this.objectStorageBean = objectStorageBean;
+        retryIntervalMillis = serverConfigBean.getUploadRetryIntervalMin() * 60 * 1000;
+        maxAttempts = serverConfigBean.getUploadMaxAttempts();
+    }
+
+    @PostConstruct
+    public void scheduleRetry() {
+        if (retryIntervalMillis <= 0) {
+            log.info("Scheduled retry of pending uploads is disabled");
+            return;
+        }
+        timerService.createIntervalTimer(retryIntervalMillis, retryIntervalMillis, new TimerConfig(null, false));
+        log.info("Scheduled retry of pending uploads every {}ms", retryIntervalMillis);
+    }
+
+    // must be called in opened transaction, document is persisted together with data and uploaded after commit
+    public void enqueue(Session session, S3Bucket bucket, Attachment attachment) {
+        final String sqlInsertUpload = """
+                INSERT INTO _pending_uploads (bucket_name, object_key, content_type, data, created_date_time)
+                VALUES (:bucket, :key, :type, :data, :now)
+                ON DUPLICATE KEY UPDATE content_type = :type, data = :data, attempts = 0, last_error = NULL,
+                    claimed_by = NULL, claimed_until = NULL, cancelled = FALSE
+            """;
+        session.createNativeMutationQuery(sqlInsertUpload)
+            .setParameter("bucket", bucket.getBucketName())
+            .setParameter("key", attachment.name())
+            .setParameter("type", attachment.type().getMimeType())
+            .setParameter("data", attachment.data())
+            .setParameter("now", LocalDateTime.now())
+            .executeUpdate();
+        AfterCommit.run(session, () -> {
+            try {
+                executor.execute(() -> upload(bucket, attachment.name()));
+            } catch (RejectedExecutionException ex) {
+                // rejected upload is not lost, it is still in pending uploads table and is retried by timer
+                log.warn("Upload of object: {} to bucket: {} is postponed to next retry", attachment.name(), bucket);
+            }
+        });
+    }
+
+    // marks not yet uploaded document as cancelled in the same transaction, in which document owner is removed,
+    // uploader which is putting document in this time deletes it after put
+    public int cancel(Session session, S3Bucket bucket, String key) {
+        final String sqlCancelUpload = """
+                UPDATE _pending_uploads SET cancelled = TRUE WHERE bucket_name = :bucket AND object_key = :key
+            """;
+        return session.createNativeMutationQuery(sqlCancelUpload)
+            .setParameter("bucket", bucket.getBucketName())
+            .setParameter("key", key)
+            .executeUpdate();
+    }
+
+    // removes document together with document owner, object is deleted from storage only after commit, so rollback
+    // not lose document of still existing owner
+    public void remove(Session session, S3Bucket bucket, String key) {
+        cancel(session, bucket, key);
+        AfterCommit.run(session, () -> objectStorageBean.deleteObject(bucket, key));
+    }
+
+    @Timeout
+    public void retryPendingUploads() {
+        if (!retrying.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            removeCancelledUploads();
+            final List<PendingUploadKey> uploads = findPendingUploads();
+            int uploaded = 0;
+            for (final PendingUploadKey upload : uploads) {
+                if (upload(upload.bucket(), upload.key())) {
+                    uploaded++;
+                }
+            }
+            if (!uploads.isEmpty()) {
+                log.info("Retried {} pending uploads, {} uploaded successfully", uploads.size(), uploaded);
+            }
+        } catch (RuntimeException ex) {
+            log.error("Unable to retry pending uploads. Cause: {}", ex.getMessage());
+        } finally {
+            retrying.set(false);
+        }
+    }
+
+    // put of the same key is idempotent, but only one uploader (worker, timer or other node) can claim row at once
+    private boolean upload(S3Bucket bucket, String key) {
+        final String claim = UUID.randomUUID().toString();
+        try {
+            final PendingUpload upload = claimPendingUpload(bucket, key, claim);
+            if (upload == null) {
+                log.info("Pending object: {} from bucket: {} is uploaded, claimed or cancelled, skipping", key, bucket);
+                return false;
+            }
+            objectStorageBean.putObject(bucket, key, upload.data(), ContentType.create(upload.contentType()));
+            final PutResult result = persistenceBean.startTransaction(session -> {
+                final String sqlDeleteUploaded = """
+                        DELETE FROM _pending_uploads WHERE claimed_by = :claim AND cancelled = FALSE
+                    """;
+                final int uploadedRows = session.createNativeMutationQuery(sqlDeleteUploaded)
+                    .setParameter("claim", claim)
+                    .executeUpdate();
+                int cancelledRows = 0;
+                if (uploadedRows == 0) {
+                    final String sqlDeleteCancelled = "DELETE FROM _pending_uploads WHERE claimed_by = :claim";
+                    cancelledRows = session.createNativeMutationQuery(sqlDeleteCancelled)
+                        .setParameter("claim", claim)
+                        .executeUpdate();
+                }
+                session.getTransaction().commit();
+                if (uploadedRows > 0) {
+                    return PutResult.UPLOADED;
+                }
+                return cancelledRows > 0 ? PutResult.CANCELLED : PutResult.CLAIM_EXPIRED;
+            });
+            if (result == PutResult.CLAIM_EXPIRED) {
+                // claim expired during put and row was claimed again, so row is finished by next uploader
+                log.warn("Claim of pending object: {} from bucket: {} expired during upload", key, bucket);
+                return false;
+            }
+            if (result == PutResult.CANCELLED) {
+                // delete after commit of owner removal could run before put, so object is deleted once more
+                objectStorageBean.deleteObject(bucket, key);
+                log.info("Pending object: {} from bucket: {} was cancelled during upload, deleted", key, bucket);
+                return false;
+            }
+            log.info("Successfully uploaded pending object: {} to bucket: {}", key, bucket);
+            return true;
+        } catch (RuntimeException ex) {
+            log.error("Unable to upload pending object: {} to bucket: {}. Cause: {}", key, bucket, ex.getMessage());
+            markFailedAttempt(bucket, key, claim, ex);
+            return false;
+        }
+    }
+
+    // claim is set in single UPDATE, so from concurrent uploaders only one gets claimed row
+    private PendingUpload claimPendingUpload(S3Bucket bucket, String key, String claim) {
+        return persistenceBean.startTransaction(session -> {
+            final LocalDateTime now = LocalDateTime.now();
+            final String sqlClaimUpload = """
+                    UPDATE _pending_uploads SET claimed_by = :claim, claimed_until = :claimedUntil
+                    WHERE bucket_name = :bucket AND object_key = :key AND cancelled = FALSE
+                    AND attempts < :maxAttempts AND (claimed_until IS NULL OR claimed_until < :now)
+                """;
+            final int claimed = session.createNativeMutationQuery(sqlClaimUpload)
+                .setParameter("claim", claim)
+                .setParameter("claimedUntil", now.plusSeconds(CLAIM_LEASE_SEC))
+                .setParameter("bucket", bucket.getBucketName())
+                .setParameter("key", key)
+                .setParameter("maxAttempts", maxAttempts)
+                .setParameter("now", now)
+                .executeUpdate();
+            PendingUpload upload = null;
+            if (claimed > 0) {
+                final String sqlFindUpload = """
+                        SELECT content_type, data FROM _pending_uploads WHERE claimed_by = :claim
+                    """;
+                upload = session.createNativeQuery(sqlFindUpload, Object[].class)
+                    .setParameter("claim", claim)
+                    .getResultList()
+                    .stream()
+                    .map(row -> new PendingUpload((String) row[0], (byte[]) row[1]))
+                    .findFirst()
+                    .orElse(null);
+            }
+            session.getTransaction().commit();
+            return upload;
+        });
+    }
+
+    private void markFailedAttempt(S3Bucket bucket, String key, String claim, RuntimeException cause) {
+        try {
+            final long attempts = persistenceBean.startTransaction(session -> {
+                final String sqlUpdateUpload = """
+                        UPDATE _pending_uploads SET attempts = attempts + 1, last_error = :error,
+                            claimed_by = NULL, claimed_until = NULL
+                        WHERE claimed_by = :claim
+                    """;
+                final String sqlFindAttempts = "SELECT attempts FROM _pending_uploads WHERE claimed_by = :claim";
+                final long previousAttempts = session.createNativeQuery(sqlFindAttempts, Object.class)
+                    .setParameter("claim", claim)
+                    .getResultList()
+                    .stream()
+                    .map(attemptsCount -> ((Number) attemptsCount).longValue())
+                    .findFirst()
+                    .orElse(-1L);
+                session.createNativeMutationQuery(sqlUpdateUpload)
+                    .setParameter("error", StringUtils.abbreviate(cause.getMessage(), MAX_ERROR_LENGTH))
+                    .setParameter("claim", claim)
+                    .executeUpdate();
+                session.getTransaction().commit();
+                return previousAttempts + 1;
+            });
+            if (attempts >= maxAttempts) {
+                // row is left in table with last error, it can be inspected and retried by resetting attempts
+                log.error("Upload of pending object: {} to bucket: {} failed {} times and will not be retried",
+                    key, bucket, attempts);
+            }
+        } catch (RuntimeException ex) {
+            log.error("Unable to save failed upload attempt. Cause: {}", ex.getMessage());
+        }
+    }
+
+    // tombstones are removed only when no uploader holds claim, claiming uploader removes its tombstone by itself
+    private void removeCancelledUploads() {
+        persistenceBean.startTransaction(session -> {
+            final String sqlDeleteUploads = """
+                    DELETE FROM _pending_uploads
+                    WHERE cancelled = TRUE AND (claimed_until IS NULL OR claimed_until < :now)
+                """;
+            session.createNativeMutationQuery(sqlDeleteUploads)
+                .setParameter("now", LocalDateTime.now())
+                .executeUpdate();
+            session.getTransaction().commit();
+        });
+    }
+
+    // only keys are loaded, data of every upload is loaded just before its put
+    private List<PendingUploadKey> findPendingUploads() {
+        return persistenceBean.startNonTransactQuery(session -> {
+            final LocalDateTime now = LocalDateTime.now();
+            final String sqlFindUploads = """
+                    SELECT bucket_name, object_key FROM _pending_uploads
+                    WHERE created_date_time < :createdBefore AND cancelled = FALSE AND attempts < :maxAttempts
+                    AND (claimed_until IS NULL OR claimed_until < :now)
+                    ORDER BY created_date_time LIMIT :limit
+                """;
+            return session.createNativeQuery(sqlFindUploads, Object[].class)
+                .setParameter("createdBefore", now.minusSeconds(RETRY_AFTER_SEC))
+                .setParameter("maxAttempts", maxAttempts)
+                .setParameter("now", now)
+                .setParameter("limit", RETRY_BATCH_SIZE)
+                .getResultList()
+                .stream()
+                .map(row -> new PendingUploadKey(S3Bucket.getBucketName((String) row[0]), (String) row[1]))
+                .filter(upload -> upload.bucket() != null)
+                .toList();
+        });
+    }
+
+    private record PendingUploadKey(S3Bucket bucket, String key) {
+    }
+
+    private record PendingUpload(String contentType, byte[] data) {
+    }
+
+    private enum PutResult {
+        UPLOADED,
+        CANCELLED,
+        CLAIM_EXPIRED,
+        ;
+    }
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.core.s3;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum S3DeliveryMode {
+    // object bytes are sent by application server
+    PROXY("proxy"),
+    // client is redirected to short-lived pre-signed url and downloads object directly from S3
+    REDIRECT("redirect"),
+    ;
+
+    private final String mode;
+
+    public static S3DeliveryMode findByMode(String mode) {
+        for (final S3DeliveryMode deliveryMode : values()) {
+            if (deliveryMode.mode.equalsIgnoreCase(mode)) {
+                return deliveryMode;
+            }
+        }
+        return PROXY;
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.core.s3;
+
+import com.amazonaws.HttpMethod;
+import com.amazonaws.SdkClientException;
+import com.amazonaws.auth.AWSCredentials;
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.client.builder.AwsClientBuilder;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.Bucket;
+import com.amazonaws.services.s3.model.GeneratePresignedUrlRequest;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PutObjectResult;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.S3ObjectInputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.HttpStatus;
+import org.apache.http.entity.ContentType;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.List;
+import java.util.Properties;
+
+@Slf4j
+class S3ObjectStorage implements ObjectStorage {
+    private static final int STREAM_BUFFER_SIZE = 8192;
+    private static final long MEGABYTE = 1024 * 1024;
+
+    private final Properties s3Properties;
+    private final AmazonS3 client;
+    private final AmazonS3 presignClient;
+    private final DiskObjectCache cache;
+    private final long presignedUrlExpirationMillis;
+
+    S3ObjectStorage(Properties s3Properties) {
+        this.s3Properties = s3Properties;
+        client = createClientInstance();
+        presignClient = createPresignClientInstance();
+        cache = createCacheInstance();
+        presignedUrlExpirationMillis = Long.parseLong(s3Properties
+            .getProperty("s3.presigned-url-expiration-sec", "60")) * 1000;
+    }
+
+    // only object metadata (HEAD request), body is not fetched
+    @Override
+    public FetchedObjectMetadata getObjectMetadata(S3Bucket bucket, String key) {
+        if (cache != null) {
+            final FetchedObjectMetadata cachedMetadata = cache.getMetadata(bucket, key);
+            if (cachedMetadata != null) {
+                return cachedMetadata;
+            }
+        }
+        try {
+            return toFetchedMetadata(client.getObjectMetadata(bucket.getBucketName(), key));
+        } catch (AmazonS3Exception ex) {
+            if (ex.getStatusCode() == HttpStatus.SC_NOT_FOUND) {
+                return null;
+            }
+            throw ex;
+        }
+    }
+
+    // object is piped through fixed size buffer, so whole file is never allocated on heap
+    @Override
+    public void streamObject(S3Bucket bucket, String key, ObjectRange range, OutputStream out) throws IOException {
+        if (cache != null && cache.transferTo(bucket, key, range, out)) {
+            return;
+        }
+        final GetObjectRequest request = new GetObjectRequest(bucket.getBucketName(), key)
+            .withRange(range.start(), range.end());
+        try (
+            final S3Object object = client.getObject(request);
+            final S3ObjectInputStream inputStream = object.getObjectContent()
+        ) {
+            final ObjectMetadata metadata = object.getObjectMetadata();
+            // only whole objects are cached, they are written to file during sending to client
+            if (cache != null && !range.partial() && cache.accepts(metadata.getContentLength())) {
+                streamAndCacheObject(bucket, key, inputStream, metadata, out);
+            } else {
+                pipeObject(inputStream, out, null);
+            }
+            if (cache != null) {
+                cache.recordFetched(range.getLength());
+            }
+        }
+    }
+
+    private void streamAndCacheObject(
+        S3Bucket bucket, String key, S3ObjectInputStream inputStream, ObjectMetadata metadata, OutputStream out
+    ) throws IOException {
+        final Path tempFile = cache.createTempFile();
+        try (final OutputStream fileOut = Files.newOutputStream(tempFile)) {
+            pipeObject(inputStream, out, fileOut);
+        } catch (IOException ex) {
+            Files.deleteIfExists(tempFile);
+            throw ex;
+        }
+        try {
+            cache.commit(bucket, key, tempFile, toFetchedMetadata(metadata));
+        } catch (IOException ex) {
+            // object was already sent to client, only caching is skipped
+            log.warn("Unable to put object: {} from bucket: {} in disk cache. Cause: {}", key, bucket,
+                ex.getMessage());
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private void pipeObject(S3ObjectInputStream inputStream, OutputStream out, OutputStream copyOut)
+        throws IOException {
+        final byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+        int read;
+        try {
+            while ((read = inputStream.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+                if (copyOut != null) {
+                    copyOut.write(buffer, 0, read);
+                }
+            }
+        } catch (IOException ex) {
+            // client closed connection, not read rest of object is dropped instead of draining it from S3
+            inputStream.abort();
+            throw ex;
+        }
+    }
+
+    @Override
+    public void putObject(S3Bucket bucket, String key, InputStream in, ContentType type, long length) {
+        final ObjectMetadata objectMetadata = new ObjectMetadata();
+        objectMetadata.setContentType(type.getMimeType());
+        objectMetadata.setContentLength(length);
+        client.putObject(bucket.getBucketName(), key, in, objectMetadata);
+        if (cache != null) {
+            // stream was consumed by upload, object will be cached on first read
+            cache.invalidate(bucket, key);
+        }
+    }
+
+    @Override
+    public void putObject(S3Bucket bucket, String key, byte[] in, ContentType type) {
+        try (final InputStream inputStream = new ByteArrayInputStream(in)) {
+            final ObjectMetadata objectMetadata = new ObjectMetadata();
+            objectMetadata.setContentType(type.getMimeType());
+            objectMetadata.setContentLength(in.length);
+            final PutObjectResult result = client.putObject(bucket.getBucketName(), key, inputStream,
+                objectMetadata);
+            if (cache != null) {
+                // last modified is not returned by PUT, local time is close enough for conditional requests
+                cache.put(bucket, key, in, FetchedObjectMetadata.builder()
+                    .contentType(type.getMimeType())
+                    .contentLength(in.length)
+                    .eTag(result.getETag())
+                    .lastModified(new Date(System.currentTimeMillis() / 1000 * 1000))
+                    .build());
+            }
+        } catch (IOException ex) {
+            log.info("Unable to persist object in bucket: {} with key: {}", bucket, key);
+            throw new RuntimeException(ex);
+        }
+    }
+
+    @Override
+    public void deleteObject(S3Bucket bucket, String key) {
+        client.deleteObject(bucket.getBucketName(), key);
+        if (cache != null) {
+            cache.invalidate(bucket, key);
+        }
+    }
+
+    // signed locally by SDK, no request to S3 is made; null when url could not be created
+    @Override
+    public URL generatePresignedUrl(S3Bucket bucket, String key) {
+        final GeneratePresignedUrlRequest request = new GeneratePresignedUrlRequest(bucket.getBucketName(), key)
+            .withMethod(HttpMethod.GET)
+            .withExpiration(new Date(System.currentTimeMillis() + presignedUrlExpirationMillis));
+        try {
+            return presignClient.generatePresignedUrl(request);
+        } catch (SdkClientException ex) {
+            log.warn("Unable to generate pre-signed url for object: {} from bucket: {}. Cause: {}", key, bucket,
+                ex.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public ObjectCacheStats getCacheStats() {
+        return cache == null ? null : cache.getStats();
+    }
+
+    @Override
+    public void close() {
+        if (cache != null) {
+            cache.close();
+        }
+    }
+
+    private FetchedObjectMetadata toFetchedMetadata(ObjectMetadata metadata) {
+        return FetchedObjectMetadata.builder()
+            .contentType(metadata.getContentType())
+            .contentLength(metadata.getContentLength())
+            .eTag(metadata.getETag())
+            .lastModified(metadata.getLastModified())
+            .build();
+    }
+
+    private DiskObjectCache createCacheInstance() {
+        final long maxSizeBytes = Long.parseLong(s3Properties.getProperty("s3.cache.max-size-mb", "0")) * MEGABYTE;
+        if (maxSizeBytes <= 0) {
+            log.info("S3 objects disk cache is disabled");
+            return null;
+        }
+        final String directory = StringUtils.defaultIfBlank(s3Properties.getProperty("s3.cache.directory"),
+            System.getProperty("java.io.tmpdir"));
+        final long maxObjectSizeBytes = Long.parseLong(s3Properties
+            .getProperty("s3.cache.max-object-size-mb", "8")) * MEGABYTE;
+        try {
+            return new DiskObjectCache(Path.of(directory), maxSizeBytes, maxObjectSizeBytes);
+        } catch (IOException ex) {
+            log.error("Unable to create S3 objects disk cache in: {}. Cause: {}", directory, ex.getMessage());
+            return null;
+        }
+    }
+
+    private AmazonS3 createClientInstance() {
+        final String host = s3Properties.getProperty("s3.host");
+        if (StringUtils.isBlank(host)) {
+            throw new IllegalStateException("Missing s3.host property required by s3 object storage");
+        }
+        final AmazonS3 amazonS3 = buildClient(host);
+        // not reachable endpoint is only logged, application starts and S3 requests fail until service is up
+        try {
+            final List<String> buckets = amazonS3.listBuckets().stream().map(Bucket::getName).toList();
+            log.info("Successfully connected with S3 service. Found buckets: {}", buckets);
+        } catch (SdkClientException ex) {
+            log.error("Unable to connect with S3 service. Cause: {}", ex.getMessage());
+        }
+        return amazonS3;
+    }
+
+    // signature covers host, so urls for clients must be signed with publicly reachable S3 host
+    private AmazonS3 createPresignClientInstance() {
+        final String publicHost = s3Properties.getProperty("s3.public-host");
+        if (StringUtils.isBlank(publicHost)) {
+            return client;
+        }
+        return buildClient(publicHost);
+    }
+
+    private AmazonS3 buildClient(String host) {
+        final AWSCredentials credentials = new BasicAWSCredentials(
+            s3Properties.getProperty("s3.access-key"),
+            s3Properties.getProperty("s3.secret-key")
+        );
+        final var endpointConfiguration = new AwsClientBuilder.EndpointConfiguration(
+            host,
+            s3Properties.getProperty("s3.region")
+        );
+        return AmazonS3ClientBuilder
+            .standard()
+            .withPathStyleAccessEnabled(Boolean.valueOf(s3Properties.getProperty("s3.path-style-access-enabled")))
+            .withEndpointConfiguration(endpointConfiguration)
+            .withCredentials(new AWSStaticCredentialsProvider(credentials))
+            .build();
+    }
+}
@@ -39,6 +39,7 @@ public abstract class AbstractPageableWebServlet extends AbstractWebServlet {
         final PaginationData data = getPaginationDataFromRequest(req);
         final SorterDataDto sorterDataDto = generateSortingJPQuery(req);
         final FilterDataDto filterDataDto = generateFilterJPQuery(req);
+        final KeysetCursor cursor = KeysetCursor.decode(req.getParameter("cursor"), sorterDataDto);
 
         req.addAttribute("sorterData", sorterFieldMap);
         req.addAttribute("filterData", filterDataDto);
@@ -48,6 +49,7 @@ public abstract class AbstractPageableWebServlet extends AbstractWebServlet {
             .total(data.total())
             .sorterData(sorterDataDto)
             .filterData(filterDataDto)
+            .cursor(cursor)
             .build();
         return onFetchPageableData(req, pageableDto);
     }
@@ -90,12 +92,12 @@ public abstract class AbstractPageableWebServlet extends AbstractWebServlet {
             final ServletSorterField field = entry.getValue();
             if (entry.getKey().equals(columnName)) {
                 switch (field.getDirection()) {
-                    case IDLE -> sortedData.setJpql(field.setAscending());
-                    case ASC -> sortedData.setJpql(field.setDescending());
-                    default -> sortedData.setJpql(field.reset(defaultSorterColumn));
+                    case IDLE -> sortedData.sortBy(field.getJpql(), field.setAscending());
+                    case ASC -> sortedData.sortBy(field.getJpql(), field.setDescending());
+                    default -> sortedData.sortBy(defaultSorterColumn, field.reset());
                 }
             } else {
-                field.reset(defaultSorterColumn);
+                field.reset();
             }
         }
         req.setSessionAttribute(attribute, sortedData);
@@ -122,6 +124,9 @@ public abstract class AbstractPageableWebServlet extends AbstractWebServlet {
             }
         }
         filterData.setSearchText(searchText);
+        // archive switch is rendered only on rents and returns lists, other lists are always searched in hot set;
+        // archived records are shown together with current records, only when switch is on
+        filterData.setWithArchive(req.getParameter("withArchive") != null);
         req.setSessionAttribute(attribute, filterData);
         return filterData;
     }
@@ -7,16 +7,31 @@ package pl.polsl.skirentalservice.core.servlet.pageable;
 import lombok.Getter;
 import pl.polsl.skirentalservice.dto.FormSelectTupleDto;
 
+import java.util.List;
+
 @Getter
 public class FilterColumn extends FormSelectTupleDto {
     private final String columnName;
+    private final List<String> fullTextColumns;
 
     public FilterColumn(String value, String text, String columnName) {
-        this(false, value, text, columnName);
+        this(false, value, text, columnName, List.of());
+    }
+
+    // full text columns must be covered by single FULLTEXT index and joined in column name only by spaces
+    public FilterColumn(String value, String text, String columnName, List<String> fullTextColumns) {
+        this(false, value, text, columnName, fullTextColumns);
     }
 
     public FilterColumn(boolean isSelected, String value, String text, String columnName) {
+        this(isSelected, value, text, columnName, List.of());
+    }
+
+    public FilterColumn(
+        boolean isSelected, String value, String text, String columnName, List<String> fullTextColumns
+    ) {
         super(isSelected, value, text);
         this.columnName = columnName;
+        this.fullTextColumns = fullTextColumns;
     }
 }
@@ -16,6 +16,7 @@ public class FilterDataDto {
     private String searchText;
     private String searchColumn;
     private List<FilterColumn> searchBy;
+    private boolean withArchive;
 
     public FilterDataDto(List<FilterColumn> searchBy) {
         this.searchText = StringUtils.EMPTY;
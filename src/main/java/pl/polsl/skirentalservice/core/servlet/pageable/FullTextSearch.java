@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.core.servlet.pageable;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class FullTextSearch {
+    // equal to default innodb ngram_token_size, shorter terms are not present in ngram index
+    private static final int NGRAM_TOKEN_SIZE = 2;
+    // quote closes boolean mode phrase, so it is treated as terms separator like whitespace
+    private static final String TERMS_SEPARATORS = " \t\n\r\f\"";
+    // wildcards and escape char of LIKE are literal characters in MATCH phrase, so index could drop LIKE matches
+    private static final String LIKE_SPECIAL_CHARS = "%_\\";
+
+    public static List<String> getFullTextColumns(FilterDataDto filterData) {
+        final String searchText = filterData.getSearchText();
+        // union of hot and archive tables is not a table, so its columns have no full-text index
+        if (filterData.isWithArchive() || getTerms(searchText).isEmpty()
+            || StringUtils.containsAny(searchText, LIKE_SPECIAL_CHARS)) {
+            return List.of();
+        }
+        return filterData.getSearchBy().stream()
+            .filter(column -> column.getColumnName().equals(filterData.getSearchColumn()))
+            .findFirst()
+            .map(FilterColumn::getFullTextColumns)
+            .orElse(List.of());
+    }
+
+    public static boolean isApplicable(FilterDataDto filterData) {
+        return !getFullTextColumns(filterData).isEmpty();
+    }
+
+    // every term is required as ngram phrase, which is equal to substring match in one of indexed columns
+    public static String toBooleanModeQuery(String searchText) {
+        return getTerms(searchText).stream()
+            .map(term -> "+\"" + term + "\"")
+            .collect(Collectors.joining(" "));
+    }
+
+    // index only narrows candidates, LIKE on searched column still decides about exact "search by column" result
+    public static String getSearchPredicate(String searchColumn, List<String> fullTextColumns) {
+        final String likePredicate = searchColumn + " LIKE :search";
+        if (fullTextColumns.isEmpty()) {
+            return likePredicate;
+        }
+        return "fulltext_match_" + fullTextColumns.size() + "(" + String.join(", ", fullTextColumns) +
+            ", :fullTextSearch) > 0 AND " + likePredicate;
+    }
+
+    private static List<String> getTerms(String searchText) {
+        return Arrays.stream(StringUtils.split(StringUtils.defaultString(searchText), TERMS_SEPARATORS))
+            .filter(term -> term.length() >= NGRAM_TOKEN_SIZE)
+            .toList();
+    }
+}
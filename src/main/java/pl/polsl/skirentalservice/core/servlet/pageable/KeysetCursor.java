@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.core.servlet.pageable;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Objects;
+
+public record KeysetCursor(
+    Object sortKey,
+    Long id
+) {
+    private static final String SEPARATOR = "|";
+
+    public static String encode(SorterDataDto sorterData, Object sortKey, Object id) {
+        if (!(id instanceof Long longId)) {
+            return StringUtils.EMPTY;
+        }
+        String type = "N";
+        String value = StringUtils.EMPTY;
+        if (!sorterData.isIdentitySorted()) {
+            type = getKeyType(sortKey);
+            if (type == null) {
+                return StringUtils.EMPTY;
+            }
+            value = sortKey instanceof BigDecimal decimal ? decimal.toPlainString() : sortKey.toString();
+        }
+        final String rawCursor = String.join(SEPARATOR, getFingerprint(sorterData), type, longId.toString(), value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(rawCursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String cursor, SorterDataDto sorterData) {
+        if (StringUtils.isBlank(cursor)) {
+            return null;
+        }
+        try {
+            final String rawCursor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            final String[] parts = StringUtils.splitPreserveAllTokens(rawCursor, SEPARATOR, 4);
+            if (parts.length != 4 || !parts[0].equals(getFingerprint(sorterData))) {
+                return null;
+            }
+            final Object sortKey = switch (parts[1]) {
+                case "N" -> null;
+                case "S" -> parts[3];
+                case "L" -> Long.valueOf(parts[3]);
+                case "I" -> Integer.valueOf(parts[3]);
+                case "D" -> new BigDecimal(parts[3]);
+                case "T" -> LocalDateTime.parse(parts[3]);
+                case "A" -> LocalDate.parse(parts[3]);
+                default -> throw new IllegalArgumentException("Unsupported cursor key type: " + parts[1]);
+            };
+            return new KeysetCursor(sortKey, Long.valueOf(parts[2]));
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            return null;
+        }
+    }
+
+    private static String getKeyType(Object sortKey) {
+        if (sortKey instanceof String) {
+            return "S";
+        } else if (sortKey instanceof Long) {
+            return "L";
+        } else if (sortKey instanceof Integer) {
+            return "I";
+        } else if (sortKey instanceof BigDecimal) {
+            return "D";
+        } else if (sortKey instanceof LocalDateTime) {
+            return "T";
+        } else if (sortKey instanceof LocalDate) {
+            return "A";
+        }
+        return null;
+    }
+
+    private static String getFingerprint(SorterDataDto sorterData) {
+        return Integer.toHexString(Objects.hash(sorterData.getColumn(), sorterData.getDirection().name()));
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.core.servlet.pageable;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.hibernate.Session;
+import pl.polsl.skirentalservice.exception.ServletException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class PageableQueryRegistry {
+    private static final Map<QueryPlanKey, String> COMPILED_PLANS = new ConcurrentHashMap<>();
+    private static final Set<String> PRECOMPILED_TEMPLATES = ConcurrentHashMap.newKeySet();
+    private static final List<SortDirection> DIRECTIONS = List.of(SortDirection.ASC, SortDirection.DESC);
+
+    private static final AtomicLong HITS = new AtomicLong();
+    private static final AtomicLong MISSES = new AtomicLong();
+
+    public static String getPageableJpql(
+        Session session, String template, FilterDataDto filterData, SorterDataDto sorterData, boolean withKeyset
+    ) {
+        final QueryPlanKey planKey = new QueryPlanKey(template, filterData.getSearchColumn(),
+            FullTextSearch.getFullTextColumns(filterData), sorterData.getColumn(), sorterData.getDirection(),
+            withKeyset);
+        final String jpql = COMPILED_PLANS.get(planKey);
+        if (jpql != null) {
+            HITS.incrementAndGet();
+            return jpql;
+        }
+        MISSES.incrementAndGet();
+        // only columns declared by servlet filter and sorter fields are allowed to reach the query
+        if (!isFilterColumnDeclared(filterData) || !isSorterColumnDeclared(sorterData)) {
+            throw new ServletException.UnsupportedPageableQueryException(planKey);
+        }
+        if (PRECOMPILED_TEMPLATES.add(template)) {
+            final long startMillis = System.currentTimeMillis();
+            int compiledPlans = 0;
+            for (final FilterColumn filterColumn : filterData.getSearchBy()) {
+                for (final List<String> fullTextColumns : getSearchVariants(filterColumn)) {
+                    for (final String sortColumn : getDeclaredSortColumns(sorterData)) {
+                        for (final SortDirection direction : DIRECTIONS) {
+                            for (final boolean keyset : List.of(false, true)) {
+                                final QueryPlanKey key = new QueryPlanKey(template, filterColumn.getColumnName(),
+                                    fullTextColumns, sortColumn, direction, keyset);
+                                COMPILED_PLANS.computeIfAbsent(key, k -> compilePageablePlan(session, k, sorterData));
+                                compiledPlans++;
+                            }
+                        }
+                    }
+                }
+            }
+            log.info("Precompiled {} pageable query plans in {}ms. Registry stats: {}", compiledPlans,
+                System.currentTimeMillis() - startMillis, getStats());
+        }
+        return COMPILED_PLANS.computeIfAbsent(planKey, key -> compilePageablePlan(session, key, sorterData));
+    }
+
+    public static String getCountJpql(Session session, String template, FilterDataDto filterData) {
+        final QueryPlanKey planKey = new QueryPlanKey(template, filterData.getSearchColumn(),
+            FullTextSearch.getFullTextColumns(filterData), null, null, false);
+        final String jpql = COMPILED_PLANS.get(planKey);
+        if (jpql != null) {
+            HITS.incrementAndGet();
+            return jpql;
+        }
+        MISSES.incrementAndGet();
+        if (!isFilterColumnDeclared(filterData)) {
+            throw new ServletException.UnsupportedPageableQueryException(planKey);
+        }
+        if (PRECOMPILED_TEMPLATES.add(template)) {
+            for (final FilterColumn filterColumn : filterData.getSearchBy()) {
+                for (final List<String> fullTextColumns : getSearchVariants(filterColumn)) {
+                    final QueryPlanKey key = new QueryPlanKey(template, filterColumn.getColumnName(), fullTextColumns,
+                        null, null, false);
+                    COMPILED_PLANS.computeIfAbsent(key, k -> compileCountPlan(session, k));
+                }
+            }
+        }
+        return COMPILED_PLANS.computeIfAbsent(planKey, key -> compileCountPlan(session, key));
+    }
+
+    public static QueryRegistryStats getStats() {
+        return new QueryRegistryStats(HITS.get(), MISSES.get(), PRECOMPILED_TEMPLATES.size(), COMPILED_PLANS.size());
+    }
+
+    private static String compilePageablePlan(Session session, QueryPlanKey key, SorterDataDto sorterData) {
+        final SorterDataDto combination = new SorterDataDto(sorterData.getFieldsMap(), sorterData.getIdentityColumn());
+        combination.sortBy(key.sortColumn(), key.direction());
+        final String jpql = key.template()
+            .replace(":keyColumns", combination.getKeyColumnsJpql())
+            .replace(":searchColumn LIKE :search", key.getSearchPredicate())
+            .replace(":keysetPredicate", key.keyset() ? "AND " + combination.getKeysetJpql() : StringUtils.EMPTY)
+            .replace(":sortedColumn", combination.getJpql());
+        // parse once, next calls with same query string are taken from Hibernate interpretation cache
+        session.createQuery(jpql, Object[].class);
+        return jpql;
+    }
+
+    private static String compileCountPlan(Session session, QueryPlanKey key) {
+        final String jpql = key.template().replace(":searchColumn LIKE :search", key.getSearchPredicate());
+        session.createQuery(jpql, Long.class);
+        return jpql;
+    }
+
+    // too short search text can not use index, so indexed columns have both variants
+    private static List<List<String>> getSearchVariants(FilterColumn filterColumn) {
+        if (filterColumn.getFullTextColumns().isEmpty()) {
+            return List.of(List.of());
+        }
+        return List.of(List.of(), filterColumn.getFullTextColumns());
+    }
+
+    private static boolean isFilterColumnDeclared(FilterDataDto filterData) {
+        return filterData.getSearchBy().stream()
+            .anyMatch(column -> column.getColumnName().equals(filterData.getSearchColumn()));
+    }
+
+    private static boolean isSorterColumnDeclared(SorterDataDto sorterData) {
+        return getDeclaredSortColumns(sorterData).contains(sorterData.getColumn());
+    }
+
+    private static List<String> getDeclaredSortColumns(SorterDataDto sorterData) {
+        final List<String> sortColumns = new ArrayList<>();
+        sortColumns.add(sorterData.getIdentityColumn());
+        sorterData.getFieldsMap().values().forEach(field -> sortColumns.add(field.getJpql()));
+        return sortColumns;
+    }
+
+    public record QueryPlanKey(
+        String template,
+        String searchColumn,
+        List<String> fullTextColumns,
+        String sortColumn,
+        SortDirection direction,
+        boolean keyset
+    ) {
+        private String getSearchPredicate() {
+            return FullTextSearch.getSearchPredicate(searchColumn, fullTextColumns);
+        }
+
+        @Override
+        public String toString() {
+            return "{searchColumn=" + searchColumn + ", fullTextColumns=" + fullTextColumns + ", sortColumn=" +
+                sortColumn + ", direction=" + direction + ", keyset=" + keyset + '}';
+        }
+    }
+
+    public record QueryRegistryStats(long hits, long misses, int templates, int compiledPlans) {
+    }
+}
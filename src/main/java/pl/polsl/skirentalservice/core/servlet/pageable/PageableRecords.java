@@ -0,0 +1,17 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.core.servlet.pageable;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+public record PageableRecords<T>(
+    List<T> records,
+    String nextCursor
+) {
+    public PageableRecords<T> filter(Predicate<T> predicate) {
+        return new PageableRecords<>(records.stream().filter(predicate).toList(), nextCursor);
+    }
+}
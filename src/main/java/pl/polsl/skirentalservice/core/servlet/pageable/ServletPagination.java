@@ -5,6 +5,7 @@
 package pl.polsl.skirentalservice.core.servlet.pageable;
 
 import lombok.Data;
+import org.apache.commons.lang3.StringUtils;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -20,6 +21,7 @@ public class ServletPagination {
     private int allPages;
     private PaginationPage nextPage;
     private PaginationPage prevPage;
+    private String nextCursor = StringUtils.EMPTY;
     private List<PaginationPage> pages = new ArrayList<>();
     private List<PaginationPage> selectPages = new ArrayList<>();
 
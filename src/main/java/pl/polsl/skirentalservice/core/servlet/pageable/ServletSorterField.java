@@ -18,21 +18,21 @@ public class ServletSorterField {
         this.chevronBts = "down-up text-secondary";
     }
 
-    String setAscending() {
+    SortDirection setAscending() {
         direction = SortDirection.ASC;
         chevronBts = "down";
-        return jpql + " ASC";
+        return direction;
     }
 
-    String setDescending() {
+    SortDirection setDescending() {
         direction = SortDirection.DESC;
         chevronBts = "up";
-        return jpql + " DESC";
+        return direction;
     }
 
-    String reset(String defColumn) {
+    SortDirection reset() {
         direction = SortDirection.IDLE;
         chevronBts = "down-up text-secondary";
-        return defColumn + " ASC";
+        return SortDirection.ASC;
     }
 }
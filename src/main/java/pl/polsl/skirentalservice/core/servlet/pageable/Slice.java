@@ -13,4 +13,9 @@ public record Slice<T>(
     public Slice(ServletPagination pagination) {
         this(pagination, List.of());
     }
+
+    public Slice(ServletPagination pagination, PageableRecords<T> pageableRecords) {
+        this(pagination, pageableRecords.records());
+        pagination.setNextCursor(pageableRecords.nextCursor());
+    }
 }
@@ -4,14 +4,55 @@
  */
 package pl.polsl.skirentalservice.core.servlet.pageable;
 
-import lombok.AllArgsConstructor;
 import lombok.Data;
 
 import java.util.Map;
 
 @Data
-@AllArgsConstructor
 public class SorterDataDto {
     private Map<String, ServletSorterField> fieldsMap;
-    private String jpql;
+    private String column;
+    private SortDirection direction;
+    private String identityColumn;
+
+    public SorterDataDto(Map<String, ServletSorterField> fieldsMap, String identityColumn) {
+        this.fieldsMap = fieldsMap;
+        this.identityColumn = identityColumn;
+        sortBy(identityColumn, SortDirection.ASC);
+    }
+
+    void sortBy(String column, SortDirection direction) {
+        this.column = column;
+        this.direction = direction;
+    }
+
+    public boolean isIdentitySorted() {
+        return column.equals(identityColumn);
+    }
+
+    // ORDER BY clause, always closed with identity column to make keyset cursors deterministic
+    public String getJpql() {
+        final String dir = direction.getDir();
+        if (isIdentitySorted()) {
+            return identityColumn + " " + dir;
+        }
+        return column + " " + dir + ", " + identityColumn + " " + dir;
+    }
+
+    // additional select columns, from which next page cursor is created
+    public String getKeyColumnsJpql() {
+        return column + ", " + identityColumn;
+    }
+
+    // seek predicate, MySQL sorts NULL values first, so they are kept on descending pages
+    public String getKeysetJpql() {
+        if (isIdentitySorted()) {
+            return identityColumn + (direction.equals(SortDirection.DESC) ? " < " : " > ") + ":seekId";
+        }
+        final String tuple = "(" + getKeyColumnsJpql() + ")";
+        if (direction.equals(SortDirection.DESC)) {
+            return "(" + tuple + " < (:seekKey, :seekId) OR " + column + " IS NULL)";
+        }
+        return tuple + " > (:seekKey, :seekId)";
+    }
 }
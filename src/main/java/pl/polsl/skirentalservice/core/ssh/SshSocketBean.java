@@ -7,7 +7,6 @@ package pl.polsl.skirentalservice.core.ssh;
 import com.google.gson.Gson;
 import com.google.gson.stream.JsonReader;
 import jakarta.ejb.Singleton;
-import jakarta.ejb.Startup;
 import lombok.extern.slf4j.Slf4j;
 import net.schmizz.sshj.SSHClient;
 import net.schmizz.sshj.common.IOUtils;
@@ -24,19 +23,18 @@ import java.util.function.Function;
 
 @Slf4j
 @Singleton
-@Startup
 public class SshSocketBean {
     private static final String SSH_CFG = "/ssh/ssh.cfg.xml";
 
-    private final XMLSshCommands sshCommands;
-    private final Properties sshProperties;
-    private final Gson gson;
+    private final Gson gson = new Gson();
 
-    public SshSocketBean() {
+    private XMLSshCommands sshCommands;
+    private Properties sshProperties;
+
+    public void initialize() {
         final XMLConfigLoader<XMLSshConfig> configLoader = new XMLConfigLoader<>(SSH_CFG, XMLSshConfig.class);
         sshProperties = configLoader.loadConfig();
         sshCommands = configLoader.getConfigDatalist().getCommands();
-        gson = new Gson();
     }
 
     public <T> T executeCommand(
@@ -5,13 +5,13 @@
 package pl.polsl.skirentalservice.dao;
 
 import pl.polsl.skirentalservice.core.servlet.pageable.FilterDataDto;
+import pl.polsl.skirentalservice.core.servlet.pageable.PageableRecords;
 import pl.polsl.skirentalservice.dto.PageableDto;
 import pl.polsl.skirentalservice.dto.customer.AddEditCustomerReqDto;
 import pl.polsl.skirentalservice.dto.customer.CustomerDetailsResDto;
 import pl.polsl.skirentalservice.dto.customer.CustomerRecordResDto;
 import pl.polsl.skirentalservice.dto.deliv_return.CustomerDetailsReturnResDto;
 
-import java.util.List;
 import java.util.Optional;
 
 public interface CustomerDao {
@@ -22,5 +22,5 @@ public interface CustomerDao {
     Optional<CustomerDetailsReturnResDto> findCustomerDetailsForReturnDocument(Object rentId);
     Optional<AddEditCustomerReqDto> findCustomerEditPageDetails(Object customerId);
     Long findAllCustomersCount(FilterDataDto filterData);
-    List<CustomerRecordResDto> findAllPageableCustomers(PageableDto pageableDto, String addressColumn);
+    PageableRecords<CustomerRecordResDto> findAllPageableCustomers(PageableDto pageableDto, String addressColumn);
 }
@@ -5,6 +5,7 @@
 package pl.polsl.skirentalservice.dao;
 
 import pl.polsl.skirentalservice.core.servlet.pageable.FilterDataDto;
+import pl.polsl.skirentalservice.core.servlet.pageable.PageableRecords;
 import pl.polsl.skirentalservice.dto.OwnerMailPayloadDto;
 import pl.polsl.skirentalservice.dto.PageableDto;
 import pl.polsl.skirentalservice.dto.change_password.EmployerDetailsDto;
@@ -31,5 +32,5 @@ public interface EmployerDao {
     boolean checkIfEmployerExist(Object employerId);
     List<OwnerMailPayloadDto> findAllEmployersMailSenders();
     Long findAllEmployersCount(FilterDataDto filterData);
-    List<EmployerRecordResDto> findAllPageableEmployersRecords(PageableDto pageableDto);
+    PageableRecords<EmployerRecordResDto> findAllPageableEmployersRecords(PageableDto pageableDto);
 }
@@ -5,6 +5,7 @@
 package pl.polsl.skirentalservice.dao;
 
 import pl.polsl.skirentalservice.core.servlet.pageable.FilterDataDto;
+import pl.polsl.skirentalservice.core.servlet.pageable.PageableRecords;
 import pl.polsl.skirentalservice.dto.PageableDto;
 import pl.polsl.skirentalservice.dto.deliv_return.RentReturnDetailsResDto;
 import pl.polsl.skirentalservice.dto.rent.OwnerRentRecordResDto;
@@ -13,7 +14,9 @@ import pl.polsl.skirentalservice.dto.rent.SellerRentRecordResDto;
 import pl.polsl.skirentalservice.entity.RentEntity;
 import pl.polsl.skirentalservice.util.RentStatus;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface RentDao {
@@ -21,11 +24,13 @@ public interface RentDao {
     Optional<RentDetailsResDto> findRentDetails(Object rentId, Object employerId, String roleAlias);
     boolean checkIfRentExist(Object rentId);
     boolean checkIfRentIsFromEmployer(Object rentId, Object employerId);
-    boolean checkIfIssuerExist(String issuer);
     void updateRentStatus(RentStatus rentStatus, Object rentId);
     Long findAllRentsCount(FilterDataDto filterData);
     Long findAllRentsFromEmployerCount(FilterDataDto filterData, Object employerId);
-    List<RentEntity> findAllRentsBaseCustomerId(Object customerId);
-    List<OwnerRentRecordResDto> findAllPageableRents(PageableDto pageableDto);
-    List<SellerRentRecordResDto> findAllPageableRentsFromEmployer(PageableDto pageableDto, Object employerId);
+    Optional<RentEntity> findRentWithEquipments(Object rentId);
+    Map<Long, Integer> findAllRentedEquipmentsCountBaseCustomerId(Object customerId);
+    PageableRecords<OwnerRentRecordResDto> findAllPageableRents(PageableDto pageableDto);
+    PageableRecords<SellerRentRecordResDto> findAllPageableRentsFromEmployer(PageableDto pageableDto, Object employerId);
+    List<Long> findAllArchivableRentsIds(LocalDateTime returnedBefore, int limit);
+    void moveRentsToArchive(List<Long> rentIds);
 }
@@ -5,9 +5,81 @@
 package pl.polsl.skirentalservice.dao.core;
 
 import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
 import org.hibernate.Session;
+import org.hibernate.query.Query;
+import pl.polsl.skirentalservice.core.servlet.pageable.FilterDataDto;
+import pl.polsl.skirentalservice.core.servlet.pageable.FullTextSearch;
+import pl.polsl.skirentalservice.core.servlet.pageable.KeysetCursor;
+import pl.polsl.skirentalservice.core.servlet.pageable.PageableQueryRegistry;
+import pl.polsl.skirentalservice.core.servlet.pageable.PageableRecords;
+import pl.polsl.skirentalservice.core.servlet.pageable.SorterDataDto;
+import pl.polsl.skirentalservice.dto.PageableDto;
+
+import java.util.List;
+import java.util.Map;
 
 @RequiredArgsConstructor
 public abstract class AbstractHibernateDao {
     protected final Session session;
+
+    protected <T> PageableRecords<T> findAllPageableRecords(
+        String jpql, Class<T> recordClazz, PageableDto pageableDto, Map<String, Object> parameters
+    ) {
+        final FilterDataDto filterData = pageableDto.filterData();
+        final SorterDataDto sorterData = pageableDto.sorterData();
+        final KeysetCursor cursor = pageableDto.cursor();
+
+        final String jpqlPageable = PageableQueryRegistry.getPageableJpql(session, jpql, filterData, sorterData,
+            cursor != null);
+
+        final Query<Object[]> query = session.createQuery(jpqlPageable, Object[].class)
+            .setMaxResults(pageableDto.total());
+        setSearchParameters(query, filterData);
+        if (cursor == null) {
+            query.setFirstResult((pageableDto.page() - 1) * pageableDto.total());
+        } else {
+            // seek directly after last record from previous page instead of skipping all previous rows
+            query.setParameter("seekId", cursor.id());
+            if (!sorterData.isIdentitySorted()) {
+                query.setParameter("seekKey", cursor.sortKey());
+            }
+        }
+        parameters.forEach(query::setParameter);
+
+        final List<Object[]> rows = query.getResultList();
+        final List<T> records = rows.stream().map(row -> recordClazz.cast(row[0])).toList();
+
+        String nextCursor = StringUtils.EMPTY;
+        if (rows.size() == pageableDto.total()) {
+            final Object[] lastRow = rows.get(rows.size() - 1);
+            nextCursor = KeysetCursor.encode(sorterData, lastRow[1], lastRow[2]);
+        }
+        return new PageableRecords<>(records, nextCursor);
+    }
+
+    protected <T> PageableRecords<T> findAllPageableRecords(
+        String jpql, Class<T> recordClazz, PageableDto pageableDto
+    ) {
+        return findAllPageableRecords(jpql, recordClazz, pageableDto, Map.of());
+    }
+
+    protected Long findAllRecordsCount(String jpql, FilterDataDto filterData, Map<String, Object> parameters) {
+        final Query<Long> query = session
+            .createQuery(PageableQueryRegistry.getCountJpql(session, jpql, filterData), Long.class);
+        setSearchParameters(query, filterData);
+        parameters.forEach(query::setParameter);
+        return query.getSingleResult();
+    }
+
+    protected Long findAllRecordsCount(String jpql, FilterDataDto filterData) {
+        return findAllRecordsCount(jpql, filterData, Map.of());
+    }
+
+    private void setSearchParameters(Query<?> query, FilterDataDto filterData) {
+        query.setParameter("search", "%" + filterData.getSearchText() + "%");
+        if (FullTextSearch.isApplicable(filterData)) {
+            query.setParameter("fullTextSearch", FullTextSearch.toBooleanModeQuery(filterData.getSearchText()));
+        }
+    }
 }
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.dao.core;
+
+import pl.polsl.skirentalservice.core.servlet.pageable.FilterDataDto;
+import pl.polsl.skirentalservice.entity.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public enum ArchiveScope {
+    HOT(Map.of()),
+    ARCHIVE(Map.of(
+        RentEntity.class, ArchivedRentEntity.class,
+        RentEquipmentEntity.class, ArchivedRentEquipmentEntity.class,
+        RentReturnEntity.class, ArchivedRentReturnEntity.class,
+        RentReturnEquipmentEntity.class, ArchivedRentReturnEquipmentEntity.class
+    )),
+    // hot and archived records together, used only by rents and returns lists (without equipments)
+    WITH_ARCHIVE(Map.of(
+        RentEntity.class, AllRentEntity.class,
+        RentReturnEntity.class, AllRentReturnEntity.class
+    )),
+    ;
+
+    private static final Pattern ENTITY_NAME = Pattern
+        .compile("\\b(RentEntity|RentEquipmentEntity|RentReturnEntity|RentReturnEquipmentEntity)\\b");
+
+    private final Map<Class<?>, Class<?>> entities;
+
+    ArchiveScope(Map<Class<?>, Class<?>> entities) {
+        this.entities = entities;
+    }
+
+    public static ArchiveScope of(FilterDataDto filterData) {
+        return filterData.isWithArchive() ? WITH_ARCHIVE : HOT;
+    }
+
+    public Class<?> getEntityClazz(Class<?> entityClazz) {
+        return entities.getOrDefault(entityClazz, entityClazz);
+    }
+
+    // records of union are counted separately in hot and archive, both counts are cached by own tables
+    public List<ArchiveScope> getCountedScopes() {
+        return this == WITH_ARCHIVE ? List.of(HOT, ARCHIVE) : List.of(this);
+    }
+
+    // archived entities have same attributes as hot entities, so only entity names in query are replaced
+    public String apply(String jpql) {
+        if (entities.isEmpty()) {
+            return jpql;
+        }
+        return ENTITY_NAME.matcher(jpql).replaceAll(result -> Matcher.quoteReplacement(getEntityName(result.group())));
+    }
+
+    private String getEntityName(String hotEntityName) {
+        return entities.entrySet().stream()
+            .filter(entity -> entity.getKey().getSimpleName().equals(hotEntityName))
+            .map(entity -> entity.getValue().getSimpleName())
+            .findFirst()
+            .orElse(hotEntityName);
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.dao.core;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import pl.polsl.skirentalservice.core.db.CountingStatementInspector;
+import pl.polsl.skirentalservice.core.db.LatencyHistogram;
+import pl.polsl.skirentalservice.core.servlet.pageable.PageableRecords;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class DaoInstrumentation {
+    private static final Map<Method, MethodMetrics> METRICS = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    public static <T> T instrument(AbstractHibernateDao dao) {
+        final Class<?> daoClazz = dao.getClass();
+        return (T) Proxy.newProxyInstance(daoClazz.getClassLoader(), daoClazz.getInterfaces(),
+            new MeteredInvocationHandler(dao));
+    }
+
+    public static List<DaoMethodStats> getStats() {
+        return METRICS.values().stream()
+            .map(MethodMetrics::toStats)
+            .sorted(Comparator.comparingDouble(DaoMethodStats::totalMillis).reversed())
+            .toList();
+    }
+
+    public static void reset() {
+        METRICS.clear();
+    }
+
+    private static long countRows(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        } else if (result instanceof PageableRecords<?> pageableRecords) {
+            return pageableRecords.records().size();
+        } else if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        } else if (result instanceof Integer affectedRows) {
+            // update methods return number of affected rows
+            return affectedRows;
+        }
+        return 1;
+    }
+
+    private record MeteredInvocationHandler(Object dao) implements InvocationHandler {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass().equals(Object.class)) {
+                return method.invoke(dao, args);
+            }
+            final MethodMetrics metrics = METRICS.computeIfAbsent(method, MethodMetrics::new);
+            final long statementsBefore = CountingStatementInspector.getPreparedStatementsCount();
+            final long startNanos = System.nanoTime();
+            try {
+                final Object result = method.invoke(dao, args);
+                metrics.rows.addAndGet(countRows(result));
+                return result;
+            } catch (InvocationTargetException ex) {
+                metrics.errors.incrementAndGet();
+                throw ex.getCause();
+            } finally {
+                metrics.latency.record(System.nanoTime() - startNanos);
+                metrics.statements.addAndGet(CountingStatementInspector.getPreparedStatementsCount() - statementsBefore);
+            }
+        }
+    }
+
+    private static class MethodMetrics {
+        private final String name;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicLong rows = new AtomicLong();
+        private final AtomicLong statements = new AtomicLong();
+
+        private MethodMetrics(Method method) {
+            name = method.getDeclaringClass().getSimpleName() + "#" + method.getName();
+        }
+
+        private DaoMethodStats toStats() {
+            return new DaoMethodStats(name, latency.getCount(), errors.get(),
+                latency.getMeanMillis() * latency.getCount(), latency.getMeanMillis(), latency.getPercentileMillis(50),
+                latency.getPercentileMillis(95), latency.getPercentileMillis(99), latency.getMaxMillis(), rows.get(),
+                statements.get());
+        }
+    }
+}
@@ -0,0 +1,26 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.dao.core;
+
+public record DaoMethodStats(
+    String method,
+    long calls,
+    long errors,
+    double totalMillis,
+    double meanMillis,
+    double p50Millis,
+    double p95Millis,
+    double p99Millis,
+    double maxMillis,
+    long rows,
+    long statements
+) {
+    @Override
+    public String toString() {
+        return String.format("%s calls=%d errors=%d total=%.1fms mean=%.2fms p50=%.0fms p95=%.0fms p99=%.0fms " +
+                "max=%.1fms rows=%d statements=%d", method, calls, errors, totalMillis, meanMillis, p50Millis,
+            p95Millis, p99Millis, maxMillis, rows, statements);
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.dao.core;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.ejb.Timeout;
+import jakarta.ejb.TimerConfig;
+import jakarta.ejb.TimerService;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import pl.polsl.skirentalservice.core.ServerConfigBean;
+import pl.polsl.skirentalservice.core.db.PersistenceBean;
+import pl.polsl.skirentalservice.core.s3.ObjectStorageBean;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Singleton
+@Startup
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class DaoMetricsBean {
+    private static final int DUMPED_METHODS = 20;
+
+    private final PersistenceBean persistenceBean;
+    private final ObjectStorageBean objectStorageBean;
+    private final long dumpIntervalMillis;
+
+    @Resource
+    private TimerService timerService;
+
+    @Inject
+    public DaoMetricsBean(
+        PersistenceBean persistenceBean,
+        ObjectStorageBean objectStorageBean,
+        ServerConfigBean serverConfigBean
+    ) {
+        this.persistenceBean = persistenceBean;
+        this.objectStorageBean = objectStorageBean;
+        dumpIntervalMillis = serverConfigBean.getDaoMetricsDumpIntervalMin() * 60 * 1000;
+    }
+
+    @PostConstruct
+    public void scheduleDump() {
+        if (dumpIntervalMillis <= 0) {
+            log.info("Scheduled dump of DAO metrics is disabled");
+            return;
+        }
+        timerService.createIntervalTimer(dumpIntervalMillis, dumpIntervalMillis, new TimerConfig(null, false));
+        log.info("Scheduled dump of DAO metrics every {}ms", dumpIntervalMillis);
+    }
+
+    @Timeout
+    public void dumpMetrics() {
+        final List<DaoMethodStats> stats = getDaoMethodStats();
+        final String topMethods = stats.stream()
+            .limit(DUMPED_METHODS)
+            .map(DaoMethodStats::toString)
+            .collect(Collectors.joining("\n\t", "\n\t", ""));
+        log.info("DAO methods by total time (top {} of {}):{}", Math.min(DUMPED_METHODS, stats.size()), stats.size(),
+            stats.isEmpty() ? " no calls" : topMethods);
+        log.info("Connection pools: {}", persistenceBean.getPoolMetrics());
+        log.info("S3 objects disk cache: {}", objectStorageBean.getCacheStats());
+    }
+
+    // the same metrics as in periodic dump, but with all DAO methods
+    public DaoMetricsSnapshot getSnapshot() {
+        return new DaoMetricsSnapshot(getDaoMethodStats(), persistenceBean.getPoolMetrics(),
+            objectStorageBean.getCacheStats());
+    }
+
+    public List<DaoMethodStats> getDaoMethodStats() {
+        return DaoInstrumentation.getStats();
+    }
+
+    public void resetDaoMethodStats() {
+        DaoInstrumentation.reset();
+    }
+}
@@ -0,0 +1,18 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.dao.core;
+
+import pl.polsl.skirentalservice.core.db.ConnectionPoolMetrics;
+import pl.polsl.skirentalservice.core.s3.ObjectCacheStats;
+
+import java.util.List;
+import java.util.Map;
+
+public record DaoMetricsSnapshot(
+    List<DaoMethodStats> daoMethods,
+    Map<String, ConnectionPoolMetrics> connectionPools,
+    ObjectCacheStats objectCache
+) {
+}
@@ -6,6 +6,7 @@ package pl.polsl.skirentalservice.dao.hibernate;
 
 import org.hibernate.Session;
 import pl.polsl.skirentalservice.core.servlet.pageable.FilterDataDto;
+import pl.polsl.skirentalservice.core.servlet.pageable.PageableRecords;
 import pl.polsl.skirentalservice.dao.CustomerDao;
 import pl.polsl.skirentalservice.dao.core.AbstractHibernateDao;
 import pl.polsl.skirentalservice.dto.PageableDto;
@@ -15,7 +16,6 @@ import pl.polsl.skirentalservice.dto.customer.CustomerRecordResDto;
 import pl.polsl.skirentalservice.dto.deliv_return.CustomerDetailsReturnResDto;
 import pl.polsl.skirentalservice.util.RentStatus;
 
-import java.util.List;
 import java.util.Optional;
 
 public class CustomerDaoHib extends AbstractHibernateDao implements CustomerDao {
@@ -113,38 +113,29 @@ public class CustomerDaoHib extends AbstractHibernateDao implements CustomerDao
 
     @Override
     public Long findAllCustomersCount(FilterDataDto filterData) {
-        String jpqlFindAll = """
+        final String jpqlFindAll = """
                 SELECT COUNT(c.id) FROM CustomerEntity c
                 INNER JOIN c.userDetails d INNER JOIN c.locationAddress a
                 WHERE :searchColumn LIKE :search
             """;
-        jpqlFindAll = jpqlFindAll.replace(":searchColumn", filterData.getSearchColumn());
-        return session.createQuery(jpqlFindAll, Long.class)
-            .setParameter("search", "%" + filterData.getSearchText() + "%")
-            .getSingleResult();
+        return findAllRecordsCount(jpqlFindAll, filterData);
     }
 
     @Override
-    public List<CustomerRecordResDto> findAllPageableCustomers(PageableDto pageableDto, String addressColumn) {
-        String jpqlFindAllCustomers = """
+    public PageableRecords<CustomerRecordResDto> findAllPageableCustomers(
+        PageableDto pageableDto, String addressColumn
+    ) {
+        final String jpqlFindAllCustomers = """
                 SELECT new pl.polsl.skirentalservice.dto.customer.CustomerRecordResDto(
                     c.id, CONCAT(d.firstName, ' ', d.lastName), d.emailAddress, d.pesel,
                     CONCAT('+', d.phoneAreaCode, ' ', SUBSTRING(d.phoneNumber, 1, 3), ' ',
                     SUBSTRING(d.phoneNumber, 4, 3), ' ', SUBSTRING(d.phoneNumber, 7, 3)), :addressColumn
-                ) FROM CustomerEntity c
+                ), :keyColumns FROM CustomerEntity c
                 INNER JOIN c.userDetails d INNER JOIN c.locationAddress a
-                WHERE :searchColumn LIKE :search
+                WHERE :searchColumn LIKE :search :keysetPredicate
                 ORDER BY :sortedColumn
             """;
-        jpqlFindAllCustomers = jpqlFindAllCustomers
-            .replace(":addressColumn", addressColumn)
-            .replace(":searchColumn", pageableDto.filterData().getSearchColumn())
-            .replace(":sortedColumn", pageableDto.sorterData().getJpql());
-        return session
-            .createQuery(jpqlFindAllCustomers, CustomerRecordResDto.class)
-            .setParameter("search", "%" + pageableDto.filterData().getSearchText() + "%")
-            .setFirstResult((pageableDto.page() - 1) * pageableDto.total())
-            .setMaxResults(pageableDto.total())
-            .getResultList();
+        return findAllPageableRecords(jpqlFindAllCustomers.replace(":addressColumn", addressColumn),
+            CustomerRecordResDto.class, pageableDto);
     }
 }
@@ -6,6 +6,7 @@ package pl.polsl.skirentalservice.dao.hibernate;
 
 import org.hibernate.Session;
 import pl.polsl.skirentalservice.core.servlet.pageable.FilterDataDto;
+import pl.polsl.skirentalservice.core.servlet.pageable.PageableRecords;
 import pl.polsl.skirentalservice.dao.EmployerDao;
 import pl.polsl.skirentalservice.dao.core.AbstractHibernateDao;
 import pl.polsl.skirentalservice.dto.OwnerMailPayloadDto;
@@ -171,15 +172,12 @@ public class EmployerDaoHib extends AbstractHibernateDao implements EmployerDao
 
     @Override
     public Long findAllEmployersCount(FilterDataDto filterData) {
-        String jpqlTotalEmployersCount = """
+        final String jpqlTotalEmployersCount = """
                 SELECT COUNT(e.id) FROM EmployerEntity e
                 INNER JOIN e.userDetails d INNER JOIN e.role r
                 WHERE r.id = 1 AND :searchColumn LIKE :search
             """;
-        jpqlTotalEmployersCount = jpqlTotalEmployersCount.replace(":searchColumn", filterData.getSearchColumn());
-        return session.createQuery(jpqlTotalEmployersCount, Long.class)
-            .setParameter("search", "%" + filterData.getSearchText() + "%")
-            .getSingleResult();
+        return findAllRecordsCount(jpqlTotalEmployersCount, filterData);
     }
 
     @Override
@@ -196,25 +194,17 @@ public class EmployerDaoHib extends AbstractHibernateDao implements EmployerDao
     }
 
     @Override
-    public List<EmployerRecordResDto> findAllPageableEmployersRecords(PageableDto pageableDto) {
-        String jpqlFindAllEmployers = """
+    public PageableRecords<EmployerRecordResDto> findAllPageableEmployersRecords(PageableDto pageableDto) {
+        final String jpqlFindAllEmployers = """
                 SELECT new pl.polsl.skirentalservice.dto.employer.EmployerRecordResDto(
                     e.id, CONCAT(d.firstName, ' ', d.lastName), e.hiredDate, d.pesel, d.emailAddress,
                     CONCAT('+', d.phoneAreaCode, ' ', SUBSTRING(d.phoneNumber, 1, 3), ' ',
                     SUBSTRING(d.phoneNumber, 4, 3), ' ', SUBSTRING(d.phoneNumber, 7, 3)), d.gender
-                ) FROM EmployerEntity e
+                ), :keyColumns FROM EmployerEntity e
                 INNER JOIN e.userDetails d INNER JOIN e.role r
-                WHERE r.id <> 2 AND :searchColumn LIKE :search
+                WHERE r.id <> 2 AND :searchColumn LIKE :search :keysetPredicate
                 ORDER BY :sortedColumn
             """;
-        jpqlFindAllEmployers = jpqlFindAllEmployers
-            .replace(":searchColumn", pageableDto.filterData().getSearchColumn())
-            .replace(":sortedColumn", pageableDto.sorterData().getJpql());
-        return session
-            .createQuery(jpqlFindAllEmployers, EmployerRecordResDto.class)
-            .setParameter("search", "%" + pageableDto.filterData().getSearchText() + "%")
-            .setFirstResult((pageableDto.page() - 1) * pageableDto.total())
-            .setMaxResults(pageableDto.total())
-            .getResultList();
+        return findAllPageableRecords(jpqlFindAllEmployers, EmployerRecordResDto.class, pageableDto);
     }
 }
@@ -5,6 +5,7 @@
 package pl.polsl.skirentalservice.dao.hibernate;
 
 import org.hibernate.Session;
+import pl.polsl.skirentalservice.core.db.CacheRegion;
 import pl.polsl.skirentalservice.dao.EquipmentBrandDao;
 import pl.polsl.skirentalservice.dao.core.AbstractHibernateDao;
 import pl.polsl.skirentalservice.dto.FormSelectTupleDto;
@@ -25,6 +26,8 @@ public class EquipmentBrandDaoHib extends AbstractHibernateDao implements Equipm
                 ) FROM EquipmentBrandEntity t ORDER BY t.id
             """;
         return session.createQuery(jpqlFindEquipmentBrands, FormSelectTupleDto.class)
+            .setCacheable(true)
+            .setCacheRegion(CacheRegion.DICTIONARY_QUERIES)
             .getResultList();
     }
 
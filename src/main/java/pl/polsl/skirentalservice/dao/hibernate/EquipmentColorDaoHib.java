@@ -5,6 +5,7 @@
 package pl.polsl.skirentalservice.dao.hibernate;
 
 import org.hibernate.Session;
+import pl.polsl.skirentalservice.core.db.CacheRegion;
 import pl.polsl.skirentalservice.dao.EquipmentColorDao;
 import pl.polsl.skirentalservice.dao.core.AbstractHibernateDao;
 import pl.polsl.skirentalservice.dto.FormSelectTupleDto;
@@ -25,6 +26,8 @@ public class EquipmentColorDaoHib extends AbstractHibernateDao implements Equipm
                 ) FROM EquipmentColorEntity t ORDER BY t.id
             """;
         return session.createQuery(jpqlFindEquipmentColors, FormSelectTupleDto.class)
+            .setCacheable(true)
+            .setCacheRegion(CacheRegion.DICTIONARY_QUERIES)
             .getResultList();
     }
 
@@ -5,9 +5,12 @@
 package pl.polsl.skirentalservice.dao.hibernate;
 
 import org.hibernate.Session;
+import org.hibernate.query.MutationQuery;
 import pl.polsl.skirentalservice.core.servlet.pageable.FilterDataDto;
+import pl.polsl.skirentalservice.core.servlet.pageable.PageableRecords;
 import pl.polsl.skirentalservice.dao.EquipmentDao;
 import pl.polsl.skirentalservice.dao.core.AbstractHibernateDao;
+import pl.polsl.skirentalservice.dao.core.ArchiveScope;
 import pl.polsl.skirentalservice.dto.PageableDto;
 import pl.polsl.skirentalservice.dto.deliv_return.RentReturnEquipmentRecordResDto;
 import pl.polsl.skirentalservice.dto.equipment.AddEditEquipmentReqDto;
@@ -17,36 +20,51 @@ import pl.polsl.skirentalservice.dto.rent.EquipmentRentRecordResDto;
 import pl.polsl.skirentalservice.dto.rent.RentEquipmentsDetailsResDto;
 import pl.polsl.skirentalservice.util.RentStatus;
 
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
 
 public class EquipmentDaoHib extends AbstractHibernateDao implements EquipmentDao {
-    public EquipmentDaoHib(Session session) {
-        super(session);
-    }
+    private final ArchiveScope scope;
 
-    @Override
-    public void decreaseAvailableSelectedEquipmentCount(Object equipmentId, Object count) {
-        final String jpqlDecreaseAvailableEqCount = """
-                UPDATE EquipmentEntity e SET e.availableCount = e.availableCount - :rentedCount
-                WHERE e.id = :eid
-            """;
-        session.createMutationQuery(jpqlDecreaseAvailableEqCount)
-            .setParameter("eid", equipmentId)
-            .setParameter("rentedCount", count)
-            .executeUpdate();
+    public EquipmentDaoHib(Session session) {
+        this(session, ArchiveScope.HOT);
     }
 
-    @Override
-    public void increaseAvailableSelectedEquipmentCount(Object equipmentId, Object count) {
-        final String jpqlIncreaseEquipmentCount = """
-                UPDATE EquipmentEntity e SET e.availableCount = e.availableCount + :rentedCount
-                WHERE e.id = :eid
+    public EquipmentDaoHib(Session session, ArchiveScope scope) {
+        super(session);
+        this.scope = scope;
+    }
+
+    @Override
+    public int updateAvailableEquipmentsCount(Map<Long, Integer> equipmentsCountDelta) {
+        if (equipmentsCountDelta.isEmpty()) {
+            return 0;
+        }
+        // sorted ids, so row locks on equipments are always taken in the same order
+        final SortedMap<Long, Integer> sortedCountDelta = new TreeMap<>(equipmentsCountDelta);
+        final StringJoiner caseExpression = new StringJoiner(" ", "CASE e.id ", " END");
+        final StringJoiner requiredCaseExpression = new StringJoiner(" ", "CASE e.id ", " END");
+        for (int i = 0; i < sortedCountDelta.size(); i++) {
+            caseExpression.add("WHEN :eid" + i + " THEN :delta" + i);
+            requiredCaseExpression.add("WHEN :eid" + i + " THEN :required" + i);
+        }
+        // guarded update, rows which would end up with negative available count are not affected; available count
+        // is unsigned, so guard compares with required count instead of computing (possibly negative) difference
+        final String jpqlUpdateAvailableEqCount = """
+                UPDATE EquipmentEntity e SET e.availableCount = e.availableCount + :countDeltaCase
+                WHERE e.id IN (:eids) AND e.availableCount >= :requiredCountCase
             """;
-        session.createMutationQuery(jpqlIncreaseEquipmentCount)
-            .setParameter("eid", equipmentId)
-            .setParameter("rentedCount", count)
-            .executeUpdate();
+        final MutationQuery query = session.createMutationQuery(jpqlUpdateAvailableEqCount
+                .replace(":countDeltaCase", caseExpression.toString())
+                .replace(":requiredCountCase", requiredCaseExpression.toString()))
+            .setParameterList("eids", sortedCountDelta.keySet());
+        int index = 0;
+        for (final Map.Entry<Long, Integer> countDelta : sortedCountDelta.entrySet()) {
+            query.setParameter("eid" + index, countDelta.getKey());
+            query.setParameter("delta" + index, countDelta.getValue());
+            query.setParameter("required" + index, Math.max(0, -countDelta.getValue()));
+            index++;
+        }
+        return query.executeUpdate();
     }
 
     @Override
@@ -128,14 +146,6 @@ public class EquipmentDaoHib extends AbstractHibernateDao implements EquipmentDa
             .getSingleResult();
     }
 
-    @Override
-    public boolean checkIfBarCodeExist(String barcode) {
-        final String jpqlFindBarcode = "SELECT COUNT(e.id) > 0 FROM EquipmentEntity e WHERE e.barcode = :barcode";
-        return session.createQuery(jpqlFindBarcode, Boolean.class)
-            .setParameter("barcode", barcode)
-            .getSingleResult();
-    }
-
     @Override
     public boolean checkIfEquipmentHasOpenedRents(Object equipmentId) {
         final String jpqlFindHasConnections = """
@@ -181,7 +191,7 @@ public class EquipmentDaoHib extends AbstractHibernateDao implements EquipmentDa
                 INNER JOIN rer.rent r INNER JOIN re.rentReturn rrer LEFT OUTER JOIN re.equipment e
                 WHERE rrer.id = :rid ORDER BY re.id
             """;
-        return session.createQuery(jpqlFindAllEquipments, RentEquipmentsDetailsResDto.class)
+        return session.createQuery(scope.apply(jpqlFindAllEquipments), RentEquipmentsDetailsResDto.class)
             .setParameter("rid", returnId)
             .getResultList();
     }
@@ -197,69 +207,44 @@ public class EquipmentDaoHib extends AbstractHibernateDao implements EquipmentDa
                 INNER JOIN re.rent r LEFT OUTER JOIN re.equipment e LEFT OUTER JOIN r.employer emp
                 WHERE r.id = :rid ORDER BY re.id
             """;
-        return session.createQuery(jpqlFindAllEquipments, RentEquipmentsDetailsResDto.class)
+        return session.createQuery(scope.apply(jpqlFindAllEquipments), RentEquipmentsDetailsResDto.class)
             .setParameter("rid", rentId)
             .getResultList();
     }
 
-    @Override
-    public Integer findAllEquipmentsInCartCount(Object equipmentId) {
-        final String jpqlCheckEquipmentCount = "SELECT e.availableCount FROM EquipmentEntity e WHERE e.id = :id";
-        return session.createQuery(jpqlCheckEquipmentCount, Integer.class)
-            .setParameter("id", equipmentId)
-            .getSingleResult();
-    }
-
     @Override
     public Long findAllEquipmentsCount(FilterDataDto filterData) {
-        String jpqlFindAll = """
+        final String jpqlFindAll = """
                 SELECT COUNT(e.id) FROM EquipmentEntity e INNER JOIN e.type t WHERE :searchColumn LIKE :search
             """;
-        jpqlFindAll = jpqlFindAll.replace(":searchColumn", filterData.getSearchColumn());
-        return session.createQuery(jpqlFindAll, Long.class)
-            .setParameter("search", "%" + filterData.getSearchText() + "%")
-            .getSingleResult();
+        return findAllRecordsCount(jpqlFindAll, filterData);
     }
 
     @Override
-    public List<EquipmentRecordResDto> findAllPageableEquipmentRecords(PageableDto pageableDto) {
-        String jpqlFindAllEquipments = """
+    public PageableRecords<EquipmentRecordResDto> findAllPageableEquipmentRecords(PageableDto pageableDto) {
+        final String jpqlFindAllEquipments = """
                 SELECT new pl.polsl.skirentalservice.dto.equipment.EquipmentRecordResDto(
                     e.id, e.name, t.name, e.barcode, e.availableCount, e.pricePerHour, e.priceForNextHour,
                     e.pricePerDay, e.valueCost
-                ) FROM EquipmentEntity e
+                ), :keyColumns FROM EquipmentEntity e
                 INNER JOIN e.type t
-                WHERE :searchColumn LIKE :search
+                WHERE :searchColumn LIKE :search :keysetPredicate
                 ORDER BY :sortedColumn
             """;
-        jpqlFindAllEquipments = jpqlFindAllEquipments
-            .replace(":searchColumn", pageableDto.filterData().getSearchColumn())
-            .replace(":sortedColumn", pageableDto.sorterData().getJpql());
-        return session.createQuery(jpqlFindAllEquipments, EquipmentRecordResDto.class)
-            .setParameter("search", "%" + pageableDto.filterData().getSearchText() + "%")
-            .setFirstResult((pageableDto.page() - 1) * pageableDto.total())
-            .setMaxResults(pageableDto.total())
-            .getResultList();
+        return findAllPageableRecords(jpqlFindAllEquipments, EquipmentRecordResDto.class, pageableDto);
     }
 
     @Override
-    public List<EquipmentRentRecordResDto> findAllPageableEquipments(PageableDto pageableDto) {
-        String jpqlFindAllEquipments = """
+    public PageableRecords<EquipmentRentRecordResDto> findAllPageableEquipments(PageableDto pageableDto) {
+        final String jpqlFindAllEquipments = """
                 SELECT new pl.polsl.skirentalservice.dto.rent.EquipmentRentRecordResDto(
                     e.id, e.name, t.name, e.model, e.barcode, e.availableCount, e.pricePerHour,
                     e.priceForNextHour, e.pricePerDay, ''
-                ) FROM EquipmentEntity e
+                ), :keyColumns FROM EquipmentEntity e
                 INNER JOIN e.type t
-                WHERE :searchColumn LIKE :search GROUP BY e.id
+                WHERE :searchColumn LIKE :search :keysetPredicate GROUP BY e.id
                 ORDER BY :sortedColumn
             """;
-        jpqlFindAllEquipments = jpqlFindAllEquipments
-            .replace(":searchColumn", pageableDto.filterData().getSearchColumn())
-            .replace(":sortedColumn", pageableDto.sorterData().getJpql());
-        return session.createQuery(jpqlFindAllEquipments, EquipmentRentRecordResDto.class)
-            .setParameter("search", "%" + pageableDto.filterData().getSearchText() + "%")
-            .setFirstResult((pageableDto.page() - 1) * pageableDto.total())
-            .setMaxResults(pageableDto.total())
-            .getResultList();
+        return findAllPageableRecords(jpqlFindAllEquipments, EquipmentRentRecordResDto.class, pageableDto);
     }
 }
@@ -6,8 +6,10 @@ package pl.polsl.skirentalservice.dao.hibernate;
 
 import org.hibernate.Session;
 import pl.polsl.skirentalservice.core.servlet.pageable.FilterDataDto;
+import pl.polsl.skirentalservice.core.servlet.pageable.PageableRecords;
 import pl.polsl.skirentalservice.dao.RentDao;
 import pl.polsl.skirentalservice.dao.core.AbstractHibernateDao;
+import pl.polsl.skirentalservice.dao.core.ArchiveScope;
 import pl.polsl.skirentalservice.dto.PageableDto;
 import pl.polsl.skirentalservice.dto.deliv_return.RentReturnDetailsResDto;
 import pl.polsl.skirentalservice.dto.rent.OwnerRentRecordResDto;
@@ -16,12 +18,22 @@ import pl.polsl.skirentalservice.dto.rent.SellerRentRecordResDto;
 import pl.polsl.skirentalservice.entity.RentEntity;
 import pl.polsl.skirentalservice.util.RentStatus;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 public class RentDaoHib extends AbstractHibernateDao implements RentDao {
+    private final ArchiveScope scope;
+
     public RentDaoHib(Session session) {
+        this(session, ArchiveScope.HOT);
+    }
+
+    public RentDaoHib(Session session, ArchiveScope scope) {
         super(session);
+        this.scope = scope;
     }
 
     @Override
@@ -61,7 +73,8 @@ public class RentDaoHib extends AbstractHibernateDao implements RentDao {
                 LEFT OUTER JOIN r.customer c LEFT OUTER JOIN c.userDetails d LEFT OUTER JOIN c.locationAddress a
                 WHERE r.id = :rid AND (e.id = :eid OR :ralias = 'K')
             """;
-        final RentDetailsResDto equipmentDetails = session.createQuery(jpqlFindRentDetails, RentDetailsResDto.class)
+        final RentDetailsResDto equipmentDetails = session
+            .createQuery(scope.apply(jpqlFindRentDetails), RentDetailsResDto.class)
             .setParameter("rid", rentId)
             .setParameter("eid", employerId)
             .setParameter("ralias", roleAlias)
@@ -72,7 +85,7 @@ public class RentDaoHib extends AbstractHibernateDao implements RentDao {
     @Override
     public boolean checkIfRentExist(Object rentId) {
         final String jpqlFindRent = "SELECT COUNT(r.id) > 0 FROM RentEntity r WHERE r.id = :rid";
-        return session.createQuery(jpqlFindRent, Boolean.class)
+        return session.createQuery(scope.apply(jpqlFindRent), Boolean.class)
             .setParameter("rid", rentId)
             .getSingleResult();
 
@@ -83,22 +96,12 @@ public class RentDaoHib extends AbstractHibernateDao implements RentDao {
         final String jpqlFindRentEmployer = """
                 SELECT COUNT(r.id) > 0 FROM RentEntity r INNER JOIN r.employer e WHERE e.id = :eid AND r.id = :rid
             """;
-        return session.createQuery(jpqlFindRentEmployer, Boolean.class)
+        return session.createQuery(scope.apply(jpqlFindRentEmployer), Boolean.class)
             .setParameter("eid", employerId)
             .setParameter("rid", rentId)
             .getSingleResult();
     }
     
-    @Override
-    public boolean checkIfIssuerExist(String issuer) {
-        final String jpqlFindExistingIssuer = """
-                SELECT COUNT(r.id) > 0 FROM RentEntity r WHERE SUBSTRING(r.issuedIdentifier, 4, 4) = :issuer
-            """;
-        return session.createQuery(jpqlFindExistingIssuer, Boolean.class)
-            .setParameter("issuer", issuer)
-            .getSingleResult();
-    }
-
     @Override
     public void updateRentStatus(RentStatus rentStatus, Object rentId) {
         final String jpqlUpdateRentStatus = "UPDATE RentEntity r SET r.status = :rst WHERE r.id = :rentid";
@@ -110,86 +113,134 @@ public class RentDaoHib extends AbstractHibernateDao implements RentDao {
 
     @Override
     public Long findAllRentsCount(FilterDataDto filterData) {
-        String jpqlTotalRentsCount = """
+        final String jpqlTotalRentsCount = """
                 SELECT COUNT(r.id) FROM RentEntity r
                 LEFT OUTER JOIN r.employer e LEFT OUTER JOIN r.customer c
                 LEFT OUTER JOIN c.userDetails d LEFT OUTER JOIN e.userDetails ed
                 WHERE :searchColumn LIKE :search
             """;
-        jpqlTotalRentsCount = jpqlTotalRentsCount.replace(":searchColumn", filterData.getSearchColumn());
-        return session.createQuery(jpqlTotalRentsCount, Long.class)
-            .setParameter("search", "%" + filterData.getSearchText() + "%")
-            .getSingleResult();
+        return findAllRecordsCount(scope.apply(jpqlTotalRentsCount), filterData);
     }
 
     @Override
     public Long findAllRentsFromEmployerCount(FilterDataDto filterData, Object employerId) {
-        String jpqlTotalRentsCount = """
+        final String jpqlTotalRentsCount = """
                 SELECT COUNT(r.id) FROM RentEntity r
                 LEFT OUTER JOIN r.employer e LEFT OUTER JOIN r.customer c LEFT OUTER JOIN c.userDetails d
                 WHERE e.id = :eid AND :searchColumn LIKE :search
             """;
-        jpqlTotalRentsCount = jpqlTotalRentsCount.replace(":searchColumn", filterData.getSearchColumn());
-        return session.createQuery(jpqlTotalRentsCount, Long.class)
-            .setParameter("search", "%" + filterData.getSearchText() + "%")
-            .setParameter("eid", employerId)
-            .getSingleResult();
+        return findAllRecordsCount(scope.apply(jpqlTotalRentsCount), filterData, Map.of("eid", employerId));
     }
 
     @Override
-    public List<RentEntity> findAllRentsBaseCustomerId(Object customerId) {
-        final String jpqlFindAllRents = "SELECT r FROM RentEntity r INNER JOIN r.customer c WHERE c.id = :cid";
-        return session.createQuery(jpqlFindAllRents, RentEntity.class)
+    public Optional<RentEntity> findRentWithEquipments(Object rentId) {
+        // rent lines with equipments in single select, instead of lazy loading every line
+        final String jpqlFindRent = """
+                SELECT DISTINCT r FROM RentEntity r
+                LEFT JOIN FETCH r.customer c LEFT JOIN FETCH c.userDetails LEFT JOIN FETCH c.locationAddress
+                LEFT JOIN FETCH r.employer em LEFT JOIN FETCH em.userDetails LEFT JOIN FETCH em.locationAddress
+                LEFT JOIN FETCH em.role
+                LEFT JOIN FETCH r.equipments re LEFT JOIN FETCH re.equipment e
+                LEFT JOIN FETCH e.type LEFT JOIN FETCH e.brand LEFT JOIN FETCH e.color
+                WHERE r.id = :rentid
+            """;
+        final RentEntity rent = session.createQuery(jpqlFindRent, RentEntity.class)
+            .setParameter("rentid", rentId)
+            .getSingleResultOrNull();
+        return Optional.ofNullable(rent);
+    }
+
+    @Override
+    public Map<Long, Integer> findAllRentedEquipmentsCountBaseCustomerId(Object customerId) {
+        final String jpqlFindRentedEquipments = """
+                SELECT e.id, SUM(re.count) FROM RentEquipmentEntity re
+                INNER JOIN re.rent r INNER JOIN r.customer c INNER JOIN re.equipment e
+                WHERE c.id = :cid AND r.status = :st
+                GROUP BY e.id
+            """;
+        return session.createQuery(jpqlFindRentedEquipments, Object[].class)
             .setParameter("cid", customerId)
-            .getResultList();
+            .setParameter("st", RentStatus.RENTED)
+            .getResultStream()
+            .collect(Collectors.toMap(row -> (Long) row[0], row -> ((Number) row[1]).intValue()));
     }
 
     @Override
-    public List<OwnerRentRecordResDto> findAllPageableRents(PageableDto pageableDto) {
-        String jpqlFindAllRents = """
+    public PageableRecords<OwnerRentRecordResDto> findAllPageableRents(PageableDto pageableDto) {
+        final String jpqlFindAllRents = """
                 SELECT new pl.polsl.skirentalservice.dto.rent.OwnerRentRecordResDto(
                     r.id, r.issuedIdentifier, r.issuedDateTime, r.status, r.totalPrice,
                     CAST((r.tax / 100) * r.totalPrice + r.totalPrice AS bigdecimal),
                     IFNULL(CONCAT(d.firstName, ' ', d.lastName), '<i>klient usunięty</i>'), c.id,
                     IFNULL(CONCAT(ed.firstName, ' ', ed.lastName), '<i>pracownik usunięty</i>'), ed.id
-                ) FROM RentEntity r
+                ), :keyColumns FROM RentEntity r
                 LEFT OUTER JOIN r.employer e LEFT OUTER JOIN r.customer c
                 LEFT OUTER JOIN c.userDetails d LEFT OUTER JOIN e.userDetails ed
-                WHERE :searchColumn LIKE :search
+                WHERE :searchColumn LIKE :search :keysetPredicate
                 ORDER BY :sortedColumn
             """;
-        jpqlFindAllRents = jpqlFindAllRents
-            .replace(":searchColumn", pageableDto.filterData().getSearchColumn())
-            .replace(":sortedColumn", pageableDto.sorterData().getJpql());
-        return session.createQuery(jpqlFindAllRents, OwnerRentRecordResDto.class)
-            .setParameter("search", "%" + pageableDto.filterData().getSearchText() + "%")
-            .setFirstResult((pageableDto.page() - 1) * pageableDto.total())
-            .setMaxResults(pageableDto.total())
-            .getResultList();
+        return findAllPageableRecords(scope.apply(jpqlFindAllRents), OwnerRentRecordResDto.class, pageableDto);
     }
 
     @Override
-    public List<SellerRentRecordResDto> findAllPageableRentsFromEmployer(PageableDto pageableDto, Object employerId) {
-        String jpqlFindAllRentsConnectedWithEmployer = """
+    public PageableRecords<SellerRentRecordResDto> findAllPageableRentsFromEmployer(
+        PageableDto pageableDto, Object employerId
+    ) {
+        final String jpqlFindAllRentsConnectedWithEmployer = """
                 SELECT new pl.polsl.skirentalservice.dto.rent.SellerRentRecordResDto(
                     r.id, r.issuedIdentifier, r.issuedDateTime, r.status,
                     CASE WHEN r.status = pl.polsl.skirentalservice.util.RentStatus.RENTED THEN true ELSE false END,
                     r.totalPrice,
                     CAST((r.tax / 100) * r.totalPrice + r.totalPrice AS bigdecimal),
                     IFNULL(CONCAT(d.firstName, ' ', d.lastName), '<i>klient usunięty</i>'), c.id
-                ) FROM RentEntity r
+                ), :keyColumns FROM RentEntity r
                 INNER JOIN r.employer e LEFT OUTER JOIN r.customer c LEFT OUTER JOIN c.userDetails d
-                WHERE e.id = :eid AND :searchColumn LIKE :search
+                WHERE e.id = :eid AND :searchColumn LIKE :search :keysetPredicate
                 ORDER BY :sortedColumn
             """;
-        jpqlFindAllRentsConnectedWithEmployer = jpqlFindAllRentsConnectedWithEmployer
-            .replace(":searchColumn", pageableDto.filterData().getSearchColumn())
-            .replace(":sortedColumn", pageableDto.sorterData().getJpql());
-        return session.createQuery(jpqlFindAllRentsConnectedWithEmployer, SellerRentRecordResDto.class)
-            .setParameter("search", "%" + pageableDto.filterData().getSearchText() + "%")
-            .setParameter("eid", employerId)
-            .setFirstResult((pageableDto.page() - 1) * pageableDto.total())
-            .setMaxResults(pageableDto.total())
-            .getResultList();
+        return findAllPageableRecords(scope.apply(jpqlFindAllRentsConnectedWithEmployer),
+            SellerRentRecordResDto.class, pageableDto, Map.of("eid", employerId));
+    }
+
+    @Override
+    public List<Long> findAllArchivableRentsIds(LocalDateTime returnedBefore, int limit) {
+        final String sqlFindArchivableRents = """
+                SELECT r.id FROM rents r INNER JOIN rent_returns rr ON rr.rent_id = r.id
+                WHERE r.status = :st AND rr.issued_date_time < :returnedBefore
+                ORDER BY r.id LIMIT :limit
+            """;
+        return session.createNativeQuery(sqlFindArchivableRents, Object.class)
+            .setParameter("st", RentStatus.RETURNED.getStatus())
+            .setParameter("returnedBefore", returnedBefore)
+            .setParameter("limit", limit)
+            .getResultStream()
+            .map(id -> ((Number) id).longValue())
+            .toList();
+    }
+
+    @Override
+    public void moveRentsToArchive(List<Long> rentIds) {
+        // archive tables are created as copy of hot tables, so columns order is the same
+        final List<String> sqlMoveToArchive = List.of(
+            "INSERT INTO rents_archive SELECT * FROM rents WHERE id IN (:ids)",
+            "INSERT INTO rent_equipments_archive SELECT * FROM rent_equipments WHERE rent_id IN (:ids)",
+            "INSERT INTO rent_returns_archive SELECT * FROM rent_returns WHERE rent_id IN (:ids)",
+            """
+                INSERT INTO rent_returns_equipments_archive SELECT rre.* FROM rent_returns_equipments rre
+                INNER JOIN rent_returns rr ON rre.rent_return_id = rr.id WHERE rr.rent_id IN (:ids)
+            """,
+            """
+                DELETE FROM rent_returns_equipments
+                WHERE rent_return_id IN (SELECT rr.id FROM rent_returns rr WHERE rr.rent_id IN (:ids))
+            """,
+            "DELETE FROM rent_returns WHERE rent_id IN (:ids)",
+            "DELETE FROM rent_equipments WHERE rent_id IN (:ids)",
+            "DELETE FROM rents WHERE id IN (:ids)"
+        );
+        for (final String sql : sqlMoveToArchive) {
+            session.createNativeMutationQuery(sql)
+                .setParameterList("ids", rentIds)
+                .executeUpdate();
+        }
     }
 }
@@ -6,20 +6,30 @@ package pl.polsl.skirentalservice.dao.hibernate;
 
 import org.hibernate.Session;
 import pl.polsl.skirentalservice.core.servlet.pageable.FilterDataDto;
+import pl.polsl.skirentalservice.core.servlet.pageable.PageableRecords;
 import pl.polsl.skirentalservice.dao.ReturnDao;
 import pl.polsl.skirentalservice.dao.core.AbstractHibernateDao;
+import pl.polsl.skirentalservice.dao.core.ArchiveScope;
 import pl.polsl.skirentalservice.dto.PageableDto;
 import pl.polsl.skirentalservice.dto.deliv_return.OwnerRentReturnRecordResDto;
 import pl.polsl.skirentalservice.dto.deliv_return.ReturnAlreadyExistPayloadDto;
 import pl.polsl.skirentalservice.dto.deliv_return.ReturnRentDetailsResDto;
 import pl.polsl.skirentalservice.dto.deliv_return.SellerRentReturnRecordResDto;
+import pl.polsl.skirentalservice.entity.RentReturnEntity;
 
-import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public class ReturnDaoHib extends AbstractHibernateDao implements ReturnDao {
+    private final ArchiveScope scope;
+
     public ReturnDaoHib(Session session) {
+        this(session, ArchiveScope.HOT);
+    }
+
+    public ReturnDaoHib(Session session, ArchiveScope scope) {
         super(session);
+        this.scope = scope;
     }
 
     @Override
@@ -55,7 +65,7 @@ public class ReturnDaoHib extends AbstractHibernateDao implements ReturnDao {
                 WHERE rr.id = :rid AND (e.id = :eid OR :ralias = 'K')
             """;
         final ReturnRentDetailsResDto returnDetails = session
-            .createQuery(jpqlFindReturnDetails, ReturnRentDetailsResDto.class)
+            .createQuery(scope.apply(jpqlFindReturnDetails), ReturnRentDetailsResDto.class)
             .setParameter("rid", returnId)
             .setParameter("eid", employerId)
             .setParameter("ralias", roleAlias)
@@ -65,85 +75,82 @@ public class ReturnDaoHib extends AbstractHibernateDao implements ReturnDao {
 
     @Override
     public Long findAllReturnsCount(FilterDataDto filterData) {
-        String jpqlTotalReturnsCount = """
+        final String jpqlTotalReturnsCount = """
                 SELECT COUNT(r.id) FROM RentReturnEntity r
                 INNER JOIN r.rent rd INNER JOIN rd.employer e INNER JOIN e.userDetails ed
                 WHERE :searchColumn LIKE :search
             """;
-        jpqlTotalReturnsCount = jpqlTotalReturnsCount.replace(":searchColumn", filterData.getSearchColumn());
-        return session.createQuery(jpqlTotalReturnsCount, Long.class)
-            .setParameter("search", "%" + filterData.getSearchText() + "%")
-            .getSingleResult();
+        return findAllRecordsCount(scope.apply(jpqlTotalReturnsCount), filterData);
     }
 
     @Override
     public Long findAllReturnsFromEmployerCount(FilterDataDto filterData, Object employerId) {
-        String jpqlTotalReturnsCount = """
+        final String jpqlTotalReturnsCount = """
                 SELECT COUNT(r.id) FROM RentReturnEntity r
                 INNER JOIN r.rent rd INNER JOIN rd.employer e
                 WHERE e.id = :eid AND :searchColumn LIKE :search
             """;
-        jpqlTotalReturnsCount = jpqlTotalReturnsCount.replace(":searchColumn", filterData.getSearchColumn());
-        return session.createQuery(jpqlTotalReturnsCount, Long.class)
-            .setParameter("search", "%" + filterData.getSearchText() + "%")
-            .setParameter("eid", employerId)
-            .getSingleResult();
+        return findAllRecordsCount(scope.apply(jpqlTotalReturnsCount), filterData, Map.of("eid", employerId));
     }
 
     @Override
-    public List<OwnerRentReturnRecordResDto> findAllPageableReturnsRecords(PageableDto pageableDto) {
-        String jpqlFindAlReturns = """
+    public PageableRecords<OwnerRentReturnRecordResDto> findAllPageableReturnsRecords(PageableDto pageableDto) {
+        final String jpqlFindAlReturns = """
                 SELECT new pl.polsl.skirentalservice.dto.deliv_return.OwnerRentReturnRecordResDto(
                     r.id, r.issuedIdentifier, r.issuedDateTime, r.totalPrice,
                     CAST((rd.tax / 100) * r.totalPrice + r.totalPrice AS bigdecimal), rd.id, rd.issuedIdentifier,
                     e.id, CONCAT(ed.firstName, ' ', ed.lastName)
-                ) FROM RentReturnEntity r
+                ), :keyColumns FROM RentReturnEntity r
                 INNER JOIN r.rent rd INNER JOIN rd.employer e INNER JOIN e.userDetails ed
-                WHERE :searchColumn LIKE :search
+                WHERE :searchColumn LIKE :search :keysetPredicate
                 ORDER BY :sortedColumn
             """;
-        jpqlFindAlReturns = jpqlFindAlReturns
-            .replace(":searchColumn", pageableDto.filterData().getSearchColumn())
-            .replace(":sortedColumn", pageableDto.sorterData().getJpql());
-        return session
-            .createQuery(jpqlFindAlReturns, OwnerRentReturnRecordResDto.class)
-            .setParameter("search", "%" + pageableDto.filterData().getSearchText() + "%")
-            .setFirstResult((pageableDto.page() - 1) * pageableDto.total())
-            .setMaxResults(pageableDto.total())
-            .getResultList();
+        return findAllPageableRecords(scope.apply(jpqlFindAlReturns), OwnerRentReturnRecordResDto.class, pageableDto);
     }
 
     @Override
-    public List<SellerRentReturnRecordResDto> findAllPageableReturnsFromEmployerRecords(PageableDto pageableDto, Object employerId) {
-        String jpqlFindAlReturnsConnectedWithEmployer = """
+    public PageableRecords<SellerRentReturnRecordResDto> findAllPageableReturnsFromEmployerRecords(
+        PageableDto pageableDto, Object employerId
+    ) {
+        final String jpqlFindAlReturnsConnectedWithEmployer = """
                 SELECT new pl.polsl.skirentalservice.dto.deliv_return.SellerRentReturnRecordResDto(
                     r.id, r.issuedIdentifier, r.issuedDateTime, r.totalPrice,
                     CAST((rd.tax / 100) * r.totalPrice + r.totalPrice AS bigdecimal), rd.id, rd.issuedIdentifier
-                ) FROM RentReturnEntity r
+                ), :keyColumns FROM RentReturnEntity r
                 INNER JOIN r.rent rd INNER JOIN rd.employer e
-                WHERE e.id = :eid AND :searchColumn LIKE :search
+                WHERE e.id = :eid AND :searchColumn LIKE :search :keysetPredicate
                 ORDER BY :sortedColumn
             """;
-        jpqlFindAlReturnsConnectedWithEmployer = jpqlFindAlReturnsConnectedWithEmployer
-            .replace(":searchColumn", pageableDto.filterData().getSearchColumn())
-            .replace(":sortedColumn", pageableDto.sorterData().getJpql());
-        return session
-            .createQuery(jpqlFindAlReturnsConnectedWithEmployer, SellerRentReturnRecordResDto.class)
-            .setParameter("search", "%" + pageableDto.filterData().getSearchText() + "%")
-            .setParameter("eid", employerId)
-            .setFirstResult((pageableDto.page() - 1) * pageableDto.total())
-            .setMaxResults(pageableDto.total())
-            .getResultList();
+        return findAllPageableRecords(scope.apply(jpqlFindAlReturnsConnectedWithEmployer),
+            SellerRentReturnRecordResDto.class, pageableDto, Map.of("eid", employerId));
     }
 
     @Override
     public boolean checkIfReturnExist(Object returnId) {
         final String jpqlReturnExist = "SELECT COUNT(r.id) > 0 FROM RentReturnEntity r WHERE r.id = :rid";
-        return session.createQuery(jpqlReturnExist, Boolean.class)
+        return session.createQuery(scope.apply(jpqlReturnExist), Boolean.class)
             .setParameter("rid", returnId)
             .getSingleResult();
     }
 
+    @Override
+    public Optional<RentReturnEntity> findReturnWithRentEquipments(Object returnId) {
+        final String jpqlFindReturn = """
+                SELECT DISTINCT rr FROM RentReturnEntity rr
+                LEFT JOIN FETCH rr.rent r
+                LEFT JOIN FETCH r.customer c LEFT JOIN FETCH c.userDetails LEFT JOIN FETCH c.locationAddress
+                LEFT JOIN FETCH r.employer em LEFT JOIN FETCH em.userDetails LEFT JOIN FETCH em.locationAddress
+                LEFT JOIN FETCH em.role
+                LEFT JOIN FETCH r.equipments re LEFT JOIN FETCH re.equipment e
+                LEFT JOIN FETCH e.type LEFT JOIN FETCH e.brand LEFT JOIN FETCH e.color
+                WHERE rr.id = :rid
+            """;
+        final RentReturnEntity rentReturn = session.createQuery(jpqlFindReturn, RentReturnEntity.class)
+            .setParameter("rid", returnId)
+            .getSingleResultOrNull();
+        return Optional.ofNullable(rentReturn);
+    }
+
     @Override
     public boolean checkIfReturnIsFromEmployer(Object returnId, Object employerId) {
         final String jpqlFindRentEmployer = """
@@ -151,7 +158,7 @@ public class ReturnDaoHib extends AbstractHibernateDao implements ReturnDao {
                 INNER JOIN r.rent re INNER JOIN re.employer e
                 WHERE e.id = :eid AND r.id = :rid
             """;
-        return session.createQuery(jpqlFindRentEmployer, Boolean.class)
+        return session.createQuery(scope.apply(jpqlFindRentEmployer), Boolean.class)
             .setParameter("eid", employerId)
             .setParameter("rid", returnId)
             .getSingleResult();
@@ -11,21 +11,25 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
 import org.apache.commons.lang3.StringUtils;
-import pl.polsl.skirentalservice.core.s3.FetchedObjectData;
+import pl.polsl.skirentalservice.core.s3.FetchedObjectMetadata;
+import pl.polsl.skirentalservice.core.s3.ObjectRange;
+import pl.polsl.skirentalservice.core.s3.ObjectStorageBean;
 import pl.polsl.skirentalservice.core.s3.S3Bucket;
-import pl.polsl.skirentalservice.core.s3.S3ClientBean;
+import pl.polsl.skirentalservice.core.s3.S3DeliveryMode;
 import pl.polsl.skirentalservice.util.SessionAttribute;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.net.URL;
+import java.util.Arrays;
 
 @WebServlet("/resources/*")
 public class GetStaticResourceServlet extends HttpServlet {
-    private final S3ClientBean s3ClientBean;
+    private final ObjectStorageBean objectStorageBean;
 
     @Inject
-    public GetStaticResourceServlet(S3ClientBean s3ClientBean) {
-        this.s3ClientBean = s3ClientBean;
+    public GetStaticResourceServlet(ObjectStorageBean objectStorageBean) {
+        this.objectStorageBean = objectStorageBean;
     }
 
     @Override
@@ -44,16 +48,75 @@ public class GetStaticResourceServlet extends HttpServlet {
             res.sendError(HttpServletResponse.SC_NOT_FOUND);
             return;
         }
-        final FetchedObjectData objectData = s3ClientBean.getObject(bucket, name);
-        if (objectData == null) {
+        if (objectStorageBean.getDeliveryMode(bucket).equals(S3DeliveryMode.REDIRECT)) {
+            final URL presignedUrl = objectStorageBean.generatePresignedUrl(bucket, name);
+            if (presignedUrl != null) {
+                // redirect target expires, so it can not be reused from browser cache
+                res.setHeader("Cache-Control", "no-store");
+                res.sendRedirect(presignedUrl.toString());
+                return;
+            }
+        }
+        final FetchedObjectMetadata metadata = objectStorageBean.getObjectMetadata(bucket, name);
+        if (metadata == null) {
             res.sendError(HttpServletResponse.SC_NOT_FOUND);
             return;
         }
-        res.setContentType(objectData.contentType());
-        res.setContentLength((int) objectData.contentLength());
+        res.setHeader("ETag", metadata.getQuotedETag());
+        res.setDateHeader("Last-Modified", metadata.lastModified().getTime());
+        res.setHeader("Accept-Ranges", "bytes");
+        // resources are visible only for logged users, so shared caches can not store them
+        res.setHeader("Cache-Control", "private, no-cache");
+        if (isNotModified(req, metadata)) {
+            res.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        final long contentLength = metadata.contentLength();
+        ObjectRange range = ObjectRange.full(contentLength);
+        if (req.getHeader("Range") != null && isIfRangeMatching(req, metadata)) {
+            range = ObjectRange.parse(req.getHeader("Range"), contentLength);
+        }
+        if (range == null) {
+            res.setHeader("Content-Range", "bytes */" + contentLength);
+            res.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            return;
+        }
+        if (range.partial()) {
+            res.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            res.setHeader("Content-Range", range.getContentRange(contentLength));
+        }
+        res.setContentType(metadata.contentType());
+        res.setContentLengthLong(range.getLength());
+        if (contentLength == 0) {
+            return;
+        }
+        try (final OutputStream out = res.getOutputStream()) {
+            objectStorageBean.streamObject(bucket, name, range, out);
+        }
+    }
+
+    // If-None-Match has priority, If-Modified-Since is checked only when client not send etag
+    private boolean isNotModified(HttpServletRequest req, FetchedObjectMetadata metadata) {
+        final String ifNoneMatch = req.getHeader("If-None-Match");
+        if (ifNoneMatch != null) {
+            return ifNoneMatch.trim().equals("*") || Arrays.stream(ifNoneMatch.split(","))
+                .map(tag -> StringUtils.removeStart(tag.trim(), "W/"))
+                .anyMatch(tag -> tag.equals(metadata.getQuotedETag()));
+        }
+        final long ifModifiedSince = req.getDateHeader("If-Modified-Since");
+        return ifModifiedSince != -1 && metadata.lastModified().getTime() / 1000 <= ifModifiedSince / 1000;
+    }
 
-        final OutputStream out = res.getOutputStream();
-        out.write(objectData.data());
-        out.close();
+    // range is applied only when client has still the same version of object, otherwise whole object is sent
+    private boolean isIfRangeMatching(HttpServletRequest req, FetchedObjectMetadata metadata) {
+        final String ifRange = req.getHeader("If-Range");
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"")) {
+            return ifRange.equals(metadata.getQuotedETag());
+        }
+        final long ifRangeDate = req.getDateHeader("If-Range");
+        return metadata.lastModified().getTime() / 1000 == ifRangeDate / 1000;
     }
 }
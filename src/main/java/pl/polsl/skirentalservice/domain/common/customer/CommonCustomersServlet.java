@@ -86,10 +86,11 @@ public class CommonCustomersServlet extends AbstractPageableWebServlet {
     @Override
     protected List<FilterColumn> configureServletFilterFields() {
         return List.of(
-            new FilterColumn("fullName", "Imieniu i nazwisku", "CONCAT(d.firstName, ' ', d.lastName)"),
-            new FilterColumn("pesel", "Numerze PESEL", "d.pesel"),
-            new FilterColumn("email", "Adresie email", "d.emailAddress"),
-            new FilterColumn("phoneNumber", "Numerze telefonu", "d.phoneNumber"),
+            new FilterColumn("fullName", "Imieniu i nazwisku", "CONCAT(d.firstName, ' ', d.lastName)",
+                List.of("d.firstName", "d.lastName")),
+            new FilterColumn("pesel", "Numerze PESEL", "d.pesel", List.of("d.pesel")),
+            new FilterColumn("email", "Adresie email", "d.emailAddress", List.of("d.emailAddress")),
+            new FilterColumn("phoneNumber", "Numerze telefonu", "d.phoneNumber", List.of("d.phoneNumber")),
             new FilterColumn("address", "Adresie zamieszkania", addressColumn)
         );
     }
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.domain.owner;
+
+import com.google.gson.Gson;
+import jakarta.inject.Inject;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import pl.polsl.skirentalservice.dao.core.DaoMetricsBean;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+
+// DAO methods latency, rows and statements with connection pools and disk cache usage, available only for owner
+// (guarded by protected routes filter); POST resets DAO methods stats, ex. before measuring single scenario
+@Slf4j
+@WebServlet("/owner/dao-metrics")
+public class OwnerDaoMetricsServlet extends HttpServlet {
+    private final DaoMetricsBean daoMetricsBean;
+    private final Gson gson = new Gson();
+
+    @Inject
+    public OwnerDaoMetricsServlet(DaoMetricsBean daoMetricsBean) {
+        this.daoMetricsBean = daoMetricsBean;
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse res) throws IOException {
+        res.setContentType("application/json");
+        res.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        try (final PrintWriter writer = res.getWriter()) {
+            gson.toJson(daoMetricsBean.getSnapshot(), writer);
+        }
+    }
+
+    @Override
+    protected void doPost(HttpServletRequest req, HttpServletResponse res) {
+        daoMetricsBean.resetDaoMethodStats();
+        log.info("DAO methods stats were reset");
+        res.setStatus(HttpServletResponse.SC_NO_CONTENT);
+    }
+}
@@ -75,11 +75,14 @@ public class OwnerRentsServlet extends AbstractPageableWebServlet {
     @Override
     protected List<FilterColumn> configureServletFilterFields() {
         return List.of(
-            new FilterColumn("issuedIdentifier", "Numerze wypożyczenia", "r.issuedIdentifier"),
+            new FilterColumn("issuedIdentifier", "Numerze wypożyczenia", "r.issuedIdentifier",
+                List.of("r.issuedIdentifier")),
             new FilterColumn("issuedDateTime", "Dacie stworzenia wypożyczenia", "CAST(r.issuedDateTime AS string)"),
             new FilterColumn("status", "Statusie wypożyczenia", "CAST(r.status AS string)"),
-            new FilterColumn("client", "Po imieniu i nazwisku klienta", "CONCAT(d.firstName, ' ', d.lastName)"),
-            new FilterColumn("employer", "Po imieniu i nazwisku pracownika", "CONCAT(ed.firstName, ' ', ed.lastName)")
+            new FilterColumn("client", "Po imieniu i nazwisku klienta", "CONCAT(d.firstName, ' ', d.lastName)",
+                List.of("d.firstName", "d.lastName")),
+            new FilterColumn("employer", "Po imieniu i nazwisku pracownika", "CONCAT(ed.firstName, ' ', ed.lastName)",
+                List.of("ed.firstName", "ed.lastName"))
         );
     }
 
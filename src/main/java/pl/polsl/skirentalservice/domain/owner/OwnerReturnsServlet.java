@@ -64,7 +64,7 @@ public class OwnerReturnsServlet extends AbstractPageableWebServlet {
         return Map.of(
             "identity", new ServletSorterField("r.id"),
             "issuedIdentifier", new ServletSorterField("r.issuedIdentifier"),
-            "issuedDatetime", new ServletSorterField("r.issuedDatetime"),
+            "issuedDateTime", new ServletSorterField("r.issuedDateTime"),
             "totalPriceNetto", new ServletSorterField("r.totalPrice"),
             "totalPriceBrutto", new ServletSorterField("(rd.tax / 100) * r.totalPrice + r.totalPrice"),
             "employer", new ServletSorterField("CONCAT(ed.firstName, ' ', ed.lastName)"),
@@ -75,10 +75,12 @@ public class OwnerReturnsServlet extends AbstractPageableWebServlet {
     @Override
     protected List<FilterColumn> configureServletFilterFields() {
         return List.of(
-            new FilterColumn("issuedIdentifier", "Numerze zwrotu", "r.issuedIdentifier"),
-            new FilterColumn("issuedDatetime", "Dacie stworzenia zwrotu", "CAST(r.issuedDatetime AS string)"),
-            new FilterColumn("rentIssuedIdentifier", "Numerze wypożyczenia", "rd.issuedIdentifier"),
-            new FilterColumn("employer", "Po imieniu i nazwisku pracownika", "CONCAT(ed.firstName, ' ', ed.lastName)")
+            new FilterColumn("issuedIdentifier", "Numerze zwrotu", "r.issuedIdentifier", List.of("r.issuedIdentifier")),
+            new FilterColumn("issuedDateTime", "Dacie stworzenia zwrotu", "CAST(r.issuedDateTime AS string)"),
+            new FilterColumn("rentIssuedIdentifier", "Numerze wypożyczenia", "rd.issuedIdentifier",
+                List.of("rd.issuedIdentifier")),
+            new FilterColumn("employer", "Po imieniu i nazwisku pracownika", "CONCAT(ed.firstName, ' ', ed.lastName)",
+                List.of("ed.firstName", "ed.lastName"))
         );
     }
 
@@ -76,9 +76,10 @@ public class SellerReturnsServlet extends AbstractPageableWebServlet {
     @Override
     protected List<FilterColumn> configureServletFilterFields() {
         return List.of(
-            new FilterColumn("issuedIdentifier", "Numerze zwrotu", "r.issuedIdentifier"),
+            new FilterColumn("issuedIdentifier", "Numerze zwrotu", "r.issuedIdentifier", List.of("r.issuedIdentifier")),
             new FilterColumn("issuedDateTime", "Dacie stworzenia zwrotu", "CAST(r.issuedDateTime AS string)"),
-            new FilterColumn("rentIssuedIdentifier", "Numerze wypożyczenia", "rd.issuedIdentifier")
+            new FilterColumn("rentIssuedIdentifier", "Numerze wypożyczenia", "rd.issuedIdentifier",
+                List.of("rd.issuedIdentifier"))
         );
     }
 
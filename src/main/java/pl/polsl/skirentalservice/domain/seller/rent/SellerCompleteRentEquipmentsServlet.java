@@ -90,8 +90,8 @@ public class SellerCompleteRentEquipmentsServlet extends AbstractPageableWebServ
     @Override
     protected List<FilterColumn> configureServletFilterFields() {
         return List.of(
-            new FilterColumn("name", "nazwie", "e.name"),
-            new FilterColumn("type", "typie sprzętu", "t.name")
+            new FilterColumn("name", "nazwie", "e.name", List.of("e.name")),
+            new FilterColumn("type", "typie sprzętu", "t.name", List.of("t.name"))
         );
     }
 
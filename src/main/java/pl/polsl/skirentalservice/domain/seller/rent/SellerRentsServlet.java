@@ -77,10 +77,12 @@ public class SellerRentsServlet extends AbstractPageableWebServlet {
     @Override
     protected List<FilterColumn> configureServletFilterFields() {
         return List.of(
-            new FilterColumn("issuedIdentifier", "Numerze wypożyczenia", "r.issuedIdentifier"),
+            new FilterColumn("issuedIdentifier", "Numerze wypożyczenia", "r.issuedIdentifier",
+                List.of("r.issuedIdentifier")),
             new FilterColumn("issuedDateTime", "Dacie stworzenia wypożyczenia", "CAST(r.issuedDateTime AS string)"),
             new FilterColumn("status", "Statusie wypożyczenia", "CAST(r.status AS string)"),
-            new FilterColumn("client", "Po imieniu i nazwisku klienta", "CONCAT(d.firstName, ' ', d.lastName)")
+            new FilterColumn("client", "Po imieniu i nazwisku klienta", "CONCAT(d.firstName, ' ', d.lastName)",
+                List.of("d.firstName", "d.lastName"))
         );
     }
 
@@ -6,12 +6,14 @@ package pl.polsl.skirentalservice.dto;
 
 import lombok.Builder;
 import pl.polsl.skirentalservice.core.servlet.pageable.FilterDataDto;
+import pl.polsl.skirentalservice.core.servlet.pageable.KeysetCursor;
 import pl.polsl.skirentalservice.core.servlet.pageable.SorterDataDto;
 
 @Builder
 public record PageableDto(
     FilterDataDto filterData,
     SorterDataDto sorterData,
+    KeysetCursor cursor,
     int page,
     int total
 ) {
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.entity;
+
+import jakarta.persistence.*;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Subselect;
+import org.hibernate.annotations.Synchronize;
+import pl.polsl.skirentalservice.converter.RentStatusConverter;
+import pl.polsl.skirentalservice.core.db.AuditableEntity;
+import pl.polsl.skirentalservice.core.db.EntityInjector;
+import pl.polsl.skirentalservice.util.RentStatus;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// hot and archived rents together, archive tables are copy of hot tables, so columns order is the same
+@Entity
+@Immutable
+@EntityInjector
+@Subselect("SELECT * FROM rents UNION ALL SELECT * FROM rents_archive")
+@Synchronize({ "rents", "rents_archive" })
+@NoArgsConstructor
+public class AllRentEntity extends AuditableEntity implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 0L;
+
+    private String issuedIdentifier;
+
+    private LocalDateTime issuedDateTime;
+
+    private LocalDateTime rentDateTime;
+
+    private LocalDateTime returnDateTime;
+
+    private Integer tax;
+
+    private String description;
+
+    private BigDecimal totalPrice;
+
+    private BigDecimal totalDepositPrice;
+
+    @Convert(converter = RentStatusConverter.class)
+    private RentStatus status;
+
+    @JoinColumn
+    @ManyToOne
+    private CustomerEntity customer;
+
+    @JoinColumn
+    @ManyToOne
+    private EmployerEntity employer;
+
+    @Override
+    public String toString() {
+        return "{" +
+            "issuedIdentifier=" + issuedIdentifier +
+            ", issuedDateTime=" + issuedDateTime +
+            ", status=" + status +
+            '}';
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.entity;
+
+import jakarta.persistence.*;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Subselect;
+import org.hibernate.annotations.Synchronize;
+import pl.polsl.skirentalservice.core.db.AuditableEntity;
+import pl.polsl.skirentalservice.core.db.EntityInjector;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// hot and archived returns together, archive tables are copy of hot tables, so columns order is the same
+@Entity
+@Immutable
+@EntityInjector
+@Subselect("SELECT * FROM rent_returns UNION ALL SELECT * FROM rent_returns_archive")
+@Synchronize({ "rent_returns", "rent_returns_archive" })
+@NoArgsConstructor
+public class AllRentReturnEntity extends AuditableEntity implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 0L;
+
+    private String issuedIdentifier;
+
+    private LocalDateTime issuedDateTime;
+
+    private String description;
+
+    private BigDecimal totalPrice;
+
+    private BigDecimal totalDepositPrice;
+
+    @JoinColumn
+    @OneToOne
+    private AllRentEntity rent;
+
+    @Override
+    public String toString() {
+        return "{" +
+            "issuedIdentifier=" + issuedIdentifier +
+            ", issuedDateTime=" + issuedDateTime +
+            '}';
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.entity;
+
+import jakarta.persistence.*;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+import pl.polsl.skirentalservice.core.db.AuditableEntity;
+import pl.polsl.skirentalservice.core.db.EntityInjector;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+@Entity
+@Immutable
+@EntityInjector
+@Table(name = "rent_equipments_archive")
+@NoArgsConstructor
+public class ArchivedRentEquipmentEntity extends AuditableEntity implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 0L;
+
+    private Integer count;
+
+    private BigDecimal totalPrice;
+
+    private String description;
+
+    private BigDecimal depositPrice;
+
+    @JoinColumn
+    @ManyToOne
+    private ArchivedRentEntity rent;
+
+    @JoinColumn
+    @ManyToOne
+    private EquipmentEntity equipment;
+
+    @Override
+    public String toString() {
+        return "{" +
+            "count=" + count +
+            ", totalPrice=" + totalPrice +
+            ", description=" + description +
+            ", depositPrice=" + depositPrice +
+            '}';
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.entity;
+
+import jakarta.persistence.*;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+import pl.polsl.skirentalservice.core.db.AuditableEntity;
+import pl.polsl.skirentalservice.core.db.EntityInjector;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Immutable
+@EntityInjector
+@Table(name = "rent_returns_archive")
+@NoArgsConstructor
+public class ArchivedRentReturnEntity extends AuditableEntity implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 0L;
+
+    private String issuedIdentifier;
+
+    private LocalDateTime issuedDateTime;
+
+    private String description;
+
+    private BigDecimal totalPrice;
+
+    private BigDecimal totalDepositPrice;
+
+    @JoinColumn
+    @OneToOne
+    private ArchivedRentEntity rent;
+
+    @Override
+    public String toString() {
+        return "{" +
+            "issuedIdentifier=" + issuedIdentifier +
+            ", issuedDateTime=" + issuedDateTime +
+            '}';
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.entity;
+
+import jakarta.persistence.*;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+import pl.polsl.skirentalservice.core.db.AuditableEntity;
+import pl.polsl.skirentalservice.core.db.EntityInjector;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+@Entity
+@Immutable
+@EntityInjector
+@Table(name = "rent_returns_equipments_archive")
+@NoArgsConstructor
+public class ArchivedRentReturnEquipmentEntity extends AuditableEntity implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 0L;
+
+    private BigDecimal totalPrice;
+
+    private String description;
+
+    private BigDecimal depositPrice;
+
+    @JoinColumn
+    @ManyToOne
+    private ArchivedRentReturnEntity rentReturn;
+
+    @JoinColumn
+    @ManyToOne
+    private EquipmentEntity equipment;
+
+    @JoinColumn
+    @OneToOne
+    private ArchivedRentEquipmentEntity rentEquipment;
+
+    @Override
+    public String toString() {
+        return "{" +
+            "totalPrice=" + totalPrice +
+            ", description=" + description +
+            ", depositPrice=" + depositPrice +
+            '}';
+    }
+}
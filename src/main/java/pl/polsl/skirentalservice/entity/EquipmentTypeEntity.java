@@ -4,11 +4,15 @@
  */
 package pl.polsl.skirentalservice.entity;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import pl.polsl.skirentalservice.core.db.AuditableEntity;
+import pl.polsl.skirentalservice.core.db.CacheRegion;
 import pl.polsl.skirentalservice.core.db.EntityInjector;
 
 import java.io.Serial;
@@ -19,6 +23,8 @@ import java.util.Set;
 @Entity
 @EntityInjector
 @Table(name = "equipment_types")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegion.DICTIONARIES)
 @NoArgsConstructor
 public class EquipmentTypeEntity extends AuditableEntity implements Serializable {
     @Serial
@@ -9,8 +9,8 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 import lombok.NoArgsConstructor;
-import pl.polsl.skirentalservice.core.db.AuditableEntity;
 import pl.polsl.skirentalservice.core.db.EntityInjector;
+import pl.polsl.skirentalservice.core.db.PooledAuditableEntity;
 
 import java.io.Serial;
 import java.io.Serializable;
@@ -22,7 +22,7 @@ import static jakarta.persistence.CascadeType.*;
 @EntityInjector
 @Table(name = "rent_equipments")
 @NoArgsConstructor
-public class RentEquipmentEntity extends AuditableEntity implements Serializable {
+public class RentEquipmentEntity extends PooledAuditableEntity implements Serializable {
     @Serial
     private static final long serialVersionUID = 0L;
 
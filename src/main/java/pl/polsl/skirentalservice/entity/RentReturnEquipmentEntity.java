@@ -6,8 +6,8 @@ package pl.polsl.skirentalservice.entity;
 
 import jakarta.persistence.*;
 import lombok.NoArgsConstructor;
-import pl.polsl.skirentalservice.core.db.AuditableEntity;
 import pl.polsl.skirentalservice.core.db.EntityInjector;
+import pl.polsl.skirentalservice.core.db.PooledAuditableEntity;
 
 import java.io.Serial;
 import java.io.Serializable;
@@ -19,7 +19,7 @@ import static jakarta.persistence.CascadeType.*;
 @EntityInjector
 @Table(name = "rent_returns_equipments")
 @NoArgsConstructor
-public class RentReturnEquipmentEntity extends AuditableEntity implements Serializable {
+public class RentReturnEquipmentEntity extends PooledAuditableEntity implements Serializable {
     @Serial
     private static final long serialVersionUID = 0L;
 
@@ -4,10 +4,14 @@
  */
 package pl.polsl.skirentalservice.entity;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Table;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import pl.polsl.skirentalservice.core.db.AuditableEntity;
+import pl.polsl.skirentalservice.core.db.CacheRegion;
 import pl.polsl.skirentalservice.core.db.EntityInjector;
 
 import java.io.Serial;
@@ -16,6 +20,8 @@ import java.io.Serializable;
 @Entity
 @EntityInjector
 @Table(name = "roles")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = CacheRegion.DICTIONARIES)
 @NoArgsConstructor
 public class RoleEntity extends AuditableEntity implements Serializable {
     @Serial
@@ -7,6 +7,7 @@ package pl.polsl.skirentalservice.exception;
 import lombok.extern.slf4j.Slf4j;
 import pl.polsl.skirentalservice.core.AbstractAppException;
 import pl.polsl.skirentalservice.core.mail.MailRequestPayload;
+import pl.polsl.skirentalservice.core.servlet.pageable.PageableQueryRegistry;
 
 public class ServletException {
     @Slf4j
@@ -24,4 +25,12 @@ public class ServletException {
             log.error("Unable to generated PDF document. Cause: {}", ex.getMessage());
         }
     }
+
+    @Slf4j
+    public static class UnsupportedPageableQueryException extends AbstractAppException {
+        public UnsupportedPageableQueryException(PageableQueryRegistry.QueryPlanKey queryPlanKey) {
+            super("Nieprawidłowe parametry filtrowania lub sortowania. Odśwież stronę i spróbuj ponownie.");
+            log.error("Attempt to execute not registered pageable query plan: {}", queryPlanKey);
+        }
+    }
 }
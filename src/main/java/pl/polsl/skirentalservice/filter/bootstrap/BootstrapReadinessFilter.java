@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.filter.bootstrap;
+
+import jakarta.inject.Inject;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpFilter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import pl.polsl.skirentalservice.core.ServerConfigBean;
+import pl.polsl.skirentalservice.core.bootstrap.BootstrapBean;
+
+import java.io.IOException;
+
+// mapped in web.xml, so it is called before all annotated filters (which call services and database)
+public class BootstrapReadinessFilter extends HttpFilter {
+    private final BootstrapBean bootstrapBean;
+    private final long awaitMillis;
+
+    @Inject
+    public BootstrapReadinessFilter(BootstrapBean bootstrapBean, ServerConfigBean serverConfigBean) {
+        this.bootstrapBean = bootstrapBean;
+        awaitMillis = serverConfigBean.getBootstrapAwaitSec() * 1000;
+    }
+
+    @Override
+    public void doFilter(HttpServletRequest req, HttpServletResponse res, FilterChain chain)
+        throws ServletException, IOException {
+        // requests received during startup wait for infrastructure instead of hitting not initialized beans
+        if (!bootstrapBean.isReady()) {
+            try {
+                if (!bootstrapBean.awaitReady(awaitMillis)) {
+                    sendNotReady(res);
+                    return;
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                res.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                return;
+            }
+        }
+        chain.doFilter(req, res);
+    }
+
+    private void sendNotReady(HttpServletResponse res) throws IOException {
+        // failed bootstrap is not retried, so gate stays closed until application is redeployed
+        if (bootstrapBean.isFailed()) {
+            res.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+                "Infrastructure initialization failed: " + String.join(", ", bootstrapBean.getFailedBeans()));
+            return;
+        }
+        res.setHeader("Retry-After", String.valueOf(awaitMillis / 1000));
+        res.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.filter.replica;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpFilter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import pl.polsl.skirentalservice.core.db.ReplicaLagGuard;
+import pl.polsl.skirentalservice.util.SessionAttribute;
+
+import java.io.IOException;
+
+// mapped in web.xml, so lag guard scope is opened before annotated filters, which also read from database
+public class ReplicaLagGuardFilter extends HttpFilter {
+    @Override
+    public void doFilter(HttpServletRequest req, HttpServletResponse res, FilterChain chain)
+        throws ServletException, IOException {
+        final String attributeName = SessionAttribute.REPLICA_LAST_WRITE.getAttributeName();
+        final HttpSession httpSession = req.getSession(false);
+        ReplicaLagGuard.openScope(httpSession == null ? null : (Long) httpSession.getAttribute(attributeName));
+        try {
+            chain.doFilter(req, res);
+        } finally {
+            final Long lastWriteMillis = ReplicaLagGuard.closeScope();
+            // session could be created or invalidated (ex. login, logout) while processing request
+            final HttpSession currentSession = req.getSession(false);
+            if (lastWriteMillis != null && currentSession != null) {
+                try {
+                    currentSession.setAttribute(attributeName, lastWriteMillis);
+                } catch (IllegalStateException ignored) {
+                }
+            }
+        }
+    }
+}
@@ -31,4 +31,5 @@ public interface RentService {
                                    InMemoryRentDataDto rentData, LoggedUserDataDto loggedUser, Long customerId);
     void persistNewRent(InMemoryRentDataDto rentData, LoggedUserDataDto loggedUser, WebServletRequest req);
     String generateIssuedIdentifier(Long customerId, Long employerId);
+    void warmUp();
 }
@@ -18,6 +18,7 @@ import pl.polsl.skirentalservice.core.servlet.WebServletRequest;
 import pl.polsl.skirentalservice.core.ssh.*;
 import pl.polsl.skirentalservice.dao.EmployerDao;
 import pl.polsl.skirentalservice.dao.OtaTokenDao;
+import pl.polsl.skirentalservice.dao.core.DaoInstrumentation;
 import pl.polsl.skirentalservice.dao.hibernate.EmployerDaoHib;
 import pl.polsl.skirentalservice.dao.hibernate.OtaTokenDaoHib;
 import pl.polsl.skirentalservice.dto.change_password.ChangeForgottenPasswordReqDto;
@@ -61,7 +62,7 @@ public class AuthServiceBean implements AuthService {
     @Override
     public LoggedUserDataDto loginUser(LoginFormReqDto reqDto) {
         return persistenceBean.startTransaction(session -> {
-            final EmployerDao employerDao = new EmployerDaoHib(session);
+            final EmployerDao employerDao = DaoInstrumentation.instrument(new EmployerDaoHib(session));
 
             final String password = employerDao
                 .findEmployerPassword(reqDto.getLoginOrEmail())
@@ -83,7 +84,7 @@ public class AuthServiceBean implements AuthService {
     @Override
     public void checkUserAndSendToken(RequestToChangePasswordReqDto reqDto, WebServletRequest req) {
         persistenceBean.startTransaction(session -> {
-            final EmployerDao employerDao = new EmployerDaoHib(session);
+            final EmployerDao employerDao = DaoInstrumentation.instrument(new EmployerDaoHib(session));
 
             final var employer = employerDao
                 .findEmployerDetails(reqDto.getLoginOrEmail())
@@ -121,8 +122,8 @@ public class AuthServiceBean implements AuthService {
     @Override
     public void changePassword(String token, ChangeForgottenPasswordReqDto reqDto, WebServletRequest req) {
         persistenceBean.startTransaction(session -> {
-            final OtaTokenDao otaTokenDao = new OtaTokenDaoHib(session);
-            final EmployerDao employerDao = new EmployerDaoHib(session);
+            final OtaTokenDao otaTokenDao = DaoInstrumentation.instrument(new OtaTokenDaoHib(session));
+            final EmployerDao employerDao = DaoInstrumentation.instrument(new EmployerDaoHib(session));
 
             final var details = otaTokenDao
                 .findTokenDetails(token)
@@ -139,7 +140,7 @@ public class AuthServiceBean implements AuthService {
     @Override
     public ChangePasswordEmployerDetailsDto getChangePasswordEmployerDetails(String token, WebServletRequest req) {
         return persistenceBean.startNonTransactQuery(session -> {
-            final OtaTokenDao otaTokenDao = new OtaTokenDaoHib(session);
+            final OtaTokenDao otaTokenDao = DaoInstrumentation.instrument(new OtaTokenDaoHib(session));
             return otaTokenDao
                 .findTokenRelatedToEmployer(token)
                 .orElseThrow(() -> new CredentialException.OtaTokenNotFoundException(req, token));
@@ -149,7 +150,7 @@ public class AuthServiceBean implements AuthService {
     @Override
     public void prepareEmployerAccount(FirstAccessReqDto reqDto, LoggedUserDataDto loggedUserDataDto) {
         persistenceBean.startTransaction(session -> {
-            final EmployerDao employerDao = new EmployerDaoHib(session);
+            final EmployerDao employerDao = DaoInstrumentation.instrument(new EmployerDaoHib(session));
             employerDao.updateEmployerFirstAccessPassword(Utils
                 .generateHash(reqDto.getPassword()), loggedUserDataDto.getId());
 
@@ -175,7 +176,7 @@ public class AuthServiceBean implements AuthService {
     @Override
     public boolean checkIfTokenIsExist(String token) {
         return persistenceBean.startNonTransactQuery(session -> {
-            final OtaTokenDao otaTokenDao = new OtaTokenDaoHib(session);
+            final OtaTokenDao otaTokenDao = DaoInstrumentation.instrument(new OtaTokenDaoHib(session));
             return otaTokenDao.checkIfTokenExist(token);
         });
     }
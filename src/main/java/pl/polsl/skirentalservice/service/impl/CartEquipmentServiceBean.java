@@ -9,6 +9,7 @@ import jakarta.inject.Inject;
 import lombok.extern.slf4j.Slf4j;
 import pl.polsl.skirentalservice.core.db.PersistenceBean;
 import pl.polsl.skirentalservice.dao.EquipmentDao;
+import pl.polsl.skirentalservice.dao.core.DaoInstrumentation;
 import pl.polsl.skirentalservice.dao.hibernate.EquipmentDaoHib;
 import pl.polsl.skirentalservice.dto.login.LoggedUserDataDto;
 import pl.polsl.skirentalservice.dto.rent.AddEditEquipmentCartReqDto;
@@ -40,7 +41,7 @@ public class CartEquipmentServiceBean implements CartEquipmentService {
         InMemoryRentDataDto rentData, LoggedUserDataDto loggedUser, Long equipmentId
     ) {
         persistenceBean.startNonTransactQuery(session -> {
-            final EquipmentDao equipmentDao = new EquipmentDaoHib(session);
+            final EquipmentDao equipmentDao = DaoInstrumentation.instrument(new EquipmentDaoHib(session));
             final var eqDetails = equipmentDao
                 .findEquipmentDetails(equipmentId)
                 .orElseThrow(() -> new NotFoundException.EquipmentNotFoundException(equipmentId));
@@ -65,7 +66,7 @@ public class CartEquipmentServiceBean implements CartEquipmentService {
         InMemoryRentDataDto rentData, LoggedUserDataDto loggedUser, Long equipmentId
     ) {
         persistenceBean.startNonTransactQuery(session -> {
-            final EquipmentDao equipmentDao = new EquipmentDaoHib(session);
+            final EquipmentDao equipmentDao = DaoInstrumentation.instrument(new EquipmentDaoHib(session));
 
             final var equipmentDetails = equipmentDao
                 .findEquipmentDetails(equipmentId)
@@ -94,7 +95,7 @@ public class CartEquipmentServiceBean implements CartEquipmentService {
     @Override
     public void deleteEquipmentFromCart(InMemoryRentDataDto rentData, Long equipmentId, LoggedUserDataDto loggedUser) {
         persistenceBean.startNonTransactQuery(session -> {
-            final EquipmentDao equipmentDao = new EquipmentDaoHib(session);
+            final EquipmentDao equipmentDao = DaoInstrumentation.instrument(new EquipmentDaoHib(session));
             if (!equipmentDao.checkIfEquipmentExist(equipmentId)) {
                 throw new NotFoundException.EquipmentNotFoundException(equipmentId);
             }
@@ -8,14 +8,18 @@ import jakarta.ejb.Stateless;
 import jakarta.inject.Inject;
 import lombok.extern.slf4j.Slf4j;
 import pl.polsl.skirentalservice.core.ModelMapperBean;
+import pl.polsl.skirentalservice.core.db.CountCacheBean;
+import pl.polsl.skirentalservice.core.db.CountCacheKey;
 import pl.polsl.skirentalservice.core.db.PersistenceBean;
 import pl.polsl.skirentalservice.core.servlet.WebServletRequest;
+import pl.polsl.skirentalservice.core.servlet.pageable.PageableRecords;
 import pl.polsl.skirentalservice.core.servlet.pageable.ServletPagination;
 import pl.polsl.skirentalservice.core.servlet.pageable.Slice;
 import pl.polsl.skirentalservice.dao.CustomerDao;
 import pl.polsl.skirentalservice.dao.EquipmentDao;
 import pl.polsl.skirentalservice.dao.RentDao;
 import pl.polsl.skirentalservice.dao.UserDetailsDao;
+import pl.polsl.skirentalservice.dao.core.DaoInstrumentation;
 import pl.polsl.skirentalservice.dao.hibernate.CustomerDaoHib;
 import pl.polsl.skirentalservice.dao.hibernate.EquipmentDaoHib;
 import pl.polsl.skirentalservice.dao.hibernate.RentDaoHib;
@@ -30,11 +34,10 @@ import pl.polsl.skirentalservice.entity.*;
 import pl.polsl.skirentalservice.exception.AlreadyExistException;
 import pl.polsl.skirentalservice.exception.NotFoundException;
 import pl.polsl.skirentalservice.service.CustomerService;
-import pl.polsl.skirentalservice.util.RentStatus;
 import pl.polsl.skirentalservice.util.SessionAttribute;
 import pl.polsl.skirentalservice.util.UserRole;
 
-import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 @Slf4j
@@ -42,38 +45,43 @@ import java.util.Objects;
 @SuppressWarnings("unused")
 public class CustomerServiceBean implements CustomerService {
     private final PersistenceBean persistenceBean;
+    private final CountCacheBean countCacheBean;
     private final ModelMapperBean modelMapperBean;
 
     @Inject
     public CustomerServiceBean(
         PersistenceBean persistenceBean,
+        CountCacheBean countCacheBean,
         ModelMapperBean modelMapperBean
     ) {
         this.persistenceBean = persistenceBean;
+        this.countCacheBean = countCacheBean;
         this.modelMapperBean = modelMapperBean;
     }
 
     @Override
     public Slice<CustomerRecordResDto> getPageableCustomers(PageableDto pageableDto, String addressColumn) {
         return persistenceBean.startNonTransactQuery(session -> {
-            final CustomerDao customerDao = new CustomerDaoHib(session);
-            final Long totalCustomers = customerDao.findAllCustomersCount(pageableDto.filterData());
+            final CustomerDao customerDao = DaoInstrumentation.instrument(new CustomerDaoHib(session));
+            final Long totalCustomers = countCacheBean.getTotalCount(session,
+                CountCacheKey.of(CustomerEntity.class, pageableDto.filterData()),
+                () -> customerDao.findAllCustomersCount(pageableDto.filterData()));
 
             final ServletPagination pagination = new ServletPagination(pageableDto.page(),
                 pageableDto.total(), totalCustomers);
             if (pagination.checkIfIsInvalid()) {
                 return new Slice<>(pagination);
             }
-            final List<CustomerRecordResDto> customersList = customerDao
+            final PageableRecords<CustomerRecordResDto> customersRecords = customerDao
                 .findAllPageableCustomers(pageableDto, addressColumn);
-            return new Slice<>(pagination, customersList);
+            return new Slice<>(pagination, customersRecords);
         });
     }
 
     @Override
     public AddEditCustomerReqDto getCustomerDetails(Long customerId) {
         return persistenceBean.startNonTransactQuery(session -> {
-            final CustomerDao customerDao = new CustomerDaoHib(session);
+            final CustomerDao customerDao = DaoInstrumentation.instrument(new CustomerDaoHib(session));
             return customerDao
                 .findCustomerEditPageDetails(customerId)
                 .orElseThrow(() -> new NotFoundException.UserNotFoundException(customerId));
@@ -83,7 +91,7 @@ public class CustomerServiceBean implements CustomerService {
     @Override
     public CustomerDetailsResDto getCustomerFullDetails(Long customerId) {
         return persistenceBean.startNonTransactQuery(session -> {
-            final CustomerDao customerDao = new CustomerDaoHib(session);
+            final CustomerDao customerDao = DaoInstrumentation.instrument(new CustomerDaoHib(session));
             return customerDao
                 .findCustomerDetails(customerId)
                 .orElseThrow(() -> new NotFoundException.UserNotFoundException(customerId));
@@ -93,7 +101,7 @@ public class CustomerServiceBean implements CustomerService {
     @Override
     public void createNewCustomer(AddEditCustomerReqDto reqDto, LoggedUserDataDto loggedUser) {
         persistenceBean.startTransaction(session -> {
-            final UserDetailsDao userDetailsDao = new UserDetailsDaoHib(session);
+            final UserDetailsDao userDetailsDao = DaoInstrumentation.instrument(new UserDetailsDaoHib(session));
 
             if (userDetailsDao.checkIfCustomerWithSamePeselExist(reqDto.getPesel(), null)) {
                 throw new AlreadyExistException.PeselAlreadyExistException(reqDto.getPesel(), UserRole.USER);
@@ -110,6 +118,7 @@ public class CustomerServiceBean implements CustomerService {
 
             session.persist(customer);
             session.getTransaction().commit();
+            countCacheBean.invalidate(CustomerEntity.class);
 
             log.info("Successfully added new customer by: {}. Customer data: {}", loggedUser.getLogin(), reqDto);
         });
@@ -118,7 +127,7 @@ public class CustomerServiceBean implements CustomerService {
     @Override
     public void editCustomerDetails(AddEditCustomerReqDto reqDto, Long customerId) {
         persistenceBean.startTransaction(session -> {
-            final UserDetailsDao userDetailsDao = new UserDetailsDaoHib(session);
+            final UserDetailsDao userDetailsDao = DaoInstrumentation.instrument(new UserDetailsDaoHib(session));
 
             final CustomerEntity updatableCustomer = session.get(CustomerEntity.class, customerId);
             if (updatableCustomer == null) {
@@ -137,6 +146,9 @@ public class CustomerServiceBean implements CustomerService {
             modelMapperBean.map(reqDto, updatableCustomer.getLocationAddress());
 
             session.getTransaction().commit();
+            // customer personal data are also searchable columns of rents and returns lists (also archived)
+            countCacheBean.invalidate(CustomerEntity.class, RentEntity.class, RentReturnEntity.class,
+                ArchivedRentEntity.class, ArchivedRentReturnEntity.class);
             log.info("Customer with id: {} was successfuly updated. Data: {}", customerId, reqDto);
         });
     }
@@ -144,9 +156,9 @@ public class CustomerServiceBean implements CustomerService {
     @Override
     public void deleteCustomer(Long customerId, WebServletRequest req) {
         persistenceBean.startTransaction(session -> {
-            final EquipmentDao equipmentDao = new EquipmentDaoHib(session);
-            final CustomerDao customerDao = new CustomerDaoHib(session);
-            final RentDao rentDao = new RentDaoHib(session);
+            final EquipmentDao equipmentDao = DaoInstrumentation.instrument(new EquipmentDaoHib(session));
+            final CustomerDao customerDao = DaoInstrumentation.instrument(new CustomerDaoHib(session));
+            final RentDao rentDao = DaoInstrumentation.instrument(new RentDaoHib(session));
 
             final CustomerEntity customerEntity = session.get(CustomerEntity.class, customerId);
             if (customerEntity == null) {
@@ -155,16 +167,9 @@ public class CustomerServiceBean implements CustomerService {
             if (customerDao.checkIfCustomerHasAnyActiveRents(customerId)) {
                 throw new AlreadyExistException.CustomerHasOpenedRentsException();
             }
-            for (final RentEntity rentEntity : rentDao.findAllRentsBaseCustomerId(customerId)) {
-                if (rentEntity.getStatus().equals(RentStatus.RENTED)) {
-                    for (final RentEquipmentEntity equipment : rentEntity.getEquipments()) {
-                        if (equipment.getEquipment() != null) {
-                            equipmentDao.increaseAvailableSelectedEquipmentCount(equipment.getEquipment().getId(),
-                                equipment.getCount());
-                        }
-                    }
-                }
-            }
+            // summed in database, historical rents and their lines are not loaded into session
+            final Map<Long, Integer> equipmentsCountDelta = rentDao.findAllRentedEquipmentsCountBaseCustomerId(customerId);
+            equipmentDao.updateAvailableEquipmentsCount(equipmentsCountDelta);
             session.remove(customerEntity);
             final InMemoryRentDataDto rentData = req
                 .getFromSession(SessionAttribute.IN_MEMORY_NEW_RENT_DATA, InMemoryRentDataDto.class);
@@ -172,6 +177,8 @@ public class CustomerServiceBean implements CustomerService {
                 req.deleteSessionAttribute(SessionAttribute.IN_MEMORY_NEW_RENT_DATA);
             }
             session.getTransaction().commit();
+            countCacheBean.invalidate(CustomerEntity.class, RentEntity.class, RentReturnEntity.class,
+                ArchivedRentEntity.class, ArchivedRentReturnEntity.class);
             log.info("Customer with id: {} was succesfuly removed from system.", customerId);
         });
     }
@@ -179,7 +186,7 @@ public class CustomerServiceBean implements CustomerService {
     @Override
     public boolean checkIfCustomerExist(Long customerId) {
         return persistenceBean.startNonTransactQuery(session -> {
-            final CustomerDao customerDao = new CustomerDaoHib(session);
+            final CustomerDao customerDao = DaoInstrumentation.instrument(new CustomerDaoHib(session));
             return customerDao.checkIfCustomerExist(customerId);
         });
     }
@@ -7,12 +7,16 @@ package pl.polsl.skirentalservice.service.impl;
 import jakarta.ejb.Stateless;
 import jakarta.inject.Inject;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.Session;
 import pl.polsl.skirentalservice.core.ValidatorBean;
+import pl.polsl.skirentalservice.core.db.CacheRegion;
 import pl.polsl.skirentalservice.core.db.PersistenceBean;
 import pl.polsl.skirentalservice.core.servlet.WebServletRequest;
 import pl.polsl.skirentalservice.dao.EquipmentBrandDao;
 import pl.polsl.skirentalservice.dao.EquipmentColorDao;
 import pl.polsl.skirentalservice.dao.EquipmentTypeDao;
+import pl.polsl.skirentalservice.dao.core.DaoInstrumentation;
 import pl.polsl.skirentalservice.dao.hibernate.EquipmentBrandDaoHib;
 import pl.polsl.skirentalservice.dao.hibernate.EquipmentColorDaoHib;
 import pl.polsl.skirentalservice.dao.hibernate.EquipmentTypeDaoHib;
@@ -49,9 +53,11 @@ public class EquipmentAttributeServiceBean implements EquipmentAttributeService
     @Override
     public Map<SessionAttribute, List<FormSelectTupleDto>> getMergedEquipmentAttributes() {
         return persistenceBean.startNonTransactQuery(session -> {
-            final EquipmentTypeDao equipmentTypeDao = new EquipmentTypeDaoHib(session);
-            final EquipmentBrandDao equipmentBrandDao = new EquipmentBrandDaoHib(session);
-            final EquipmentColorDao equipmentColorDao = new EquipmentColorDaoHib(session);
+            final EquipmentTypeDao equipmentTypeDao = DaoInstrumentation.instrument(new EquipmentTypeDaoHib(session));
+            final EquipmentBrandDao equipmentBrandDao = DaoInstrumentation
+                .instrument(new EquipmentBrandDaoHib(session));
+            final EquipmentColorDao equipmentColorDao = DaoInstrumentation
+                .instrument(new EquipmentColorDaoHib(session));
             return Map.of(
                 SessionAttribute.EQ_TYPES_MODAL_DATA, equipmentTypeDao.findAllEquipmentTypes(),
                 SessionAttribute.EQ_BRANDS_MODAL_DATA, equipmentBrandDao.findAllEquipmentBrands(),
@@ -63,13 +69,15 @@ public class EquipmentAttributeServiceBean implements EquipmentAttributeService
     @Override
     public void createNewEquipmentBrand(String brandName, LoggedUserDataDto loggedUser) {
         persistenceBean.startTransaction(session -> {
-            final EquipmentBrandDao equipmentDetailsDao = new EquipmentBrandDaoHib(session);
+            final EquipmentBrandDao equipmentDetailsDao = DaoInstrumentation
+                .instrument(new EquipmentBrandDaoHib(session));
             if (equipmentDetailsDao.checkIfEquipmentBrandExistByName(brandName)) {
                 throw new AlreadyExistException.EquipmentBrandAlreadyExistException();
             }
             final EquipmentBrandEntity brandEntity = new EquipmentBrandEntity(brandName);
             session.persist(brandEntity);
             session.getTransaction().commit();
+            evictDictionaryCache(session, EquipmentBrandEntity.class);
             log.info("Successful added new equipment brand by: {}. Brand: {}", loggedUser.getLogin(), brandName);
         });
     }
@@ -77,13 +85,15 @@ public class EquipmentAttributeServiceBean implements EquipmentAttributeService
     @Override
     public void createNewEquipmentColor(String colorName, LoggedUserDataDto loggedUser) {
         persistenceBean.startTransaction(session -> {
-            final EquipmentColorDao equipmentDetailsDao = new EquipmentColorDaoHib(session);
+            final EquipmentColorDao equipmentDetailsDao = DaoInstrumentation
+                .instrument(new EquipmentColorDaoHib(session));
             if (equipmentDetailsDao.checkIfEquipmentColorExistByName(colorName)) {
                 throw new AlreadyExistException.EquipmentColorAlreadyExistException();
             }
             final EquipmentColorEntity colorEntity = new EquipmentColorEntity(colorName);
             session.persist(colorEntity);
             session.getTransaction().commit();
+            evictDictionaryCache(session, EquipmentColorEntity.class);
             log.info("Successful added new equipment color by: {}. Color: {}", loggedUser.getLogin(), colorName);
         });
     }
@@ -91,7 +101,8 @@ public class EquipmentAttributeServiceBean implements EquipmentAttributeService
     @Override
     public void createNewEquipmentType(String typeName, LoggedUserDataDto loggedUser) {
         persistenceBean.startTransaction(session -> {
-            final EquipmentTypeDao equipmentDetailsDao = new EquipmentTypeDaoHib(session);
+            final EquipmentTypeDao equipmentDetailsDao = DaoInstrumentation
+                .instrument(new EquipmentTypeDaoHib(session));
 
             if (equipmentDetailsDao.checkIfEquipmentTypeExistByName(typeName)) {
                 throw new AlreadyExistException.EquipmentTypeAlreadyExistException();
@@ -99,6 +110,7 @@ public class EquipmentAttributeServiceBean implements EquipmentAttributeService
             final EquipmentTypeEntity typeEntity = new EquipmentTypeEntity(typeName);
             session.persist(typeEntity);
             session.getTransaction().commit();
+            evictDictionaryCache(session, EquipmentTypeEntity.class);
             log.info("Successful added new equipment type by: {}. Type: {}", loggedUser.getLogin(), typeName);
         });
     }
@@ -106,7 +118,8 @@ public class EquipmentAttributeServiceBean implements EquipmentAttributeService
     @Override
     public String deleteEquipmentBrand(Object brandId, LoggedUserDataDto loggedUser) {
         return persistenceBean.startTransaction(session -> {
-            final EquipmentBrandDao equipmentDetailsDao = new EquipmentBrandDaoHib(session);
+            final EquipmentBrandDao equipmentDetailsDao = DaoInstrumentation
+                .instrument(new EquipmentBrandDaoHib(session));
 
             final String deletedBrand = equipmentDetailsDao
                 .getEquipmentBrandNameById(brandId)
@@ -117,6 +130,7 @@ public class EquipmentAttributeServiceBean implements EquipmentAttributeService
             }
             equipmentDetailsDao.deleteEquipmentBrandById(brandId);
             session.getTransaction().commit();
+            evictDictionaryCache(session, EquipmentBrandEntity.class);
 
             log.info("Successful deleted equipment brand by: {}. Brand: {}", loggedUser.getLogin(), deletedBrand);
             return deletedBrand;
@@ -126,7 +140,8 @@ public class EquipmentAttributeServiceBean implements EquipmentAttributeService
     @Override
     public String deleteEquipmentColor(Object colorId, LoggedUserDataDto loggedUser) {
         return persistenceBean.startTransaction(session -> {
-            final EquipmentColorDao equipmentDetailsDao = new EquipmentColorDaoHib(session);
+            final EquipmentColorDao equipmentDetailsDao = DaoInstrumentation
+                .instrument(new EquipmentColorDaoHib(session));
 
             final String deletedColor = equipmentDetailsDao
                 .getEquipmentColorNameById(colorId)
@@ -137,6 +152,7 @@ public class EquipmentAttributeServiceBean implements EquipmentAttributeService
             }
             equipmentDetailsDao.deleteEquipmentColorById(colorId);
             session.getTransaction().commit();
+            evictDictionaryCache(session, EquipmentColorEntity.class);
 
             log.info("Successful deleted equipment color by: {}. Color: {}", loggedUser.getLogin(), deletedColor);
             return deletedColor;
@@ -146,7 +162,8 @@ public class EquipmentAttributeServiceBean implements EquipmentAttributeService
     @Override
     public String deleteEquipmentType(Object typeId, LoggedUserDataDto loggedUser) {
         return persistenceBean.startTransaction(session -> {
-            final EquipmentTypeDao equipmentDetailsDao = new EquipmentTypeDaoHib(session);
+            final EquipmentTypeDao equipmentDetailsDao = DaoInstrumentation
+                .instrument(new EquipmentTypeDaoHib(session));
 
             final String deletedType = equipmentDetailsDao
                 .getEquipmentTypeNameById(typeId)
@@ -157,6 +174,7 @@ public class EquipmentAttributeServiceBean implements EquipmentAttributeService
             }
             equipmentDetailsDao.deleteEquipmentTypeById(typeId);
             session.getTransaction().commit();
+            evictDictionaryCache(session, EquipmentTypeEntity.class);
 
             log.info("Successful deleted equipment type by: {}. Type: {}", loggedUser, deletedType);
             return deletedType;
@@ -177,4 +195,10 @@ public class EquipmentAttributeServiceBean implements EquipmentAttributeService
             .isInvalid(validatorBean.someFieldsAreInvalid(reqDto))
             .build();
     }
+
+    private void evictDictionaryCache(Session session, Class<?> dictionaryClazz) {
+        final Cache cache = session.getSessionFactory().getCache();
+        cache.evictEntityData(dictionaryClazz);
+        cache.evictQueryRegion(CacheRegion.DICTIONARY_QUERIES);
+    }
 }
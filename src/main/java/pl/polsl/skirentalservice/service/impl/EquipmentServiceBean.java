@@ -7,18 +7,18 @@ package pl.polsl.skirentalservice.service.impl;
 import jakarta.ejb.Stateless;
 import jakarta.inject.Inject;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.RandomStringUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.entity.ContentType;
-import org.krysalis.barcode4j.impl.upcean.EAN13Bean;
-import org.krysalis.barcode4j.output.bitmap.BitmapCanvasProvider;
 import pl.polsl.skirentalservice.core.ModelMapperBean;
+import pl.polsl.skirentalservice.core.barcode.BarcodePoolBean;
 import pl.polsl.skirentalservice.core.db.PersistenceBean;
+import pl.polsl.skirentalservice.core.s3.ObjectStorageBean;
 import pl.polsl.skirentalservice.core.s3.S3Bucket;
-import pl.polsl.skirentalservice.core.s3.S3ClientBean;
+import pl.polsl.skirentalservice.core.servlet.pageable.PageableRecords;
 import pl.polsl.skirentalservice.core.servlet.pageable.ServletPagination;
 import pl.polsl.skirentalservice.core.servlet.pageable.Slice;
 import pl.polsl.skirentalservice.dao.EquipmentDao;
+import pl.polsl.skirentalservice.dao.core.DaoInstrumentation;
 import pl.polsl.skirentalservice.dao.hibernate.EquipmentDaoHib;
 import pl.polsl.skirentalservice.dto.GeneratedBarcodeData;
 import pl.polsl.skirentalservice.dto.PageableDto;
@@ -34,12 +34,6 @@ import pl.polsl.skirentalservice.exception.AlreadyExistException;
 import pl.polsl.skirentalservice.exception.NotFoundException;
 import pl.polsl.skirentalservice.service.EquipmentService;
 
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.util.List;
 import java.util.concurrent.atomic.AtomicReference;
 
 @Slf4j
@@ -48,23 +42,26 @@ import java.util.concurrent.atomic.AtomicReference;
 public class EquipmentServiceBean implements EquipmentService {
     private final PersistenceBean persistenceBean;
     private final ModelMapperBean modelMapperBean;
-    private final S3ClientBean s3ClientBean;
+    private final ObjectStorageBean objectStorageBean;
+    private final BarcodePoolBean barcodePoolBean;
 
     @Inject
     public EquipmentServiceBean(
         PersistenceBean persistenceBean,
         ModelMapperBean modelMapperBean,
-        S3ClientBean s3ClientBean
+        ObjectStorageBean objectStorageBean,
+        BarcodePoolBean barcodePoolBean
     ) {
         this.persistenceBean = persistenceBean;
         this.modelMapperBean = modelMapperBean;
-        this.s3ClientBean = s3ClientBean;
+        this.objectStorageBean = objectStorageBean;
+        this.barcodePoolBean = barcodePoolBean;
     }
 
     @Override
     public Slice<EquipmentRecordResDto> getPageableEquipments(PageableDto pageableDto) {
         return persistenceBean.startNonTransactQuery(session -> {
-            final EquipmentDao equipmentDao = new EquipmentDaoHib(session);
+            final EquipmentDao equipmentDao = DaoInstrumentation.instrument(new EquipmentDaoHib(session));
             final Long totalEquipments = equipmentDao.findAllEquipmentsCount(pageableDto.filterData());
 
             final ServletPagination pagination = new ServletPagination(pageableDto.page(),
@@ -72,16 +69,16 @@ public class EquipmentServiceBean implements EquipmentService {
             if (pagination.checkIfIsInvalid()) {
                 return new Slice<>(pagination);
             }
-            final List<EquipmentRecordResDto> equipmentsList = equipmentDao
+            final PageableRecords<EquipmentRecordResDto> equipmentsRecords = equipmentDao
                 .findAllPageableEquipmentRecords(pageableDto);
-            return new Slice<>(pagination, equipmentsList);
+            return new Slice<>(pagination, equipmentsRecords);
         });
     }
 
     @Override
     public AddEditEquipmentReqDto getEquipmentDetails(Long equipmentId) {
         return persistenceBean.startNonTransactQuery(session -> {
-            final EquipmentDao equipmentDao = new EquipmentDaoHib(session);
+            final EquipmentDao equipmentDao = DaoInstrumentation.instrument(new EquipmentDaoHib(session));
             return equipmentDao
                 .findAddEditEquipmentDetails(equipmentId)
                 .orElseThrow(() -> new NotFoundException.EquipmentNotFoundException(equipmentId));
@@ -91,7 +88,7 @@ public class EquipmentServiceBean implements EquipmentService {
     @Override
     public EquipmentDetailsResDto getFullEquipmentDetails(Long equipmentId) {
         return persistenceBean.startNonTransactQuery(session -> {
-            final EquipmentDao equipmentDao = new EquipmentDaoHib(session);
+            final EquipmentDao equipmentDao = DaoInstrumentation.instrument(new EquipmentDaoHib(session));
             return equipmentDao
                 .findEquipmentDetailsPage(equipmentId)
                 .orElseThrow(() -> new NotFoundException.EquipmentNotFoundException(equipmentId));
@@ -101,7 +98,7 @@ public class EquipmentServiceBean implements EquipmentService {
     @Override
     public boolean checkIfEquipmentExist(Long equipmentId) {
         return persistenceBean.startNonTransactQuery(session -> {
-            final EquipmentDao equipmentDao = new EquipmentDaoHib(session);
+            final EquipmentDao equipmentDao = DaoInstrumentation.instrument(new EquipmentDaoHib(session));
             return equipmentDao.checkIfEquipmentExist(equipmentId);
         });
     }
@@ -110,7 +107,7 @@ public class EquipmentServiceBean implements EquipmentService {
     public void createNewEquipment(AddEditEquipmentReqDto reqDto, LoggedUserDataDto loggedUser) {
         final AtomicReference<String> barcodeKey = new AtomicReference<>(StringUtils.EMPTY);
         persistenceBean.startTransaction(session -> {
-            final EquipmentDao equipmentDao = new EquipmentDaoHib(session);
+            final EquipmentDao equipmentDao = DaoInstrumentation.instrument(new EquipmentDaoHib(session));
 
             if (equipmentDao.checkIfEquipmentModelExist(reqDto.getModel(), null)) {
                 throw new AlreadyExistException.EquipmentAlreadyExistException();
@@ -121,18 +118,13 @@ public class EquipmentServiceBean implements EquipmentService {
             persistNewEquipment.setColor(session.get(EquipmentColorEntity.class, reqDto.getColor()));
             persistNewEquipment.setAvailableCount(Integer.parseInt(reqDto.getCountInStore()));
 
-            final GeneratedBarcodeData generatedBarCode = generateEquipmentBarCode(equipmentDao);
+            final GeneratedBarcodeData generatedBarCode = barcodePoolBean.takeBarcode();
 
             final String fileName = generatedBarCode.codeKey() + ".png";
             final byte[] data = generatedBarCode.data();
             barcodeKey.set(fileName);
 
-            try (final ByteArrayInputStream inputStream = new ByteArrayInputStream(data)) {
-                s3ClientBean.putObject(S3Bucket.BARCODES, fileName, inputStream,
-                    ContentType.IMAGE_PNG, data.length);
-            } catch (IOException ex) {
-                throw new RuntimeException(ex.getMessage());
-            }
+            objectStorageBean.putObject(S3Bucket.BARCODES, fileName, data, ContentType.IMAGE_PNG);
             persistNewEquipment.setBarcode(generatedBarCode.codeKey());
 
             session.persist(persistNewEquipment);
@@ -143,7 +135,7 @@ public class EquipmentServiceBean implements EquipmentService {
         }, () -> {
             final String barcodeKeyValue = barcodeKey.get();
             if (!barcodeKeyValue.equals(StringUtils.EMPTY)) {
-                s3ClientBean.deleteObject(S3Bucket.BARCODES, barcodeKeyValue);
+                objectStorageBean.deleteObject(S3Bucket.BARCODES, barcodeKeyValue);
             }
         });
     }
@@ -151,7 +143,7 @@ public class EquipmentServiceBean implements EquipmentService {
     @Override
     public void editEquipment(Long equipmentId, AddEditEquipmentReqDto reqDto, LoggedUserDataDto loggedUser) {
         persistenceBean.startTransaction(session -> {
-            final EquipmentDao equipmentDao = new EquipmentDaoHib(session);
+            final EquipmentDao equipmentDao = DaoInstrumentation.instrument(new EquipmentDaoHib(session));
 
             final EquipmentEntity equipmentEntity = session.get(EquipmentEntity.class, equipmentId);
             if (equipmentEntity == null) {
@@ -176,7 +168,7 @@ public class EquipmentServiceBean implements EquipmentService {
     @Override
     public void deleteEquipment(Long equipmentId, LoggedUserDataDto loggedUser) {
         persistenceBean.startTransaction(session -> {
-            final EquipmentDao equipmentDao = new EquipmentDaoHib(session);
+            final EquipmentDao equipmentDao = DaoInstrumentation.instrument(new EquipmentDaoHib(session));
 
             if (equipmentDao.checkIfEquipmentHasOpenedRents(equipmentId)) {
                 throw new AlreadyExistException.EquipmenHasOpenedRentsException();
@@ -186,47 +178,11 @@ public class EquipmentServiceBean implements EquipmentService {
                 throw new NotFoundException.EquipmentNotFoundException(equipmentId);
             }
             session.remove(equipmentEntity);
-            s3ClientBean.deleteObject(S3Bucket.BARCODES, equipmentEntity.getBarcode() + ".png");
+            objectStorageBean.deleteObject(S3Bucket.BARCODES, equipmentEntity.getBarcode() + ".png");
 
             session.getTransaction().commit();
             log.info("Equipment with id: {} was succesfuly removed from system by {}.", equipmentId,
                 loggedUser.getLogin());
         });
     }
-
-    private GeneratedBarcodeData generateEquipmentBarCode(EquipmentDao equipmentDao) {
-        byte[] outputByteData;
-        boolean barcodeExist;
-        String generatedBarcode;
-        do {
-            generatedBarcode = getBarcodeChecksum(RandomStringUtils.randomNumeric(12));
-            barcodeExist = equipmentDao.checkIfBarCodeExist(generatedBarcode);
-        } while (barcodeExist);
-        try {
-            final EAN13Bean barcodeGenerator = new EAN13Bean();
-            final var canvas = new BitmapCanvasProvider(250, BufferedImage.TYPE_BYTE_BINARY, true, 0);
-            barcodeGenerator.generateBarcode(canvas, generatedBarcode);
-            final BufferedImage barcodeBufferedImage = canvas.getBufferedImage();
-
-            final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            ImageIO.write(barcodeBufferedImage, "png", outputStream);
-
-            outputByteData = outputStream.toByteArray();
-            outputStream.close();
-        } catch (IOException ex) {
-            throw new RuntimeException(ex.getMessage());
-        }
-        return new GeneratedBarcodeData(generatedBarcode, outputByteData);
-    }
-
-    private String getBarcodeChecksum(String barcode) {
-        int result = 0;
-        for (int i = 0; i < barcode.length(); i++) {
-            int barSign = Character.getNumericValue(barcode.charAt(i));
-            result += barSign * (i % 2 == 0 ? 1 : 3);
-        }
-        result = (10 - result % 10) % 10;
-        barcode += result;
-        return barcode;
-    }
 }
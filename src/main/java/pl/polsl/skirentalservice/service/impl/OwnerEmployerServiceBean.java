@@ -12,11 +12,13 @@ import org.apache.commons.lang3.StringUtils;
 import pl.polsl.skirentalservice.core.ModelMapperBean;
 import pl.polsl.skirentalservice.core.ServerConfigBean;
 import pl.polsl.skirentalservice.core.ValidatorBean;
+import pl.polsl.skirentalservice.core.db.CountCacheBean;
 import pl.polsl.skirentalservice.core.db.PersistenceBean;
 import pl.polsl.skirentalservice.core.mail.MailRequestPayload;
 import pl.polsl.skirentalservice.core.mail.MailServiceBean;
 import pl.polsl.skirentalservice.core.mail.MailTemplate;
 import pl.polsl.skirentalservice.core.servlet.WebServletRequest;
+import pl.polsl.skirentalservice.core.servlet.pageable.PageableRecords;
 import pl.polsl.skirentalservice.core.servlet.pageable.ServletPagination;
 import pl.polsl.skirentalservice.core.servlet.pageable.Slice;
 import pl.polsl.skirentalservice.core.ssh.CommandPerformException;
@@ -25,22 +27,19 @@ import pl.polsl.skirentalservice.core.ssh.SshSocketBean;
 import pl.polsl.skirentalservice.core.ssh.XMLSshCommands;
 import pl.polsl.skirentalservice.dao.EmployerDao;
 import pl.polsl.skirentalservice.dao.UserDetailsDao;
+import pl.polsl.skirentalservice.dao.core.DaoInstrumentation;
 import pl.polsl.skirentalservice.dao.hibernate.EmployerDaoHib;
 import pl.polsl.skirentalservice.dao.hibernate.UserDetailsDaoHib;
 import pl.polsl.skirentalservice.dto.PageableDto;
 import pl.polsl.skirentalservice.dto.employer.*;
 import pl.polsl.skirentalservice.dto.login.LoggedUserDataDto;
-import pl.polsl.skirentalservice.entity.EmployerEntity;
-import pl.polsl.skirentalservice.entity.LocationAddressEntity;
-import pl.polsl.skirentalservice.entity.RoleEntity;
-import pl.polsl.skirentalservice.entity.UserDetailsEntity;
+import pl.polsl.skirentalservice.entity.*;
 import pl.polsl.skirentalservice.exception.AlreadyExistException;
 import pl.polsl.skirentalservice.exception.NotFoundException;
 import pl.polsl.skirentalservice.service.OwnerEmployerService;
 import pl.polsl.skirentalservice.util.UserRole;
 import pl.polsl.skirentalservice.util.Utils;
 
-import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicReference;
@@ -55,6 +54,7 @@ public class OwnerEmployerServiceBean implements OwnerEmployerService {
     private final ServerConfigBean serverConfigBean;
     private final SshSocketBean sshSocketBean;
     private final ValidatorBean validatorBean;
+    private final CountCacheBean countCacheBean;
 
     @Inject
     public OwnerEmployerServiceBean(
@@ -63,7 +63,8 @@ public class OwnerEmployerServiceBean implements OwnerEmployerService {
         ModelMapperBean modelMapperBean,
         ServerConfigBean serverConfigBean,
         SshSocketBean sshSocketBean,
-        ValidatorBean validatorBean
+        ValidatorBean validatorBean,
+        CountCacheBean countCacheBean
     ) {
         this.persistenceBean = persistenceBean;
         this.mailServiceBean = mailServiceBean;
@@ -71,12 +72,13 @@ public class OwnerEmployerServiceBean implements OwnerEmployerService {
         this.serverConfigBean = serverConfigBean;
         this.sshSocketBean = sshSocketBean;
         this.validatorBean = validatorBean;
+        this.countCacheBean = countCacheBean;
     }
 
     @Override
     public Slice<EmployerRecordResDto> getPageableEmployers(PageableDto pageableDto) {
         return persistenceBean.startNonTransactQuery(session -> {
-            final EmployerDao employerDao = new EmployerDaoHib(session);
+            final EmployerDao employerDao = DaoInstrumentation.instrument(new EmployerDaoHib(session));
             final Long totalEmployers = employerDao.findAllEmployersCount(pageableDto.filterData());
 
             final ServletPagination pagination = new ServletPagination(pageableDto.page(),
@@ -84,16 +86,16 @@ public class OwnerEmployerServiceBean implements OwnerEmployerService {
             if (pagination.checkIfIsInvalid()) {
                 return new Slice<>(pagination);
             }
-            final List<EmployerRecordResDto> employersList = employerDao
+            final PageableRecords<EmployerRecordResDto> employersRecords = employerDao
                 .findAllPageableEmployersRecords(pageableDto);
-            return new Slice<>(pagination, employersList);
+            return new Slice<>(pagination, employersRecords);
         });
     }
 
     @Override
     public AddEditEmployerResDto getEmployerOrOwnerEditDetails(Long employerId) {
         return persistenceBean.startNonTransactQuery(session -> {
-            final EmployerDao employerDao = new EmployerDaoHib(session);
+            final EmployerDao employerDao = DaoInstrumentation.instrument(new EmployerDaoHib(session));
             final AddEditEmployerReqDto addEditEmployerReqDto = employerDao
                 .findEmployerEditPageDetails(employerId)
                 .orElseThrow(() -> new NotFoundException.UserNotFoundException(employerId));
@@ -104,7 +106,7 @@ public class OwnerEmployerServiceBean implements OwnerEmployerService {
     @Override
     public EmployerDetailsResDto getEmployerFullDetails(Long employerId) {
         return persistenceBean.startNonTransactQuery(session -> {
-            final EmployerDao employerDao = new EmployerDaoHib(session);
+            final EmployerDao employerDao = DaoInstrumentation.instrument(new EmployerDaoHib(session));
             return employerDao
                 .findEmployerPageDetails(employerId)
                 .orElseThrow(() -> new NotFoundException.UserNotFoundException(employerId));
@@ -117,8 +119,8 @@ public class OwnerEmployerServiceBean implements OwnerEmployerService {
     ) {
         final AtomicReference<String> email = new AtomicReference<>(StringUtils.EMPTY);
         return persistenceBean.startTransaction(session -> {
-            final EmployerDao employerDao = new EmployerDaoHib(session);
-            final UserDetailsDao userDetailsDao = new UserDetailsDaoHib(session);
+            final EmployerDao employerDao = DaoInstrumentation.instrument(new EmployerDaoHib(session));
+            final UserDetailsDao userDetailsDao = DaoInstrumentation.instrument(new UserDetailsDaoHib(session));
 
             if (userDetailsDao.checkIfEmployerWithSamePeselExist(reqDto.getPesel(), null)) {
                 throw new AlreadyExistException.PeselAlreadyExistException(reqDto.getPesel(), UserRole.SELLER);
@@ -158,7 +160,7 @@ public class OwnerEmployerServiceBean implements OwnerEmployerService {
     @Override
     public void editUserAccount(Long userId, AddEditEmployerReqDto reqDto, UserRole role) {
         persistenceBean.startTransaction(session -> {
-            final UserDetailsDao userDetailsDao = new UserDetailsDaoHib(session);
+            final UserDetailsDao userDetailsDao = DaoInstrumentation.instrument(new UserDetailsDaoHib(session));
             final String roleName = StringUtils.capitalize(role.getEng());
 
             final EmployerEntity updatableUser = session.get(EmployerEntity.class, userId);
@@ -178,6 +180,9 @@ public class OwnerEmployerServiceBean implements OwnerEmployerService {
             modelMapperBean.map(reqDto, updatableUser);
 
             session.getTransaction().commit();
+            // employer personal data are also searchable columns of rents and returns lists (also archived)
+            countCacheBean.invalidate(RentEntity.class, RentReturnEntity.class, ArchivedRentEntity.class,
+                ArchivedRentReturnEntity.class);
             log.info("{} with id: {} was successfuly updated. Data: {}", roleName, userId, reqDto);
         });
     }
@@ -185,7 +190,7 @@ public class OwnerEmployerServiceBean implements OwnerEmployerService {
     @Override
     public void deleteEmployer(Long employerId) {
         persistenceBean.startTransaction(session -> {
-            final EmployerDao employerDao = new EmployerDaoHib(session);
+            final EmployerDao employerDao = DaoInstrumentation.instrument(new EmployerDaoHib(session));
 
             final EmployerEntity deletingEmployer = employerDao
                 .findEmployerBasedId(employerId)
@@ -199,6 +204,8 @@ public class OwnerEmployerServiceBean implements OwnerEmployerService {
             deleteEmployerMailbox(employerEmail);
 
             session.getTransaction().commit();
+            countCacheBean.invalidate(RentEntity.class, RentReturnEntity.class, ArchivedRentEntity.class,
+                ArchivedRentReturnEntity.class);
             log.info("Employer with id: {} was succesfuly removed from system.", employerId);
         });
     }
@@ -206,7 +213,7 @@ public class OwnerEmployerServiceBean implements OwnerEmployerService {
     @Override
     public boolean checkIfEmployerExist(Long employerId) {
         return persistenceBean.startNonTransactQuery(session -> {
-            final EmployerDao employerDao = new EmployerDaoHib(session);
+            final EmployerDao employerDao = DaoInstrumentation.instrument(new EmployerDaoHib(session));
             return employerDao.checkIfEmployerExist(employerId);
         });
     }
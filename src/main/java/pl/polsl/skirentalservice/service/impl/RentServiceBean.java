@@ -7,24 +7,29 @@ package pl.polsl.skirentalservice.service.impl;
 import jakarta.ejb.Stateless;
 import jakarta.inject.Inject;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.RandomStringUtils;
-import org.apache.commons.lang3.StringUtils;
 import org.hibernate.Session;
 import pl.polsl.skirentalservice.core.ModelMapperBean;
+import pl.polsl.skirentalservice.core.db.AfterCommit;
+import pl.polsl.skirentalservice.core.db.CountCacheBean;
+import pl.polsl.skirentalservice.core.db.CountCacheKey;
+import pl.polsl.skirentalservice.core.db.CounterAllocatorBean;
 import pl.polsl.skirentalservice.core.db.PersistenceBean;
 import pl.polsl.skirentalservice.core.mail.Attachment;
 import pl.polsl.skirentalservice.core.mail.MailRequestPayload;
 import pl.polsl.skirentalservice.core.mail.MailServiceBean;
 import pl.polsl.skirentalservice.core.mail.MailTemplate;
+import pl.polsl.skirentalservice.core.s3.PendingUploadBean;
 import pl.polsl.skirentalservice.core.s3.S3Bucket;
-import pl.polsl.skirentalservice.core.s3.S3ClientBean;
 import pl.polsl.skirentalservice.core.servlet.WebServletRequest;
+import pl.polsl.skirentalservice.core.servlet.pageable.PageableRecords;
 import pl.polsl.skirentalservice.core.servlet.pageable.ServletPagination;
 import pl.polsl.skirentalservice.core.servlet.pageable.Slice;
 import pl.polsl.skirentalservice.dao.CustomerDao;
 import pl.polsl.skirentalservice.dao.EmployerDao;
 import pl.polsl.skirentalservice.dao.EquipmentDao;
 import pl.polsl.skirentalservice.dao.RentDao;
+import pl.polsl.skirentalservice.dao.core.ArchiveScope;
+import pl.polsl.skirentalservice.dao.core.DaoInstrumentation;
 import pl.polsl.skirentalservice.dao.hibernate.CustomerDaoHib;
 import pl.polsl.skirentalservice.dao.hibernate.EmployerDaoHib;
 import pl.polsl.skirentalservice.dao.hibernate.EquipmentDaoHib;
@@ -45,32 +50,40 @@ import pl.polsl.skirentalservice.pdf.dto.PdfDocumentData;
 import pl.polsl.skirentalservice.service.RentService;
 import pl.polsl.skirentalservice.util.CurrencyUtils;
 import pl.polsl.skirentalservice.util.DateUtils;
+import pl.polsl.skirentalservice.util.Gender;
 import pl.polsl.skirentalservice.util.RentStatus;
 import pl.polsl.skirentalservice.util.UserRole;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicReference;
 
 @Slf4j
 @Stateless
 @SuppressWarnings("unused")
 public class RentServiceBean implements RentService {
+    private static final Long WARM_UP_ID = -1L;
+
     private final PersistenceBean persistenceBean;
-    private final S3ClientBean s3ClientBean;
+    private final CountCacheBean countCacheBean;
+    private final CounterAllocatorBean counterAllocatorBean;
+    private final PendingUploadBean pendingUploadBean;
     private final ModelMapperBean modelMapperBean;
     private final MailServiceBean mailServiceBean;
 
     @Inject
     public RentServiceBean(
         PersistenceBean persistenceBean,
-        S3ClientBean s3ClientBean,
+        CountCacheBean countCacheBean,
+        CounterAllocatorBean counterAllocatorBean,
+        PendingUploadBean pendingUploadBean,
         ModelMapperBean modelMapperBean,
         MailServiceBean mailServiceBean
     ) {
         this.persistenceBean = persistenceBean;
-        this.s3ClientBean = s3ClientBean;
+        this.countCacheBean = countCacheBean;
+        this.counterAllocatorBean = counterAllocatorBean;
+        this.pendingUploadBean = pendingUploadBean;
         this.modelMapperBean = modelMapperBean;
         this.mailServiceBean = mailServiceBean;
     }
@@ -78,41 +91,55 @@ public class RentServiceBean implements RentService {
     @Override
     public Slice<OwnerRentRecordResDto> getPageableOwnerRents(PageableDto pageableDto) {
         return persistenceBean.startNonTransactQuery(session -> {
-            final RentDao rentDao = new RentDaoHib(session);
-            final Long totalRents = rentDao.findAllRentsCount(pageableDto.filterData());
+            final ArchiveScope scope = ArchiveScope.of(pageableDto.filterData());
+            final RentDao rentDao = DaoInstrumentation.instrument(new RentDaoHib(session, scope));
+            long totalRents = 0;
+            for (final ArchiveScope countedScope : scope.getCountedScopes()) {
+                final RentDao countedRentDao = DaoInstrumentation.instrument(new RentDaoHib(session, countedScope));
+                totalRents += countCacheBean.getTotalCount(session, CountCacheKey.of(
+                    countedScope.getEntityClazz(RentEntity.class), pageableDto.filterData()),
+                    () -> countedRentDao.findAllRentsCount(pageableDto.filterData()));
+            }
 
             final ServletPagination pagination = new ServletPagination(pageableDto.page(),
                 pageableDto.total(), totalRents);
             if (pagination.checkIfIsInvalid()) {
                 return new Slice<>(pagination);
             }
-            final List<OwnerRentRecordResDto> rentsList = rentDao.findAllPageableRents(pageableDto);
-            return new Slice<>(pagination, rentsList);
+            final PageableRecords<OwnerRentRecordResDto> rentsRecords = rentDao.findAllPageableRents(pageableDto);
+            return new Slice<>(pagination, rentsRecords);
         });
     }
 
     @Override
     public Slice<SellerRentRecordResDto> getPageableEmployerRents(PageableDto pageableDto, Long employerId) {
         return persistenceBean.startNonTransactQuery(session -> {
-            final RentDao rentDao = new RentDaoHib(session);
-            final Long totalRents = rentDao.findAllRentsFromEmployerCount(pageableDto.filterData(), employerId);
+            final ArchiveScope scope = ArchiveScope.of(pageableDto.filterData());
+            final RentDao rentDao = DaoInstrumentation.instrument(new RentDaoHib(session, scope));
+            long totalRents = 0;
+            for (final ArchiveScope countedScope : scope.getCountedScopes()) {
+                final RentDao countedRentDao = DaoInstrumentation.instrument(new RentDaoHib(session, countedScope));
+                totalRents += countCacheBean.getTotalCount(session, CountCacheKey.of(
+                    countedScope.getEntityClazz(RentEntity.class), pageableDto.filterData(), employerId),
+                    () -> countedRentDao.findAllRentsFromEmployerCount(pageableDto.filterData(), employerId));
+            }
 
             final ServletPagination pagination = new ServletPagination(pageableDto.page(),
                 pageableDto.total(), totalRents);
             if (pagination.checkIfIsInvalid()) {
                 return new Slice<>(pagination);
             }
-            final List<SellerRentRecordResDto> rentsList = rentDao.findAllPageableRentsFromEmployer(
+            final PageableRecords<SellerRentRecordResDto> rentsRecords = rentDao.findAllPageableRentsFromEmployer(
                 pageableDto, employerId);
 
-            return new Slice<>(pagination, rentsList);
+            return new Slice<>(pagination, rentsRecords);
         });
     }
 
     @Override
     public Slice<EquipmentRentRecordResDto> getPageableRentEquipments(PageableDto pageableDto) {
         return persistenceBean.startNonTransactQuery(session -> {
-            final EquipmentDao equipmentDao = new EquipmentDaoHib(session);
+            final EquipmentDao equipmentDao = DaoInstrumentation.instrument(new EquipmentDaoHib(session));
             final Long totalEquipments = equipmentDao.findAllEquipmentsCount(pageableDto.filterData());
 
             final ServletPagination pagination = new ServletPagination(pageableDto.page(),
@@ -120,25 +147,31 @@ public class RentServiceBean implements RentService {
             if (pagination.checkIfIsInvalid()) {
                 return new Slice<>(pagination);
             }
-            final List<EquipmentRentRecordResDto> equipmentsList = equipmentDao
+            final PageableRecords<EquipmentRentRecordResDto> equipmentsRecords = equipmentDao
                 .findAllPageableEquipments(pageableDto)
-                .stream()
-                .filter(l -> l.getTotalCount() > 0)
-                .toList();
-            return new Slice<>(pagination, equipmentsList);
+                .filter(l -> l.getTotalCount() > 0);
+            return new Slice<>(pagination, equipmentsRecords);
         });
     }
 
     @Override
     public MultipleEquipmentsDataDto<RentDetailsResDto> getRentDetails(Long rentId, LoggedUserDataDto loggedUser) {
         return persistenceBean.startNonTransactQuery(session -> {
-            final RentDao rentDao = new RentDaoHib(session);
-            final EquipmentDao equipmentDao = new EquipmentDaoHib(session);
-
-            final RentDetailsResDto rentDetails = rentDao
-                .findRentDetails(rentId, loggedUser.getId(), String.valueOf(loggedUser.getRoleAlias()))
+            final String roleAlias = String.valueOf(loggedUser.getRoleAlias());
+            // archive is searched only for rent not found in hot tables
+            ArchiveScope scope = ArchiveScope.HOT;
+            RentDao rentDao = DaoInstrumentation.instrument(new RentDaoHib(session, scope));
+            Optional<RentDetailsResDto> foundRentDetails = rentDao
+                .findRentDetails(rentId, loggedUser.getId(), roleAlias);
+            if (foundRentDetails.isEmpty()) {
+                scope = ArchiveScope.ARCHIVE;
+                rentDao = DaoInstrumentation.instrument(new RentDaoHib(session, scope));
+                foundRentDetails = rentDao.findRentDetails(rentId, loggedUser.getId(), roleAlias);
+            }
+            final RentDetailsResDto rentDetails = foundRentDetails
                 .orElseThrow(NotFoundException.RentNotFoundException::new);
 
+            final EquipmentDao equipmentDao = DaoInstrumentation.instrument(new EquipmentDaoHib(session, scope));
             final List<RentEquipmentsDetailsResDto> allRentEquipments = equipmentDao
                 .findAllEquipmentsConnectedWithRent(rentId);
 
@@ -196,13 +229,12 @@ public class RentServiceBean implements RentService {
     @Override
     public String deleteRent(Long rentId, LoggedUserDataDto loggedUser) {
         return persistenceBean.startTransaction(session -> {
-            final EquipmentDao equipmentDao = new EquipmentDaoHib(session);
-            final CustomerDao customerDao = new CustomerDaoHib(session);
+            final EquipmentDao equipmentDao = DaoInstrumentation.instrument(new EquipmentDaoHib(session));
+            final RentDao rentDao = DaoInstrumentation.instrument(new RentDaoHib(session));
 
-            final RentEntity rentEntity = session.getReference(RentEntity.class, rentId);
-            if (rentEntity == null) {
-                throw new NotFoundException.RentNotFoundException();
-            }
+            final RentEntity rentEntity = rentDao
+                .findRentWithEquipments(rentId)
+                .orElseThrow(NotFoundException.RentNotFoundException::new);
             final String rentIdentifier = rentEntity.getIssuedIdentifier();
 
             if (rentEntity.getStatus().equals(RentStatus.RETURNED)) {
@@ -210,15 +242,19 @@ public class RentServiceBean implements RentService {
             }
             session.remove(rentEntity);
 
+            final Map<Long, Integer> equipmentsCountDelta = new HashMap<>();
             for (final RentEquipmentEntity equipment : rentEntity.getEquipments()) {
                 if (equipment.getEquipment() != null && rentEntity.getCustomer() != null) {
-                    equipmentDao.increaseAvailableSelectedEquipmentCount(equipment.getEquipment().getId(),
-                        equipment.getCount());
+                    equipmentsCountDelta.merge(equipment.getEquipment().getId(), equipment.getCount(), Integer::sum);
                 }
             }
-            s3ClientBean.deleteObject(S3Bucket.RENTS, rentEntity.getIssuedIdentifier().replaceAll("/", "-") + ".pdf");
+            equipmentDao.updateAvailableEquipmentsCount(equipmentsCountDelta);
+            final String fileName = rentEntity.getIssuedIdentifier().replaceAll("/", "-") + ".pdf";
+            // document is deleted from storage after commit, so rollback not lose document of existing rent
+            pendingUploadBean.remove(session, S3Bucket.RENTS, fileName);
 
             session.getTransaction().commit();
+            countCacheBean.invalidate(RentEntity.class);
 
             log.info("Rent with id: {} was succesfuly removed from system by {}. Rent data: {}", rentId,
                 loggedUser.getLogin(), rentEntity);
@@ -229,26 +265,31 @@ public class RentServiceBean implements RentService {
     @Override
     public boolean checkIfRentExist(Long rentId) {
         return persistenceBean.startNonTransactQuery(session -> {
-            final RentDao rentDao = new RentDaoHib(session);
-            return rentDao.checkIfRentExist(rentId);
+            final RentDao rentDao = DaoInstrumentation.instrument(new RentDaoHib(session));
+            final RentDao archivedRentDao = DaoInstrumentation
+                .instrument(new RentDaoHib(session, ArchiveScope.ARCHIVE));
+            return rentDao.checkIfRentExist(rentId) || archivedRentDao.checkIfRentExist(rentId);
         });
     }
 
     @Override
     public boolean checkIfRentIsFromEmployer(Long rentId, Long employerId) {
         return persistenceBean.startNonTransactQuery(session -> {
-            final RentDao rentDao = new RentDaoHib(session);
-            return rentDao.checkIfRentIsFromEmployer(rentId, employerId);
+            final RentDao rentDao = DaoInstrumentation.instrument(new RentDaoHib(session));
+            final RentDao archivedRentDao = DaoInstrumentation
+                .instrument(new RentDaoHib(session, ArchiveScope.ARCHIVE));
+            return rentDao.checkIfRentIsFromEmployer(rentId, employerId)
+                || archivedRentDao.checkIfRentIsFromEmployer(rentId, employerId);
         });
     }
 
     @Override
     public UpdatedInMemoryRentData updateAndGetInMemoryRentData(Long customerId, LoggedUserDataDto loggedUser) {
         return persistenceBean.startNonTransactQuery(session -> {
-            final CustomerDao customerDao = new CustomerDaoHib(session);
-            final EmployerDao employerDao = new EmployerDaoHib(session);
-            final EquipmentDao equipmentDao = new EquipmentDaoHib(session);
-            final RentDao rentDao = new RentDaoHib(session);
+            final CustomerDao customerDao = DaoInstrumentation.instrument(new CustomerDaoHib(session));
+            final EmployerDao employerDao = DaoInstrumentation.instrument(new EmployerDaoHib(session));
+            final EquipmentDao equipmentDao = DaoInstrumentation.instrument(new EquipmentDaoHib(session));
+            final RentDao rentDao = DaoInstrumentation.instrument(new RentDaoHib(session));
 
             final Long isSomeEquipmentsAvaialble = equipmentDao.getCountIfSomeEquipmentsAreAvailable();
             if (isSomeEquipmentsAvaialble == null || isSomeEquipmentsAvaialble < 0) {
@@ -294,10 +335,9 @@ public class RentServiceBean implements RentService {
 
     @Override
     public void persistNewRent(InMemoryRentDataDto rentData, LoggedUserDataDto loggedUser, WebServletRequest req) {
-        final AtomicReference<String> generatedFileKey = new AtomicReference<>(StringUtils.EMPTY);
         persistenceBean.startTransaction(session -> {
-            final EmployerDao employerDao = new EmployerDaoHib(session);
-            final EquipmentDao equipmentDao = new EquipmentDaoHib(session);
+            final EmployerDao employerDao = DaoInstrumentation.instrument(new EmployerDaoHib(session));
+            final EquipmentDao equipmentDao = DaoInstrumentation.instrument(new EquipmentDaoHib(session));
 
             final RentEntity rent = modelMapperBean.map(rentData, RentEntity.class);
             final RentStatus status = rentData.getParsedRentDateTime().isAfter(LocalDateTime.now())
@@ -316,48 +356,66 @@ public class RentServiceBean implements RentService {
 
             final RentEmailPayloadDataDto emailPayload = generateEmailPayload(rentData);
             final Attachment pdfReturnDocument = generatePdfReturnDocument(rentData);
-            s3ClientBean.putObject(S3Bucket.RENTS, pdfReturnDocument);
-            generatedFileKey.set(pdfReturnDocument.name());
+            // document is uploaded after commit, so rollback not leave orphaned object in bucket
+            pendingUploadBean.enqueue(session, S3Bucket.RENTS, pdfReturnDocument);
 
-            sendRentEmailMessages(session, emailPayload, rentData, req, pdfReturnDocument, loggedUser);
+            final List<OwnerMailPayloadDto> owners = employerDao.findAllEmployersMailSenders();
+            // messages are sent after commit, so slow SMTP server not hold locks of rented equipments
+            AfterCommit.run(session, () -> sendRentEmailMessages(owners, emailPayload, rentData, req,
+                pdfReturnDocument, loggedUser));
 
             session.getTransaction().commit();
+            countCacheBean.invalidate(RentEntity.class);
             log.info("Successfuly persist new rent by: {} in database. Rent data: {}", loggedUser, rentData);
-        }, () -> {
-            final String generatedFileKeyValue = generatedFileKey.get();
-            if (!generatedFileKeyValue.equals(StringUtils.EMPTY)) {
-                s3ClientBean.deleteObject(S3Bucket.RENTS, generatedFileKeyValue);
-            }
         });
     }
 
     @Override
     public String generateIssuedIdentifier(Long customerId, Long employerId) {
-        return persistenceBean.startNonTransactQuery(session -> {
-            final RentDao rentDao = new RentDaoHib(session);
-
-            final LocalDateTime now = LocalDateTime.now();
-            final String issuerStaticPart = "WY/" + now.getYear() + "/" + now.getMonth().getValue() + "/";
-            final String issuerUsers = "/" + employerId + "/" + customerId;
-
-            String issuedIdentifier, randomizerOutput;
-            do {
-                randomizerOutput = RandomStringUtils.randomNumeric(4);
-                issuedIdentifier = issuerStaticPart + randomizerOutput + issuerUsers;
-            } while (rentDao.checkIfIssuerExist(randomizerOutput));
-            return issuedIdentifier;
+        final LocalDateTime now = LocalDateTime.now();
+        final String issuerStaticPart = "WY/" + now.getYear() + "/" + now.getMonth().getValue();
+        // numbers are counted separately in every month, so each month starts again from 0001; after 9999 number
+        // is not rolled over (it would repeat identifier), it only gets more digits (see aq19 changeset)
+        final long issuerNumber = counterAllocatorBean.nextValue(issuerStaticPart);
+        return issuerStaticPart + "/" + String.format("%04d", issuerNumber) + "/" + employerId + "/" + customerId;
+    }
+
+    @Override
+    public void warmUp() {
+        final long queriesStartMillis = System.currentTimeMillis();
+        // not existing identifiers, queries are only parsed and executed on empty results
+        persistenceBean.startNonTransactQuery(session -> {
+            final CustomerDao customerDao = DaoInstrumentation.instrument(new CustomerDaoHib(session));
+            final EmployerDao employerDao = DaoInstrumentation.instrument(new EmployerDaoHib(session));
+            final EquipmentDao equipmentDao = DaoInstrumentation.instrument(new EquipmentDaoHib(session));
+            final RentDao rentDao = DaoInstrumentation.instrument(new RentDaoHib(session));
+
+            equipmentDao.getCountIfSomeEquipmentsAreAvailable();
+            equipmentDao.findAllEquipmentsConnectedWithRent(WARM_UP_ID);
+            customerDao.findCustomerDetails(WARM_UP_ID);
+            employerDao.findEmployerPageDetails(WARM_UP_ID);
+            employerDao.findAllEmployersMailSenders();
+            rentDao.checkIfRentExist(WARM_UP_ID);
+            rentDao.checkIfRentIsFromEmployer(WARM_UP_ID, WARM_UP_ID);
+            return null;
         });
+        final long documentsStartMillis = System.currentTimeMillis();
+        final InMemoryRentDataDto rentData = createWarmUpRentData();
+        calculatePricesForRentEquipments(List.of(), rentData, null);
+        modelMapperBean.map(rentData, RentEntity.class);
+        generateEmailPayload(rentData);
+        generatePdfReturnDocument(rentData);
+
+        log.info("Warmed up rent queries in {}ms and rent mappers, fonts with document in {}ms.",
+            documentsStartMillis - queriesStartMillis, System.currentTimeMillis() - documentsStartMillis);
     }
 
     private void createRentEquipmentsList(
         Session session, EquipmentDao equipmentDao, InMemoryRentDataDto rentData, RentEntity rent
     ) {
         final Set<RentEquipmentEntity> equipmentEntities = new HashSet<>();
+        final Map<Long, Integer> equipmentsCountDelta = new HashMap<>();
         for (final CartSingleEquipmentDataDto cartData : rentData.getEquipments()) {
-            final Integer eqCount = equipmentDao.findAllEquipmentsInCartCount(cartData.getId());
-            if (eqCount < Integer.parseInt(cartData.getCount())) {
-                throw new AlreadyExistException.TooMuchEquipmentsException();
-            }
             final RentEquipmentEntity equipment = modelMapperBean.map(cartData, RentEquipmentEntity.class);
             final EquipmentEntity refEquipment = session.get(EquipmentEntity.class, cartData.getId());
             equipment.setId(null);
@@ -366,7 +424,11 @@ public class RentServiceBean implements RentService {
             equipment.setEquipment(refEquipment);
             equipment.setRent(rent);
             equipmentEntities.add(equipment);
-            equipmentDao.decreaseAvailableSelectedEquipmentCount(cartData.getId(), cartData.getCount());
+            equipmentsCountDelta.merge(cartData.getId(), -Integer.parseInt(cartData.getCount()), Integer::sum);
+        }
+        // not affected row means, that some equipment has not enough available count
+        if (equipmentDao.updateAvailableEquipmentsCount(equipmentsCountDelta) != equipmentsCountDelta.size()) {
+            throw new AlreadyExistException.TooMuchEquipmentsException();
         }
         rent.setEquipments(equipmentEntities);
     }
@@ -406,7 +468,7 @@ public class RentServiceBean implements RentService {
     }
 
     private void sendRentEmailMessages(
-        Session session,
+        List<OwnerMailPayloadDto> owners,
         RentEmailPayloadDataDto emailPayload,
         InMemoryRentDataDto rentData,
         WebServletRequest req,
@@ -441,17 +503,28 @@ public class RentServiceBean implements RentService {
         final Map<String, Object> ownerTemplateVars = new HashMap<>(templateVars);
         ownerTemplateVars.put("employerFullName", loggedUser.getFullName());
 
-        final EmployerDao employerDao = new EmployerDaoHib(session);
         mailRequestPayload.setTemplate(MailTemplate.ADD_NEW_RENT_OWNER);
         mailRequestPayload.setTemplateVars(ownerTemplateVars);
 
-        for (final OwnerMailPayloadDto owner : employerDao.findAllEmployersMailSenders()) {
+        for (final OwnerMailPayloadDto owner : owners) {
             mailRequestPayload.setMessageResponder(owner.fullName());
             mailServiceBean.sendMessage(owner.email(), mailRequestPayload, req);
         }
         log.info("Successful send rent email message for owner/owners. Payload: {}", mailRequestPayload);
     }
 
+    private InMemoryRentDataDto createWarmUpRentData() {
+        final LocalDateTime rentDateTime = DateUtils.truncateToTotalHour(LocalDateTime.now());
+        final InMemoryRentDataDto rentData = new InMemoryRentDataDto(WARM_UP_ID, "Jan Kowalski");
+        rentData.setIssuedIdentifier("WY/0000/0/0000/0/0");
+        rentData.setRentDateTime(DateUtils.toISO8601Format(rentDateTime.toString()));
+        rentData.setReturnDateTime(DateUtils.toISO8601Format(rentDateTime.plusHours(26).toString()));
+        rentData.setTax("23");
+        rentData.setCustomerDetails(new CustomerDetailsResDto(WARM_UP_ID, "Jan Kowalski", "jan@kowalski.pl",
+            "1990-01-01", "90010100000", "+48 000 000 000", 0, Gender.MALE, "00-000 Warszawa", "ul. Warszawska 1"));
+        return rentData;
+    }
+
     private BigDecimal getTotalPrice(EquipmentRentRecordResDto recordDto, long rentDays, long totalRentHours) {
         // calculate total price per hour and per day, multiply by total days
         final BigDecimal totalPriceDays = recordDto.getPricePerDay().multiply(new BigDecimal(rentDays));
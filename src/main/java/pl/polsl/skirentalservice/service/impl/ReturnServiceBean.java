@@ -7,21 +7,26 @@ package pl.polsl.skirentalservice.service.impl;
 import jakarta.ejb.Stateless;
 import jakarta.inject.Inject;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.StringUtils;
 import org.hibernate.Session;
 import org.modelmapper.TypeToken;
 import pl.polsl.skirentalservice.core.ModelMapperBean;
+import pl.polsl.skirentalservice.core.db.AfterCommit;
+import pl.polsl.skirentalservice.core.db.CountCacheBean;
+import pl.polsl.skirentalservice.core.db.CountCacheKey;
 import pl.polsl.skirentalservice.core.db.PersistenceBean;
 import pl.polsl.skirentalservice.core.mail.Attachment;
 import pl.polsl.skirentalservice.core.mail.MailRequestPayload;
 import pl.polsl.skirentalservice.core.mail.MailServiceBean;
 import pl.polsl.skirentalservice.core.mail.MailTemplate;
+import pl.polsl.skirentalservice.core.s3.PendingUploadBean;
 import pl.polsl.skirentalservice.core.s3.S3Bucket;
-import pl.polsl.skirentalservice.core.s3.S3ClientBean;
 import pl.polsl.skirentalservice.core.servlet.WebServletRequest;
+import pl.polsl.skirentalservice.core.servlet.pageable.PageableRecords;
 import pl.polsl.skirentalservice.core.servlet.pageable.ServletPagination;
 import pl.polsl.skirentalservice.core.servlet.pageable.Slice;
 import pl.polsl.skirentalservice.dao.*;
+import pl.polsl.skirentalservice.dao.core.ArchiveScope;
+import pl.polsl.skirentalservice.dao.core.DaoInstrumentation;
 import pl.polsl.skirentalservice.dao.hibernate.*;
 import pl.polsl.skirentalservice.dto.*;
 import pl.polsl.skirentalservice.dto.deliv_return.*;
@@ -46,26 +51,28 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicReference;
 
 @Slf4j
 @Stateless
 @SuppressWarnings("unused")
 public class ReturnServiceBean implements ReturnService {
     private final PersistenceBean persistenceBean;
-    private final S3ClientBean s3ClientBean;
+    private final CountCacheBean countCacheBean;
+    private final PendingUploadBean pendingUploadBean;
     private final ModelMapperBean modelMapperBean;
     private final MailServiceBean mailServiceBean;
 
     @Inject
     public ReturnServiceBean(
         PersistenceBean persistenceBean,
-        S3ClientBean s3ClientBean,
+        CountCacheBean countCacheBean,
+        PendingUploadBean pendingUploadBean,
         ModelMapperBean modelMapperBean,
         MailServiceBean mailServiceBean
     ) {
         this.persistenceBean = persistenceBean;
-        this.s3ClientBean = s3ClientBean;
+        this.countCacheBean = countCacheBean;
+        this.pendingUploadBean = pendingUploadBean;
         this.modelMapperBean = modelMapperBean;
         this.mailServiceBean = mailServiceBean;
     }
@@ -73,34 +80,48 @@ public class ReturnServiceBean implements ReturnService {
     @Override
     public Slice<OwnerRentReturnRecordResDto> getPageableOwnerReturns(PageableDto pageableDto) {
         return persistenceBean.startNonTransactQuery(session -> {
-            final ReturnDao returnDao = new ReturnDaoHib(session);
-
-            final Long totalReturns = returnDao.findAllReturnsCount(pageableDto.filterData());
+            final ArchiveScope scope = ArchiveScope.of(pageableDto.filterData());
+            final ReturnDao returnDao = DaoInstrumentation.instrument(new ReturnDaoHib(session, scope));
+            long totalReturns = 0;
+            for (final ArchiveScope countedScope : scope.getCountedScopes()) {
+                final ReturnDao countedReturnDao = DaoInstrumentation.instrument(new ReturnDaoHib(session, countedScope));
+                totalReturns += countCacheBean.getTotalCount(session, CountCacheKey.of(
+                    countedScope.getEntityClazz(RentReturnEntity.class), pageableDto.filterData()),
+                    () -> countedReturnDao.findAllReturnsCount(pageableDto.filterData()));
+            }
             final ServletPagination pagination = new ServletPagination(pageableDto.page(),
                 pageableDto.total(), totalReturns);
             if (pagination.checkIfIsInvalid()) {
                 return new Slice<>(pagination);
             }
-            final List<OwnerRentReturnRecordResDto> returnsList = returnDao.findAllPageableReturnsRecords(pageableDto);
-            return new Slice<>(pagination, returnsList);
+            final PageableRecords<OwnerRentReturnRecordResDto> returnsRecords = returnDao
+                .findAllPageableReturnsRecords(pageableDto);
+            return new Slice<>(pagination, returnsRecords);
         });
     }
 
     @Override
     public Slice<SellerRentReturnRecordResDto> getPageableEmployerReturns(PageableDto pageableDto, Long employerId) {
         return persistenceBean.startNonTransactQuery(session -> {
-            final ReturnDao returnDao = new ReturnDaoHib(session);
-            final Long totalReturns = returnDao.findAllReturnsFromEmployerCount(pageableDto.filterData(), employerId);
+            final ArchiveScope scope = ArchiveScope.of(pageableDto.filterData());
+            final ReturnDao returnDao = DaoInstrumentation.instrument(new ReturnDaoHib(session, scope));
+            long totalReturns = 0;
+            for (final ArchiveScope countedScope : scope.getCountedScopes()) {
+                final ReturnDao countedReturnDao = DaoInstrumentation.instrument(new ReturnDaoHib(session, countedScope));
+                totalReturns += countCacheBean.getTotalCount(session, CountCacheKey.of(
+                    countedScope.getEntityClazz(RentReturnEntity.class), pageableDto.filterData(), employerId),
+                    () -> countedReturnDao.findAllReturnsFromEmployerCount(pageableDto.filterData(), employerId));
+            }
 
             final ServletPagination pagination = new ServletPagination(pageableDto.page(),
                 pageableDto.total(), totalReturns);
             if (pagination.checkIfIsInvalid()) {
                 return new Slice<>(pagination);
             }
-            final List<SellerRentReturnRecordResDto> returnsList = returnDao
+            final PageableRecords<SellerRentReturnRecordResDto> returnsRecords = returnDao
                 .findAllPageableReturnsFromEmployerRecords(pageableDto, employerId);
 
-            return new Slice<>(pagination, returnsList);
+            return new Slice<>(pagination, returnsRecords);
         });
     }
 
@@ -109,13 +130,21 @@ public class ReturnServiceBean implements ReturnService {
         Long returnId, LoggedUserDataDto loggedUser
     ) {
         return persistenceBean.startNonTransactQuery(session -> {
-            final ReturnDao returnDao = new ReturnDaoHib(session);
-            final EquipmentDao equipmentDao = new EquipmentDaoHib(session);
-
-            final var returnDetails = returnDao
-                .findReturnDetails(returnId, loggedUser.getId(), String.valueOf(loggedUser.getRoleAlias()))
+            final String roleAlias = String.valueOf(loggedUser.getRoleAlias());
+            // archive is searched only for return not found in hot tables
+            ArchiveScope scope = ArchiveScope.HOT;
+            ReturnDao returnDao = DaoInstrumentation.instrument(new ReturnDaoHib(session, scope));
+            Optional<ReturnRentDetailsResDto> foundReturnDetails = returnDao
+                .findReturnDetails(returnId, loggedUser.getId(), roleAlias);
+            if (foundReturnDetails.isEmpty()) {
+                scope = ArchiveScope.ARCHIVE;
+                returnDao = DaoInstrumentation.instrument(new ReturnDaoHib(session, scope));
+                foundReturnDetails = returnDao.findReturnDetails(returnId, loggedUser.getId(), roleAlias);
+            }
+            final ReturnRentDetailsResDto returnDetails = foundReturnDetails
                 .orElseThrow(NotFoundException.ReturnNotFoundException::new);
 
+            final EquipmentDao equipmentDao = DaoInstrumentation.instrument(new EquipmentDaoHib(session, scope));
             final List<RentEquipmentsDetailsResDto> allReturnEquipments = equipmentDao
                 .findAllEquipmentsConnectedWithReturn(returnId);
 
@@ -130,12 +159,11 @@ public class ReturnServiceBean implements ReturnService {
     public GeneratedReturnData generateReturn(
         Long rentId, String description, LoggedUserDataDto loggedUser, WebServletRequest req
     ) {
-        final AtomicReference<String> generatedFileKey = new AtomicReference<>(StringUtils.EMPTY);
         return persistenceBean.startTransaction(session -> {
-            final EquipmentDao equipmentDao = new EquipmentDaoHib(session);
-            final CustomerDao customerDao = new CustomerDaoHib(session);
-            final RentDao rentDao = new RentDaoHib(session);
-            final ReturnDao returnDao = new ReturnDaoHib(session);
+            final EquipmentDao equipmentDao = DaoInstrumentation.instrument(new EquipmentDaoHib(session));
+            final CustomerDao customerDao = DaoInstrumentation.instrument(new CustomerDaoHib(session));
+            final RentDao rentDao = DaoInstrumentation.instrument(new RentDaoHib(session));
+            final ReturnDao returnDao = DaoInstrumentation.instrument(new ReturnDaoHib(session));
 
             if (!customerDao.checkIfCustomerByRentIdExist(rentId)) {
                 throw new RentException.RentHasDeletedCustomerException();
@@ -191,58 +219,57 @@ public class ReturnServiceBean implements ReturnService {
 
             final Attachment pdfReturnDocument = generatePdfReturnDocument(rentDetails, customerDetails,
                 generatedBrief, briefTimeData, description, returnIssuerIdentifier, emailPayload);
-            s3ClientBean.putObject(S3Bucket.RETURNS, pdfReturnDocument);
-            generatedFileKey.set(pdfReturnDocument.name());
+            // document is uploaded after commit, so rollback not leave orphaned object in bucket
+            pendingUploadBean.enqueue(session, S3Bucket.RETURNS, pdfReturnDocument);
 
-            sendReturnEmailMessages(session, emailPayload, description, rentReturn, rentDetails,
-                req, pdfReturnDocument, loggedUser);
+            final EmployerDao employerDao = DaoInstrumentation.instrument(new EmployerDaoHib(session));
+            final List<OwnerMailPayloadDto> owners = employerDao.findAllEmployersMailSenders();
+            // messages are sent after commit, so slow SMTP server not hold locks of returned equipments
+            AfterCommit.run(session, () -> sendReturnEmailMessages(owners, emailPayload, description, rentReturn,
+                rentDetails, req, pdfReturnDocument, loggedUser));
 
             session.getTransaction().commit();
+            countCacheBean.invalidate(RentReturnEntity.class, RentEntity.class);
 
             log.info("Successfully generated return from rent with id: {} with id: {} by user: {}",
                 rentDetails.issuedIdentifier(), returnIssuerIdentifier, loggedUser.getLogin());
             return new GeneratedReturnData(rentDetails.issuedIdentifier(), returnIssuerIdentifier);
-        }, () -> {
-            final String generatedFileKeyValue = generatedFileKey.get();
-            if (!generatedFileKeyValue.equals(StringUtils.EMPTY)) {
-                s3ClientBean.deleteObject(S3Bucket.RETURNS, generatedFileKeyValue);
-            }
         });
     }
 
     @Override
     public String deleteReturn(Long returnId, LoggedUserDataDto loggedUser) {
         return persistenceBean.startTransaction(session -> {
-            final EquipmentDao equipmentDao = new EquipmentDaoHib(session);
-            final CustomerDao customerDao = new CustomerDaoHib(session);
-            final RentDao rentDao = new RentDaoHib(session);
-            final ReturnDao returnDao = new ReturnDaoHib(session);
-
-            final RentReturnEntity rentReturn = session.getReference(RentReturnEntity.class, returnId);
-            if (rentReturn == null) {
-                throw new NotFoundException.ReturnNotFoundException();
-            }
+            final EquipmentDao equipmentDao = DaoInstrumentation.instrument(new EquipmentDaoHib(session));
+            final RentDao rentDao = DaoInstrumentation.instrument(new RentDaoHib(session));
+            final ReturnDao returnDao = DaoInstrumentation.instrument(new ReturnDaoHib(session));
+
+            final RentReturnEntity rentReturn = returnDao
+                .findReturnWithRentEquipments(returnId)
+                .orElseThrow(NotFoundException.ReturnNotFoundException::new);
             final RentEntity rent = rentReturn.getRent();
             final Long rentId = rentReturn.getRent().getId();
             rentDao.updateRentStatus(RentStatus.RENTED, rentId);
 
+            final Map<Long, Integer> equipmentsCountDelta = new HashMap<>();
             for (final RentEquipmentEntity equipment : rent.getEquipments()) {
                 final EquipmentEntity eq = equipment.getEquipment();
                 if (eq != null && rent.getCustomer() != null) {
-                    if ((eq.getAvailableCount() - equipment.getCount()) < 0) {
-                        throw new RentException.TooLowAvailableEquipmentsForDeleteReturnException();
-                    }
-                    equipmentDao.decreaseAvailableSelectedEquipmentCount(equipment.getEquipment().getId(),
-                        equipment.getCount());
+                    equipmentsCountDelta.merge(eq.getId(), -equipment.getCount(), Integer::sum);
                 }
             }
+            if (equipmentDao.updateAvailableEquipmentsCount(equipmentsCountDelta) != equipmentsCountDelta.size()) {
+                throw new RentException.TooLowAvailableEquipmentsForDeleteReturnException();
+            }
             final String identifier = rentReturn.getIssuedIdentifier();
             session.remove(rentReturn);
 
             final String fileName = rentReturn.getIssuedIdentifier().replaceAll("/", "-") + ".pdf";
-            s3ClientBean.deleteObject(S3Bucket.RETURNS, fileName);
+            // document is deleted from storage after commit, so rollback not lose document of existing return
+            pendingUploadBean.remove(session, S3Bucket.RETURNS, fileName);
 
             session.getTransaction().commit();
+            countCacheBean.invalidate(RentReturnEntity.class, RentEntity.class);
 
             log.info("Rent return with id: {} was succesfuly removed from system by {}. Rent data: {}", returnId,
                 loggedUser.getLogin(), rentReturn);
@@ -253,16 +280,21 @@ public class ReturnServiceBean implements ReturnService {
     @Override
     public boolean checkIfReturnExist(Long returnId) {
         return persistenceBean.startNonTransactQuery(session -> {
-            final ReturnDao returnDao = new ReturnDaoHib(session);
-            return returnDao.checkIfReturnExist(returnId);
+            final ReturnDao returnDao = DaoInstrumentation.instrument(new ReturnDaoHib(session));
+            final ReturnDao archivedReturnDao = DaoInstrumentation
+                .instrument(new ReturnDaoHib(session, ArchiveScope.ARCHIVE));
+            return returnDao.checkIfReturnExist(returnId) || archivedReturnDao.checkIfReturnExist(returnId);
         });
     }
 
     @Override
     public boolean checkIfReturnIsFromEmployer(Long returnId, Long employerId) {
         return persistenceBean.startNonTransactQuery(session -> {
-            final ReturnDao returnDao = new ReturnDaoHib(session);
-            return returnDao.checkIfReturnIsFromEmployer(returnId, employerId);
+            final ReturnDao returnDao = DaoInstrumentation.instrument(new ReturnDaoHib(session));
+            final ReturnDao archivedReturnDao = DaoInstrumentation
+                .instrument(new ReturnDaoHib(session, ArchiveScope.ARCHIVE));
+            return returnDao.checkIfReturnIsFromEmployer(returnId, employerId)
+                || archivedReturnDao.checkIfReturnIsFromEmployer(returnId, employerId);
         });
     }
 
@@ -276,6 +308,7 @@ public class ReturnServiceBean implements ReturnService {
         Set<EmailEquipmentPayloadDataDto> emailEquipmentsPayload
     ) {
         final Set<RentReturnEquipmentEntity> rentEquipmentEntities = new HashSet<>();
+        final Map<Long, Integer> equipmentsCountDelta = new HashMap<>();
         BigDecimal totalSumPriceNetto = new BigDecimal(0);
         for (final RentReturnEquipmentRecordResDto eqDto : equipmentsList) {
             final BigDecimal sumPriceNetto = getRecalculatedPrice(eqDto, briefTimeData.days(), briefTimeData.allHours());
@@ -288,7 +321,7 @@ public class ReturnServiceBean implements ReturnService {
             final RentReturnEquipmentEntity returnEquipmentEntity = modelMapperBean
                 .map(eqDto, RentReturnEquipmentEntity.class);
 
-            equipmentDao.increaseAvailableSelectedEquipmentCount(equipmentEntity.getId(), eqDto.count());
+            equipmentsCountDelta.merge(eqDto.equipmentId(), eqDto.count(), Integer::sum);
 
             final var emailEquipment = new EmailEquipmentPayloadDataDto(equipmentEntity, eqDto);
             emailEquipment.setPriceNetto(sumPriceNetto);
@@ -305,6 +338,7 @@ public class ReturnServiceBean implements ReturnService {
 
             totalSumPriceNetto = totalSumPriceNetto.add(sumPriceNetto);
         }
+        equipmentDao.updateAvailableEquipmentsCount(equipmentsCountDelta);
         rentReturn.setTotalPrice(totalSumPriceNetto);
         rentReturn.setEquipments(rentEquipmentEntities);
         return totalSumPriceNetto;
@@ -387,7 +421,7 @@ public class ReturnServiceBean implements ReturnService {
     }
 
     private void sendReturnEmailMessages(
-        Session session,
+        List<OwnerMailPayloadDto> owners,
         RentEmailPayloadDataDto emailPayload,
         String description,
         RentReturnEntity rentReturn,
@@ -424,11 +458,10 @@ public class ReturnServiceBean implements ReturnService {
         final Map<String, Object> ownerTemplateVars = new HashMap<>(templateVars);
         ownerTemplateVars.put("employerFullName", loggedUser.getFullName());
 
-        final EmployerDao employerDao = new EmployerDaoHib(session);
         mailRequestPayload.setTemplate(MailTemplate.CREATE_NEW_RETURN_OWNER);
         mailRequestPayload.setTemplateVars(ownerTemplateVars);
 
-        for (final OwnerMailPayloadDto owner : employerDao.findAllEmployersMailSenders()) {
+        for (final OwnerMailPayloadDto owner : owners) {
             mailRequestPayload.setMessageResponder(owner.fullName());
             mailServiceBean.sendMessage(owner.email(), mailRequestPayload, req);
         }
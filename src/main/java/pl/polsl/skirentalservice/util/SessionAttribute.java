@@ -33,6 +33,7 @@ public enum SessionAttribute implements Attribute {
     LOGGED_USER_DETAILS("loggedUserDetails"),
     IN_MEMORY_NEW_RENT_DATA("inmemoryNewRentData"),
     LOGOUT_MODAL("logout-modal"),
+    REPLICA_LAST_WRITE("replicaLastWrite"),
     ;
 
     private final String attributeName;
@@ -0,0 +1,18 @@
+-- liquibase formatted sql
+-- changeset milosz08:aq13
+
+CREATE TABLE IF NOT EXISTS _id_generators
+(
+    sequence_name VARCHAR(64) NOT NULL,
+    next_val BIGINT UNSIGNED NOT NULL,
+
+    PRIMARY KEY (sequence_name)
+)
+ENGINE=InnoDB COLLATE=utf16_polish_ci;
+
+-- pooled optimizer hands out ids from (next_val - 49) to next_val, so start above already existing ids
+INSERT INTO _id_generators (sequence_name, next_val)
+SELECT 'rent_equipments', COALESCE(MAX(id), 0) + 50 FROM rent_equipments;
+
+INSERT INTO _id_generators (sequence_name, next_val)
+SELECT 'rent_returns_equipments', COALESCE(MAX(id), 0) + 50 FROM rent_returns_equipments;
@@ -0,0 +1,18 @@
+-- liquibase formatted sql
+-- changeset milosz08:aq14
+
+CREATE TABLE IF NOT EXISTS _counters
+(
+    counter_name VARCHAR(64) NOT NULL,
+    next_value BIGINT UNSIGNED NOT NULL,
+
+    PRIMARY KEY (counter_name)
+)
+ENGINE=InnoDB COLLATE=utf16_polish_ci;
+
+-- rent identifiers counters per month (WY/yyyy/m), continued after highest already issued number
+INSERT INTO _counters (counter_name, next_value)
+SELECT SUBSTRING_INDEX(issued_identifier, '/', 3),
+    MAX(CAST(SUBSTRING_INDEX(SUBSTRING_INDEX(issued_identifier, '/', 4), '/', -1) AS UNSIGNED)) + 1
+FROM rents
+GROUP BY SUBSTRING_INDEX(issued_identifier, '/', 3);
@@ -0,0 +1,10 @@
+-- liquibase formatted sql
+-- changeset milosz08:aq15
+
+CREATE UNIQUE INDEX equipments_barcode_idx ON equipments (barcode);
+
+-- new codes are numbered in restricted circulation range (prefix 2), above codes already taken from this range
+INSERT INTO _counters (counter_name, next_value)
+SELECT 'EAN13', COALESCE(MAX(CAST(SUBSTRING(barcode, 2, 11) AS UNSIGNED)), 0) + 1
+FROM equipments
+WHERE barcode LIKE '2%';
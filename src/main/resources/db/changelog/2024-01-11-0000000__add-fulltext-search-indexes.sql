@@ -0,0 +1,18 @@
+-- liquibase formatted sql
+-- changeset milosz08:aq16
+
+-- stopwords list is bound to index at creation time, ngrams like "an" or "in" must stay searchable
+SET SESSION innodb_ft_enable_stopword = OFF;
+
+CREATE FULLTEXT INDEX user_details_full_name_ft_idx ON user_details (first_name, last_name) WITH PARSER ngram;
+CREATE FULLTEXT INDEX user_details_pesel_ft_idx ON user_details (pesel) WITH PARSER ngram;
+CREATE FULLTEXT INDEX user_details_email_address_ft_idx ON user_details (email_address) WITH PARSER ngram;
+CREATE FULLTEXT INDEX user_details_phone_number_ft_idx ON user_details (phone_number) WITH PARSER ngram;
+
+CREATE FULLTEXT INDEX equipments_name_ft_idx ON equipments (name) WITH PARSER ngram;
+CREATE FULLTEXT INDEX equipment_types_name_ft_idx ON equipment_types (name) WITH PARSER ngram;
+
+CREATE FULLTEXT INDEX rents_issued_identifier_ft_idx ON rents (issued_identifier) WITH PARSER ngram;
+CREATE FULLTEXT INDEX rent_returns_issued_identifier_ft_idx ON rent_returns (issued_identifier) WITH PARSER ngram;
+
+SET SESSION innodb_ft_enable_stopword = ON;
@@ -0,0 +1,16 @@
+-- liquibase formatted sql
+-- changeset milosz08:aq17
+
+-- archive tables copy columns and indexes (also full-text and created for foreign keys columns), but not foreign
+-- keys, so references of archived rows to removed customers, employers or equipments are left as they were
+SET SESSION innodb_ft_enable_stopword = OFF;
+
+CREATE TABLE IF NOT EXISTS rents_archive LIKE rents;
+CREATE TABLE IF NOT EXISTS rent_equipments_archive LIKE rent_equipments;
+CREATE TABLE IF NOT EXISTS rent_returns_archive LIKE rent_returns;
+CREATE TABLE IF NOT EXISTS rent_returns_equipments_archive LIKE rent_returns_equipments;
+
+SET SESSION innodb_ft_enable_stopword = ON;
+
+-- returned rents candidates for archive are selected by return date
+CREATE INDEX rent_returns_issued_date_time_idx ON rent_returns (issued_date_time);
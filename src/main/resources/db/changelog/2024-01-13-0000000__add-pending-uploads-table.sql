@@ -0,0 +1,20 @@
+-- liquibase formatted sql
+-- changeset milosz08:aq18
+
+-- documents committed together with rents and returns, row is removed after successful upload to S3
+CREATE TABLE IF NOT EXISTS _pending_uploads
+(
+    id BIGINT UNSIGNED NOT NULL AUTO_INCREMENT,
+    bucket_name VARCHAR(20) NOT NULL,
+    object_key VARCHAR(255) NOT NULL,
+    content_type VARCHAR(100) NOT NULL,
+    data MEDIUMBLOB NOT NULL,
+    attempts INT UNSIGNED NOT NULL DEFAULT 0,
+    last_error VARCHAR(500),
+    created_date_time DATETIME NOT NULL,
+
+    PRIMARY KEY (id),
+    UNIQUE KEY (bucket_name, object_key),
+    INDEX (created_date_time)
+)
+ENGINE=InnoDB COLLATE=utf16_polish_ci;
@@ -0,0 +1,9 @@
+-- liquibase formatted sql
+-- changeset milosz08:aq19
+
+-- identifier WY/yyyy/m/NNNN/employer/customer has 4 digits number only as minimal width, month with more than 9999
+-- rents and long employer or customer ids give longer identifiers (longest with bigint ids has 72 characters)
+ALTER TABLE rents MODIFY issued_identifier VARCHAR(80) NOT NULL;
+ALTER TABLE rent_returns MODIFY issued_identifier VARCHAR(80) NOT NULL;
+ALTER TABLE rents_archive MODIFY issued_identifier VARCHAR(80) NOT NULL;
+ALTER TABLE rent_returns_archive MODIFY issued_identifier VARCHAR(80) NOT NULL;
@@ -0,0 +1,10 @@
+-- liquibase formatted sql
+-- changeset milosz08:aq20
+
+-- upload is done only by uploader which claimed row (worker after commit, retry timer or other node), cancelled row
+-- is kept as tombstone until claiming uploader finish, so it can delete object put after owner removal
+ALTER TABLE _pending_uploads
+    ADD COLUMN claimed_by CHAR(36) AFTER last_error,
+    ADD COLUMN claimed_until DATETIME AFTER claimed_by,
+    ADD COLUMN cancelled BOOLEAN NOT NULL DEFAULT FALSE AFTER claimed_until,
+    ADD INDEX (claimed_by);
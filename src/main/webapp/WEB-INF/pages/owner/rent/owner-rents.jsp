@@ -39,6 +39,11 @@
           <button type="submit" class="btn btn-dark btn-sm ms-2">
             <i class="bi bi-search"></i>
           </button>
+          <div class="form-check form-switch ms-3 mb-0">
+            <input class="form-check-input" type="checkbox" role="switch" name="withArchive" id="withArchive"
+                   ${filterData.withArchive ? 'checked' : ''}>
+            <label class="form-check-label text-nowrap" for="withArchive">Z archiwum</label>
+          </div>
         </div>
       </div>
     </div>
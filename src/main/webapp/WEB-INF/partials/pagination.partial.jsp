@@ -56,7 +56,8 @@
         </c:forEach>
         <li class="page-item ${pagesData.nextPage.btsClass}">
           <a
-            href="${pageContext.request.contextPath}?page=${pagesData.nextPage.pageNumber}&total=${pagesData.totalPerPage}"
+            href="${pageContext.request.contextPath}?page=${pagesData.nextPage.pageNumber}&total=${pagesData.totalPerPage}<c:if
+              test="${not empty pagesData.nextCursor}">&cursor=${pagesData.nextCursor}</c:if>"
             class="page-link px-1">
             <i class="bi bi-chevron-right"></i>
           </a>
@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.core.db;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.HibernateException;
+import org.hibernate.boot.registry.classloading.spi.ClassLoaderService;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.service.spi.Configurable;
+import org.hibernate.service.spi.ServiceRegistryAwareService;
+import org.hibernate.service.spi.ServiceRegistryImplementor;
+import org.hibernate.service.spi.Stoppable;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+// used only by query advisor, every prepared statement is explained with the same parameters before execution
+@Slf4j
+public class ExplainingConnectionProvider implements ConnectionProvider, Configurable, Stoppable,
+    ServiceRegistryAwareService {
+    private static final Set<String> EXECUTE_METHODS = Set.of("execute", "executeQuery", "executeUpdate",
+        "executeLargeUpdate");
+    private static final Set<String> EXPLAINABLE_STATEMENTS = Set.of("select", "update", "delete", "insert");
+
+    private final List<QueryPlan> plans = new ArrayList<>();
+    private final Set<String> explainedStatements = new HashSet<>();
+
+    private ServiceRegistryImplementor serviceRegistry;
+    private ConnectionProvider delegate;
+    private String probe = "unknown";
+
+    @Override
+    public void injectServices(ServiceRegistryImplementor serviceRegistry) {
+        this.serviceRegistry = serviceRegistry;
+    }
+
+    @Override
+    public void configure(Map<String, Object> configurationValues) {
+        final String delegateClassName = (String) configurationValues
+            .get(MeteredConnectionProvider.DELEGATE_PROVIDER);
+        try {
+            final Class<ConnectionProvider> delegateClazz = serviceRegistry.getService(ClassLoaderService.class)
+                .classForName(delegateClassName);
+            delegate = delegateClazz.getConstructor().newInstance();
+        } catch (ReflectiveOperationException ex) {
+            throw new HibernateException("Unable to instantiate connection provider: " + delegateClassName, ex);
+        }
+        if (delegate instanceof ServiceRegistryAwareService registryAwareService) {
+            registryAwareService.injectServices(serviceRegistry);
+        }
+        if (delegate instanceof Configurable configurable) {
+            configurable.configure(configurationValues);
+        }
+        log.info("Initialized explaining connection provider. Delegate: {}", delegateClassName);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        final Connection connection = delegate.getConnection();
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ Connection.class },
+            new ExplainingConnection(connection));
+    }
+
+    @Override
+    public void closeConnection(Connection connection) throws SQLException {
+        if (Proxy.isProxyClass(connection.getClass())
+            && Proxy.getInvocationHandler(connection) instanceof ExplainingConnection explainingConnection) {
+            delegate.closeConnection(explainingConnection.connection);
+            return;
+        }
+        delegate.closeConnection(connection);
+    }
+
+    // all statements executed after this call are reported as statements of given probe (DAO method)
+    public synchronized void startProbe(String probe) {
+        this.probe = probe;
+    }
+
+    public synchronized List<QueryPlan> getPlans() {
+        return List.copyOf(plans);
+    }
+
+    private synchronized void explain(Connection connection, String sql, List<ParameterBinding> bindings) {
+        final String statementType = sql.strip().split("\\s+", 2)[0].toLowerCase(Locale.ROOT);
+        // same statement called many times by one probe is explained only once
+        if (!EXPLAINABLE_STATEMENTS.contains(statementType) || !explainedStatements.add(probe + "|" + sql)) {
+            return;
+        }
+        final List<QueryPlan.Row> rows = new ArrayList<>();
+        try (final PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            for (final ParameterBinding binding : bindings) {
+                binding.method().invoke(statement, binding.args());
+            }
+            try (final ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    rows.add(new QueryPlan.Row(resultSet.getString("table"), resultSet.getString("type"),
+                        resultSet.getString("key"), resultSet.getLong("rows"), resultSet.getString("Extra")));
+                }
+            }
+            plans.add(new QueryPlan(probe, sql, rows, null));
+        } catch (SQLException | ReflectiveOperationException ex) {
+            plans.add(new QueryPlan(probe, sql, rows, ex.getMessage()));
+        }
+    }
+
+    @Override
+    public boolean supportsAggressiveRelease() {
+        return delegate.supportsAggressiveRelease();
+    }
+
+    @Override
+    public boolean isUnwrappableAs(Class<?> unwrapType) {
+        return unwrapType.isAssignableFrom(getClass()) || delegate.isUnwrappableAs(unwrapType);
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> unwrapType) {
+        if (unwrapType.isAssignableFrom(getClass())) {
+            return unwrapType.cast(this);
+        }
+        return delegate.unwrap(unwrapType);
+    }
+
+    @Override
+    public void stop() {
+        if (delegate instanceof Stoppable stoppable) {
+            stoppable.stop();
+        }
+    }
+
+    private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    private record ParameterBinding(Method method, Object[] args) {
+    }
+
+    @RequiredArgsConstructor
+    private class ExplainingConnection implements InvocationHandler {
+        private final Connection connection;
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            final Object result = invokeTarget(connection, method, args);
+            if (method.getName().equals("prepareStatement") && result instanceof PreparedStatement statement) {
+                return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ PreparedStatement.class },
+                    new ExplainingStatement(connection, statement, (String) args[0]));
+            }
+            return result;
+        }
+    }
+
+    @RequiredArgsConstructor
+    private class ExplainingStatement implements InvocationHandler {
+        private final Connection connection;
+        private final PreparedStatement statement;
+        private final String sql;
+        private final List<ParameterBinding> bindings = new ArrayList<>();
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            final String name = method.getName();
+            // parameter setters are only setters with parameter index as first argument, eg. setLong(int, long)
+            if (name.startsWith("set") && args != null && args.length > 1 && args[0] instanceof Integer) {
+                bindings.add(new ParameterBinding(method, args));
+            } else if (name.equals("clearParameters")) {
+                bindings.clear();
+            } else if (EXECUTE_METHODS.contains(name) && (args == null || args.length == 0)) {
+                explain(connection, sql, bindings);
+            }
+            return invokeTarget(statement, method, args);
+        }
+    }
+}
@@ -0,0 +1,317 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.core.db;
+
+import liquibase.exception.LiquibaseException;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import pl.polsl.skirentalservice.core.XMLConfigLoader;
+import pl.polsl.skirentalservice.core.servlet.pageable.AbstractPageableWebServlet;
+import pl.polsl.skirentalservice.core.servlet.pageable.DeclaredPageables;
+import pl.polsl.skirentalservice.core.servlet.pageable.FilterDataDto;
+import pl.polsl.skirentalservice.dao.*;
+import pl.polsl.skirentalservice.dao.core.ArchiveScope;
+import pl.polsl.skirentalservice.dao.hibernate.*;
+import pl.polsl.skirentalservice.domain.common.customer.CommonCustomersServlet;
+import pl.polsl.skirentalservice.domain.common.equipment.CommonEquipmentsServlet;
+import pl.polsl.skirentalservice.domain.owner.OwnerRentsServlet;
+import pl.polsl.skirentalservice.domain.owner.OwnerReturnsServlet;
+import pl.polsl.skirentalservice.domain.owner.employer.OwnerEmployersServlet;
+import pl.polsl.skirentalservice.domain.seller.deliv_return.SellerReturnsServlet;
+import pl.polsl.skirentalservice.domain.seller.rent.SellerCompleteRentEquipmentsServlet;
+import pl.polsl.skirentalservice.domain.seller.rent.SellerRentsServlet;
+import pl.polsl.skirentalservice.dto.PageableDto;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+
+// one-shot query plans check, runs every DAO method on migrated and seeded disposable database and explains all
+// executed statements
+@Slf4j
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class QueryAdvisorRunner {
+    private static final String REPORT_ONLY = "--report-only";
+    private static final Long PROBE_ID = 1L;
+    private static final String SEARCH_TEXT = "ab";
+    private static final String ADVISOR_URL = "SKI_ADVISOR_MYSQL_URL";
+    private static final String ADVISOR_USERNAME = "SKI_ADVISOR_MYSQL_USERNAME";
+    private static final String ADVISOR_PASSWORD = "SKI_ADVISOR_MYSQL_PASSWORD";
+    private static final String DATABASE_PREFIX = "ski_query_advisor_";
+    private static final String SEED_SCRIPT = "db/query-advisor-seed.sql";
+
+    private static final List<DaoProbe> DAO_PROBES = List.of(
+        new DaoProbe("CustomerDaoHib", CustomerDao.class, CustomerDaoHib::new),
+        new DaoProbe("EmployerDaoHib", EmployerDao.class, EmployerDaoHib::new),
+        new DaoProbe("EquipmentBrandDaoHib", EquipmentBrandDao.class, EquipmentBrandDaoHib::new),
+        new DaoProbe("EquipmentColorDaoHib", EquipmentColorDao.class, EquipmentColorDaoHib::new),
+        new DaoProbe("EquipmentDaoHib", EquipmentDao.class, EquipmentDaoHib::new),
+        new DaoProbe("EquipmentDaoHib[ARCHIVE]", EquipmentDao.class,
+            session -> new EquipmentDaoHib(session, ArchiveScope.ARCHIVE)),
+        new DaoProbe("EquipmentTypeDaoHib", EquipmentTypeDao.class, EquipmentTypeDaoHib::new),
+        new DaoProbe("OtaTokenDaoHib", OtaTokenDao.class, OtaTokenDaoHib::new),
+        new DaoProbe("RentDaoHib", RentDao.class, RentDaoHib::new),
+        new DaoProbe("RentDaoHib[ARCHIVE]", RentDao.class,
+            session -> new RentDaoHib(session, ArchiveScope.ARCHIVE)),
+        new DaoProbe("ReturnDaoHib", ReturnDao.class, ReturnDaoHib::new),
+        new DaoProbe("ReturnDaoHib[ARCHIVE]", ReturnDao.class,
+            session -> new ReturnDaoHib(session, ArchiveScope.ARCHIVE)),
+        new DaoProbe("UserDetailsDaoHib", UserDetailsDao.class, UserDetailsDaoHib::new)
+    );
+
+    // pageable queries are probed with filters and sorters declared by servlet, which calls this DAO method
+    private static final Map<String, PageableProbe> PAGEABLE_PROBES = Map.ofEntries(
+        Map.entry("findAllCustomersCount", new PageableProbe(CommonCustomersServlet.class)),
+        Map.entry("findAllPageableCustomers", new PageableProbe(CommonCustomersServlet.class, "address")),
+        Map.entry("findAllEmployersCount", new PageableProbe(OwnerEmployersServlet.class)),
+        Map.entry("findAllPageableEmployersRecords", new PageableProbe(OwnerEmployersServlet.class)),
+        Map.entry("findAllEquipmentsCount", new PageableProbe(CommonEquipmentsServlet.class)),
+        Map.entry("findAllPageableEquipmentRecords", new PageableProbe(CommonEquipmentsServlet.class)),
+        Map.entry("findAllPageableEquipments", new PageableProbe(SellerCompleteRentEquipmentsServlet.class)),
+        Map.entry("findAllRentsCount", new PageableProbe(OwnerRentsServlet.class)),
+        Map.entry("findAllPageableRents", new PageableProbe(OwnerRentsServlet.class)),
+        Map.entry("findAllRentsFromEmployerCount", new PageableProbe(SellerRentsServlet.class)),
+        Map.entry("findAllPageableRentsFromEmployer", new PageableProbe(SellerRentsServlet.class)),
+        Map.entry("findAllReturnsCount", new PageableProbe(OwnerReturnsServlet.class)),
+        Map.entry("findAllPageableReturnsRecords", new PageableProbe(OwnerReturnsServlet.class)),
+        Map.entry("findAllReturnsFromEmployerCount", new PageableProbe(SellerReturnsServlet.class)),
+        Map.entry("findAllPageableReturnsFromEmployerRecords", new PageableProbe(SellerReturnsServlet.class))
+    );
+
+    public static void main(String[] args) {
+        final boolean reportOnly = Arrays.asList(args).contains(REPORT_ONLY);
+        final String serverUrl = System.getenv(ADVISOR_URL);
+        if (StringUtils.isBlank(serverUrl)) {
+            log.error("Missing {} environment variable (database server url without database name)", ADVISOR_URL);
+            System.exit(1);
+        }
+        final String username = System.getenv(ADVISOR_USERNAME);
+        final String password = StringUtils.defaultString(System.getenv(ADVISOR_PASSWORD));
+        // every run creates own database, so advisor never migrates or changes application database
+        final String databaseName = DATABASE_PREFIX + System.currentTimeMillis();
+        long findings = 0;
+        try (final Connection serverConnection = DriverManager.getConnection(serverUrl, username, password)) {
+            executeStatement(serverConnection, "CREATE DATABASE " + databaseName + " CHARACTER SET utf8mb4");
+            try {
+                findings = advise(getDatabaseUrl(serverUrl, databaseName), username, password);
+            } finally {
+                executeStatement(serverConnection, "DROP DATABASE " + databaseName);
+            }
+        } catch (SQLException ex) {
+            log.error("Unable to prepare advisor database. Exception: {}", ex.getMessage());
+            System.exit(1);
+        } catch (LiquibaseException ex) {
+            log.error("Unable to apply Liquibase changelog. Exception: {}", ex.getMessage());
+            System.exit(1);
+        } catch (IOException ex) {
+            log.error("Unable to load seed script. Exception: {}", ex.getMessage());
+            System.exit(1);
+        }
+        if (findings > 0 && !reportOnly) {
+            System.exit(1);
+        }
+    }
+
+    private static long advise(String databaseUrl, String username, String password)
+        throws SQLException, LiquibaseException, IOException {
+        try (final Connection connection = DriverManager.getConnection(databaseUrl, username, password)) {
+            // schema and seeded content are taken from the same changelog as on production
+            new ChangelogMigrator(connection).migrate(MigrationMode.UPDATE);
+            seedDatabase(connection);
+        }
+        final Configuration configurationHib = new Configuration().configure(PersistenceBean.HIBERNATE_CONF);
+        configurationHib.setImplicitNamingStrategy(new CustomPhysicalNamingStrategy());
+        configurationHib.setProperty(AvailableSettings.URL, databaseUrl);
+        configurationHib.setProperty(AvailableSettings.USER, username);
+        configurationHib.setProperty(AvailableSettings.PASS, password);
+        XMLConfigLoader.replaceAllPlaceholders(configurationHib.getProperties());
+
+        configurationHib.setProperty(MeteredConnectionProvider.DELEGATE_PROVIDER,
+            configurationHib.getProperty(AvailableSettings.CONNECTION_PROVIDER));
+        configurationHib.setProperty(AvailableSettings.CONNECTION_PROVIDER,
+            ExplainingConnectionProvider.class.getName());
+        // cached entities and query results would hide statements from explain
+        configurationHib.setProperty(AvailableSettings.USE_SECOND_LEVEL_CACHE, "false");
+        configurationHib.setProperty(AvailableSettings.USE_QUERY_CACHE, "false");
+        PersistenceBean.loadEntityIndex().forEach(configurationHib::addAnnotatedClass);
+
+        final List<QueryPlan> plans;
+        long failedProbes = 0;
+        try (final SessionFactory sessionFactory = configurationHib.buildSessionFactory()) {
+            final ExplainingConnectionProvider provider = sessionFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(ConnectionProvider.class)
+                .unwrap(ExplainingConnectionProvider.class);
+            for (final DaoProbe daoProbe : DAO_PROBES) {
+                failedProbes += runDaoProbe(sessionFactory, provider, daoProbe);
+            }
+            plans = provider.getPlans();
+        }
+        return reportPlans(plans, failedProbes);
+    }
+
+    // changelog inserts only few rows, on so small tables optimizer chooses full scans regardless of indexes
+    private static void seedDatabase(Connection connection) throws IOException, SQLException {
+        final String script;
+        try (final InputStream inputStream = QueryAdvisorRunner.class.getClassLoader()
+            .getResourceAsStream(SEED_SCRIPT)) {
+            if (inputStream == null) {
+                throw new IOException("Missing " + SEED_SCRIPT + " resource");
+            }
+            script = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        for (final String sql : script.replaceAll("(?m)^--.*$", "").split(";")) {
+            if (StringUtils.isNotBlank(sql)) {
+                executeStatement(connection, sql);
+            }
+        }
+        log.info("Seeded advisor database with data from {}", SEED_SCRIPT);
+    }
+
+    private static void executeStatement(Connection connection, String sql) throws SQLException {
+        try (final Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private static String getDatabaseUrl(String serverUrl, String databaseName) {
+        final String query = StringUtils.substringAfter(serverUrl, "?");
+        final String databaseUrl = StringUtils.removeEnd(StringUtils.substringBefore(serverUrl, "?"), "/") + "/" +
+            databaseName;
+        return query.isEmpty() ? databaseUrl : databaseUrl + "?" + query;
+    }
+
+    private static int runDaoProbe(SessionFactory sessionFactory, ExplainingConnectionProvider provider,
+                                   DaoProbe daoProbe) {
+        int failedProbes = 0;
+        for (final Method method : daoProbe.daoInterface().getMethods()) {
+            final PageableProbe pageableProbe = PAGEABLE_PROBES.get(method.getName());
+            final AbstractPageableWebServlet servlet = pageableProbe == null ? null : createServlet(pageableProbe);
+            final List<PageableDto> pageables = servlet == null
+                ? Collections.singletonList(null)
+                : DeclaredPageables.createPageables(servlet, SEARCH_TEXT);
+            final String probe = daoProbe.name() + "#" + method.getName();
+            for (final PageableDto pageable : pageables) {
+                // every call is rolled back, so update and delete methods do not change seeded data
+                try (final Session session = sessionFactory.openSession()) {
+                    session.beginTransaction();
+                    provider.startProbe(probe);
+                    method.invoke(daoProbe.factory().apply(session), createArguments(method, pageable, servlet,
+                        pageableProbe));
+                } catch (InvocationTargetException ex) {
+                    // statements after failed one are not executed, so they are not explained
+                    log.warn("Probe {} failed. Exception: {}", probe, ex.getCause().getMessage());
+                    failedProbes++;
+                } catch (IllegalAccessException ex) {
+                    log.warn("Unable to call probe {}. Exception: {}", probe, ex.getMessage());
+                    failedProbes++;
+                }
+            }
+        }
+        return failedProbes;
+    }
+
+    private static AbstractPageableWebServlet createServlet(PageableProbe pageableProbe) {
+        try {
+            // filters and sorters are declared without services, so all constructor dependencies are empty
+            final Constructor<?> constructor = pageableProbe.servletClazz().getConstructors()[0];
+            return (AbstractPageableWebServlet) constructor.newInstance(new Object[constructor.getParameterCount()]);
+        } catch (ReflectiveOperationException ex) {
+            log.error("Unable to create servlet: {}. Exception: {}", pageableProbe.servletClazz(), ex.getMessage());
+            return null;
+        }
+    }
+
+    private static Object[] createArguments(Method method, PageableDto pageable, AbstractPageableWebServlet servlet,
+                                            PageableProbe pageableProbe) {
+        final Iterator<String> filterColumnArgs = servlet == null
+            ? Collections.emptyIterator()
+            : Arrays.asList(pageableProbe.filterColumnArgs()).iterator();
+        final Class<?>[] parameterTypes = method.getParameterTypes();
+        final Object[] args = new Object[parameterTypes.length];
+        for (int i = 0; i < args.length; i++) {
+            final Class<?> type = parameterTypes[i];
+            if (type.equals(PageableDto.class)) {
+                args[i] = pageable;
+            } else if (type.equals(FilterDataDto.class)) {
+                args[i] = pageable.filterData();
+            } else if (filterColumnArgs.hasNext()) {
+                args[i] = DeclaredPageables.findFilterColumn(servlet, filterColumnArgs.next());
+            } else {
+                args[i] = createArgument(type);
+            }
+        }
+        return args;
+    }
+
+    private static Object createArgument(Class<?> type) {
+        if (type.equals(Object.class) || type.equals(Long.class) || type.equals(long.class)) {
+            return PROBE_ID;
+        } else if (type.equals(int.class) || type.equals(Integer.class)) {
+            return 10;
+        } else if (type.equals(boolean.class)) {
+            return false;
+        } else if (type.equals(String.class)) {
+            return SEARCH_TEXT;
+        } else if (type.equals(LocalDateTime.class)) {
+            return LocalDateTime.now();
+        } else if (type.equals(List.class)) {
+            return List.of(PROBE_ID);
+        } else if (type.equals(Map.class)) {
+            return Map.of(PROBE_ID, 0);
+        } else if (type.isEnum()) {
+            return type.getEnumConstants()[0];
+        }
+        return null;
+    }
+
+    private static long reportPlans(List<QueryPlan> plans, long failedProbes) {
+        long findings = 0;
+        long notExplained = 0;
+        for (final QueryPlan plan : plans) {
+            if (plan.explainError() != null) {
+                log.warn("Unable to explain statement of {}. Cause: {}. SQL: {}", plan.probe(), plan.explainError(),
+                    plan.sql());
+                notExplained++;
+                continue;
+            }
+            final List<String> planFindings = plan.getFindings();
+            if (!planFindings.isEmpty()) {
+                log.warn("{}: {}. SQL: {}", plan.probe(), String.join(", ", planFindings), plan.sql());
+                findings += planFindings.size();
+            }
+        }
+        final long probes = plans.stream().map(QueryPlan::probe).distinct().count();
+        log.info("Explained {} statements of {} DAO methods. Found {} full scans, filesorts and temporary tables, " +
+            "{} failed probes and {} not explained statements.", plans.size(), probes, findings, failedProbes,
+            notExplained);
+        return findings + failedProbes + notExplained;
+    }
+
+    private record DaoProbe(String name, Class<?> daoInterface, Function<Session, Object> factory) {
+    }
+
+    // filter column args are values of servlet filters, which column expressions are passed as next DAO arguments
+    private record PageableProbe(Class<? extends AbstractPageableWebServlet> servletClazz, String... filterColumnArgs) {
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.core.db;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public record QueryPlan(String probe, String sql, List<Row> rows, String explainError) {
+    public List<String> getFindings() {
+        final List<String> findings = new ArrayList<>();
+        for (final Row row : rows) {
+            // type ALL is full table scan, in extra column optimizer reports sorting and grouping without index
+            if ("ALL".equals(row.type())) {
+                findings.add("full scan of " + row.table() + " (~" + row.rows() + " rows)");
+            }
+            if (StringUtils.contains(row.extra(), "Using filesort")) {
+                findings.add("filesort on " + row.table());
+            }
+            if (StringUtils.contains(row.extra(), "Using temporary")) {
+                findings.add("temporary table on " + row.table());
+            }
+        }
+        return findings;
+    }
+
+    public record Row(String table, String type, String key, long rows, String extra) {
+    }
+}
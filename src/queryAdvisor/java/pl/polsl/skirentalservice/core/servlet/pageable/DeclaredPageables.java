@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.core.servlet.pageable;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import pl.polsl.skirentalservice.dto.PageableDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// every filter column and sorter field declared by servlet without request context; in the same package as pageable
+// servlet, so declarations are read by protected configure methods and servlet is not changed for query advisor
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class DeclaredPageables {
+
+    public static List<PageableDto> createPageables(AbstractPageableWebServlet servlet, String searchText) {
+        final Map<String, ServletSorterField> sorterFieldMap = servlet.configureServletSorterFields();
+        final List<FilterColumn> filterFieldMap = servlet.configureServletFilterFields();
+        final String defaultSorterColumn = servlet.defaultSorterColumn();
+
+        final List<PageableDto> pageables = new ArrayList<>();
+        for (final FilterColumn filterColumn : filterFieldMap) {
+            final FilterDataDto filterData = new FilterDataDto(searchText, filterColumn.getColumnName(),
+                filterFieldMap, false);
+            pageables.add(createPageable(filterData, new SorterDataDto(sorterFieldMap, defaultSorterColumn)));
+        }
+        for (final ServletSorterField sorterField : sorterFieldMap.values()) {
+            final SorterDataDto sorterData = new SorterDataDto(sorterFieldMap, defaultSorterColumn);
+            sorterData.sortBy(sorterField.getJpql(), SortDirection.DESC);
+            pageables.add(createPageable(new FilterDataDto(filterFieldMap), sorterData));
+        }
+        return pageables;
+    }
+
+    // column expression of declared filter, passed to DAO methods which take it as argument
+    public static String findFilterColumn(AbstractPageableWebServlet servlet, String value) {
+        return servlet.configureServletFilterFields().stream()
+            .filter(filterColumn -> filterColumn.getValue().equals(value))
+            .map(FilterColumn::getColumnName)
+            .findFirst()
+            .orElseThrow(() -> new IllegalArgumentException("Servlet " + servlet.getClass().getSimpleName() +
+                " not declare filter: " + value));
+    }
+
+    private static PageableDto createPageable(FilterDataDto filterData, SorterDataDto sorterData) {
+        return PageableDto.builder()
+            .page(1)
+            .total(10)
+            .sorterData(sorterData)
+            .filterData(filterData)
+            .build();
+    }
+}
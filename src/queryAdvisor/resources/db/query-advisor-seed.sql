@@ -0,0 +1,90 @@
+-- data for query advisor, inserted to disposable database after changelog migration; ids start above ids from
+-- changelog content, unique columns are made unique by row number
+
+-- row numbers from 1 to 10000
+CREATE TABLE _advisor_digits (d INT UNSIGNED NOT NULL);
+INSERT INTO _advisor_digits (d) VALUES (0), (1), (2), (3), (4), (5), (6), (7), (8), (9);
+
+CREATE TABLE _advisor_numbers (n INT UNSIGNED NOT NULL, PRIMARY KEY (n));
+INSERT INTO _advisor_numbers (n)
+SELECT d1.d + d2.d * 10 + d3.d * 100 + d4.d * 1000 + 1
+FROM _advisor_digits d1 CROSS JOIN _advisor_digits d2 CROSS JOIN _advisor_digits d3 CROSS JOIN _advisor_digits d4;
+
+-- 9950 customers and 50 employers
+INSERT INTO user_details (id, first_name, last_name, pesel, phone_area_code, phone_number, email_address, born_date,
+                          gender)
+SELECT 100000 + n, CONCAT('Imie', n), CONCAT('Nazwisko', n), LPAD(n, 11, '0'), 48, CONCAT('5', LPAD(n, 8, '0')),
+    CONCAT('advisor', n, '@ski.miloszgilga.pl'), DATE_ADD('1960-01-01', INTERVAL n DAY),
+    IF(n % 2 = 0, 'mężczyzna', 'kobieta')
+FROM _advisor_numbers;
+
+INSERT INTO location_addresses (id, street, building_no, apartment_no, city, postal_code)
+SELECT 100000 + n, CONCAT('Ulica ', n), n % 200 + 1, NULL, ELT(n % 5 + 1, 'Gliwice', 'Katowice', 'Zabrze', 'Bytom',
+    'Tychy'), CONCAT(LPAD(n % 100, 2, '0'), '-100')
+FROM _advisor_numbers;
+
+INSERT INTO customers (id, user_details_id, location_address_id)
+SELECT 100000 + n, 100000 + n, 100000 + n FROM _advisor_numbers WHERE n <= 9950;
+
+INSERT INTO employers (id, login, password, hired_date, first_access, user_details_id, location_address_id, role_id)
+SELECT 100000 + n, CONCAT('advisor', n), CONCAT('$2a$10$advisor', n), '2020-01-01', 0, 100000 + n, 100000 + n,
+    IF(n % 10 = 0, 2, 1)
+FROM _advisor_numbers WHERE n > 9950;
+
+INSERT INTO ota_tokens (id, ota_token, expired_at, is_used, employer_id)
+SELECT 100000 + n, LPAD(n, 10, '0'), DATE_ADD('2024-01-01', INTERVAL n MINUTE), n % 2, 109951 + n % 50
+FROM _advisor_numbers WHERE n <= 1000;
+
+-- 2000 equipments with attributes from changelog content
+INSERT INTO equipments (id, name, model, gender, description, barcode, count_in_store, available_count, size,
+                        price_per_hour, price_for_next_hour, price_per_day, value_cost, type_id, brand_id, color_id)
+SELECT 100000 + n, CONCAT('Narty ', n), CONCAT('ADVISOR', n), ELT(n % 3 + 1, 'mężczyzna', 'kobieta', 'unisex'), NULL,
+    CONCAT('29', LPAD(n, 11, '0')), 100, 90, 150.00, 20.00, 5.00, 80.00, 2000.00, n % 8 + 1, n % 5 + 1, n % 4 + 1
+FROM _advisor_numbers WHERE n <= 2000;
+
+-- 10000 rents with two equipments, every third rent is returned
+INSERT INTO rents (id, issued_identifier, issued_date_time, rent_date_time, return_date_time, status, tax, description,
+                   total_price, total_deposit_price, customer_id, employer_id)
+SELECT 100000 + n, CONCAT('WY/2023/1/', LPAD(n, 5, '0')), DATE_ADD('2023-01-01', INTERVAL n MINUTE),
+    DATE_ADD('2023-01-01', INTERVAL n MINUTE), DATE_ADD('2023-01-02', INTERVAL n MINUTE),
+    ELT(n % 3 + 1, 'wypożyczony', 'zwrócony', 'zarezerwowany'), 23, NULL, 200.00, 20.00, 100001 + n % 9950,
+    109951 + n % 50
+FROM _advisor_numbers;
+
+INSERT INTO rent_equipments (id, count, total_price, description, deposit_price, rent_id, equipment_id)
+SELECT 100000 + n * 2 + e.d, 1, 100.00, NULL, 10.00, 100000 + n, 100001 + (n * 2 + e.d) % 2000
+FROM _advisor_numbers CROSS JOIN _advisor_digits e WHERE e.d < 2;
+
+INSERT INTO rent_returns (id, issued_identifier, issued_date_time, description, total_price, total_deposit_price,
+                          rent_id)
+SELECT 100000 + n, CONCAT('ZW/2023/1/', LPAD(n, 5, '0')), DATE_ADD('2023-01-02', INTERVAL n MINUTE), NULL, 200.00,
+    20.00, 100000 + n
+FROM _advisor_numbers WHERE n % 3 = 1;
+
+INSERT INTO rent_returns_equipments (id, total_price, description, deposit_price, rent_return_id, rent_equipment_id,
+                                     equipment_id)
+SELECT re.id, re.total_price, NULL, re.deposit_price, rr.id, re.id, re.equipment_id
+FROM rent_returns rr INNER JOIN rent_equipments re ON re.rent_id = rr.rent_id
+WHERE rr.id > 100000;
+
+-- archive contains copies of returned rents, archiving job moves rows, but for query plans copies are enough
+INSERT INTO rents_archive SELECT * FROM rents WHERE id > 100000 AND status = 'zwrócony';
+INSERT INTO rent_equipments_archive SELECT re.* FROM rent_equipments re
+    INNER JOIN rents_archive r ON r.id = re.rent_id;
+INSERT INTO rent_returns_archive SELECT rr.* FROM rent_returns rr
+    INNER JOIN rents_archive r ON r.id = rr.rent_id;
+INSERT INTO rent_returns_equipments_archive SELECT rre.* FROM rent_returns_equipments rre
+    INNER JOIN rent_returns_archive rr ON rr.id = rre.rent_return_id;
+
+-- pooled id generators hand out ids above seeded rows
+UPDATE _id_generators SET next_val = (SELECT MAX(id) + 50 FROM rent_equipments)
+WHERE sequence_name = 'rent_equipments';
+UPDATE _id_generators SET next_val = (SELECT MAX(id) + 50 FROM rent_returns_equipments)
+WHERE sequence_name = 'rent_returns_equipments';
+
+DROP TABLE _advisor_numbers;
+DROP TABLE _advisor_digits;
+
+ANALYZE TABLE user_details, location_addresses, customers, employers, ota_tokens, equipments, rents, rent_equipments,
+    rent_returns, rent_returns_equipments, rents_archive, rent_equipments_archive, rent_returns_archive,
+    rent_returns_equipments_archive;
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.core.db;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.engine.jdbc.connections.internal.DriverManagerConnectionProviderImpl;
+
+// hibernate config of application (batching, statement inspector) and entities from the same build-time index, only
+// connection is replaced by in-memory H2 database with schema generated from entities
+public class InMemoryDatabase {
+    private InMemoryDatabase() {
+    }
+
+    public static SessionFactory createSessionFactory(String databaseName) {
+        final Configuration configurationHib = new Configuration().configure(PersistenceBean.HIBERNATE_CONF);
+        configurationHib.setImplicitNamingStrategy(new CustomPhysicalNamingStrategy());
+        configurationHib.setProperty(AvailableSettings.URL, "jdbc:h2:mem:" + databaseName +
+            ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        configurationHib.setProperty(AvailableSettings.DRIVER, "org.h2.Driver");
+        configurationHib.setProperty(AvailableSettings.USER, "sa");
+        configurationHib.setProperty(AvailableSettings.PASS, "");
+        configurationHib.setProperty(AvailableSettings.DIALECT, "org.hibernate.dialect.H2Dialect");
+        configurationHib.setProperty(AvailableSettings.CONNECTION_PROVIDER,
+            DriverManagerConnectionProviderImpl.class.getName());
+        configurationHib.getProperties().remove("hibernate.connection.rewriteBatchedStatements");
+        configurationHib.setProperty(AvailableSettings.USE_SECOND_LEVEL_CACHE, "false");
+        configurationHib.setProperty(AvailableSettings.USE_QUERY_CACHE, "false");
+        configurationHib.setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop");
+        configurationHib.setProperty(AvailableSettings.GENERATE_STATISTICS, "true");
+        PersistenceBean.loadEntityIndex().forEach(configurationHib::addAnnotatedClass);
+        return configurationHib.buildSessionFactory();
+    }
+
+    public static PersistenceBean createPersistenceBean(SessionFactory sessionFactory) {
+        return new PersistenceBean(sessionFactory);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.core.db;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pl.polsl.skirentalservice.entity.RentEntity;
+import pl.polsl.skirentalservice.entity.RentEquipmentEntity;
+import pl.polsl.skirentalservice.util.RentStatus;
+
+import java.math.BigDecimal;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// round-trips of persisting rent with lines of family rental, with batch settings from hibernate config;
+// lines with pooled ids are inserted in single batch, rows with identity ids are inserted one by one
+class LineItemsBatchInsertTest {
+    private static final int LINES_COUNT = 15;
+
+    private static SessionFactory sessionFactory;
+
+    @BeforeAll
+    static void createDatabase() {
+        sessionFactory = InMemoryDatabase.createSessionFactory("ski-batch");
+    }
+
+    @AfterAll
+    static void closeDatabase() {
+        sessionFactory.close();
+    }
+
+    @BeforeEach
+    void clearStatistics() {
+        sessionFactory.getStatistics().clear();
+    }
+
+    @Test
+    void pooledIdsInsertRentLinesInSingleBatch() {
+        inTransaction(session -> {
+            final RentEntity rent = createRent();
+            session.persist(rent);
+            for (int i = 0; i < LINES_COUNT; i++) {
+                final RentEquipmentEntity line = new RentEquipmentEntity();
+                line.setTotalPrice(BigDecimal.TEN);
+                line.setRent(rent);
+                session.persist(line);
+            }
+        });
+        final Statistics statistics = sessionFactory.getStatistics();
+        assertEquals(LINES_COUNT + 1, statistics.getEntityInsertCount());
+        // rent insert and one batch of lines, block of pooled ids is reserved in separate isolated transaction
+        // only once per 50 lines
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void identityIdsInsertEveryRowSeparately() {
+        inTransaction(session -> {
+            for (int i = 0; i < LINES_COUNT; i++) {
+                session.persist(createRent());
+            }
+        });
+        final Statistics statistics = sessionFactory.getStatistics();
+        assertEquals(LINES_COUNT, statistics.getEntityInsertCount());
+        assertEquals(LINES_COUNT, statistics.getPrepareStatementCount());
+    }
+
+    private static RentEntity createRent() {
+        final RentEntity rent = new RentEntity();
+        rent.setStatus(RentStatus.RENTED);
+        rent.setTotalPrice(BigDecimal.TEN);
+        return rent;
+    }
+
+    private static void inTransaction(Consumer<Session> executableCode) {
+        try (final Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            executableCode.accept(session);
+            session.getTransaction().commit();
+        }
+    }
+}
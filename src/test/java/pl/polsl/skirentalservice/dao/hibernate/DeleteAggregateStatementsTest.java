@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.dao.hibernate;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import pl.polsl.skirentalservice.core.db.CountingStatementInspector;
+import pl.polsl.skirentalservice.core.db.InMemoryDatabase;
+import pl.polsl.skirentalservice.entity.EquipmentEntity;
+import pl.polsl.skirentalservice.entity.RentEntity;
+import pl.polsl.skirentalservice.entity.RentEquipmentEntity;
+import pl.polsl.skirentalservice.entity.RentReturnEntity;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// delete rent and delete return load whole aggregate in single select, next traverse of loaded aggregate (equipments
+// count delta, document name) must not execute any lazy loading statement
+class DeleteAggregateStatementsTest {
+    private static final Long RENT_ID = 1L;
+    private static final Long RETURN_ID = 1L;
+
+    private static SessionFactory sessionFactory;
+
+    @BeforeAll
+    static void createDatabase() {
+        sessionFactory = InMemoryDatabase.createSessionFactory("ski-delete");
+        try (final Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            for (final String sql : List.of(
+                "INSERT INTO roles (id, role_name, alias, role_eng) VALUES (1, 'pracownik', 'P', 'seller')",
+                "INSERT INTO user_details (id, first_name, last_name) VALUES (1, 'Anna', 'Nowak'), (2, 'Jan', 'Kos')",
+                "INSERT INTO location_addresses (id, city) VALUES (1, 'Gliwice'), (2, 'Zabrze')",
+                "INSERT INTO customers (id, user_details_id, location_address_id) VALUES (1, 2, 2)",
+                "INSERT INTO employers (id, login, user_details_id, location_address_id, role_id) " +
+                    "VALUES (1, 'annnow321', 1, 1, 1)",
+                "INSERT INTO equipment_types (id, name) VALUES (1, 'Narty')",
+                "INSERT INTO equipment_brands (id, name) VALUES (1, 'Atomic')",
+                "INSERT INTO equipment_colors (id, name) VALUES (1, 'Czarny')",
+                "INSERT INTO equipments (id, name, type_id, brand_id, color_id) " +
+                    "VALUES (1, 'Narty 1', 1, 1, 1), (2, 'Narty 2', 1, 1, 1)",
+                "INSERT INTO rents (id, issued_identifier, status, customer_id, employer_id) " +
+                    "VALUES (1, 'WY/2024/1/0001', 'zwrócony', 1, 1)",
+                "INSERT INTO rent_equipments (id, count, rent_id, equipment_id) VALUES (1, 1, 1, 1), (2, 2, 1, 2)",
+                "INSERT INTO rent_returns (id, issued_identifier, rent_id) VALUES (1, 'ZW/2024/1/0001', 1)"
+            )) {
+                session.createNativeMutationQuery(sql).executeUpdate();
+            }
+            session.getTransaction().commit();
+        }
+    }
+
+    @AfterAll
+    static void closeDatabase() {
+        sessionFactory.close();
+    }
+
+    @Test
+    void findRentWithEquipmentsLoadsDeletedRentInSingleStatement() {
+        try (final Session session = sessionFactory.openSession()) {
+            final long startStatements = CountingStatementInspector.getPreparedStatementsCount();
+
+            final RentEntity rent = new RentDaoHib(session).findRentWithEquipments(RENT_ID).orElseThrow();
+            final int rentedCount = sumRentedCount(rent);
+            assertNotNull(rent.getIssuedIdentifier());
+
+            assertEquals(3, rentedCount);
+            assertEquals(1, CountingStatementInspector.getPreparedStatementsCount() - startStatements);
+        }
+    }
+
+    @Test
+    void findReturnWithRentEquipmentsLoadsDeletedReturnInSingleStatement() {
+        try (final Session session = sessionFactory.openSession()) {
+            final long startStatements = CountingStatementInspector.getPreparedStatementsCount();
+
+            final RentReturnEntity rentReturn = new ReturnDaoHib(session)
+                .findReturnWithRentEquipments(RETURN_ID)
+                .orElseThrow();
+            final int rentedCount = sumRentedCount(rentReturn.getRent());
+            assertEquals(RENT_ID, rentReturn.getRent().getId());
+            assertNotNull(rentReturn.getIssuedIdentifier());
+
+            assertEquals(3, rentedCount);
+            assertEquals(1, CountingStatementInspector.getPreparedStatementsCount() - startStatements);
+        }
+    }
+
+    // the same traverse as equipments count delta in delete rent and delete return
+    private static int sumRentedCount(RentEntity rent) {
+        int rentedCount = 0;
+        for (final RentEquipmentEntity equipment : rent.getEquipments()) {
+            final EquipmentEntity eq = equipment.getEquipment();
+            if (eq != null && rent.getCustomer() != null) {
+                assertNotNull(eq.getId());
+                assertNotNull(eq.getType().getName());
+                rentedCount += equipment.getCount();
+            }
+        }
+        return rentedCount;
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2024 by MILOSZ GILGA <https://miloszgilga.pl>
+ * Silesian University of Technology
+ */
+package pl.polsl.skirentalservice.service.impl;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import pl.polsl.skirentalservice.core.db.CountCacheBean;
+import pl.polsl.skirentalservice.core.db.CountingStatementInspector;
+import pl.polsl.skirentalservice.core.db.InMemoryDatabase;
+import pl.polsl.skirentalservice.core.servlet.WebServletRequest;
+import pl.polsl.skirentalservice.dao.hibernate.RentDaoHib;
+import pl.polsl.skirentalservice.entity.CustomerEntity;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// customer is removed together with its details and address, historical rents are only summed in database and
+// unbound by foreign key, so number of statements is the same for new customer and customer with long history
+class DeleteCustomerStatementsTest {
+    private static final int HISTORICAL_RENTS_COUNT = 200;
+    private static final Long NEW_CUSTOMER_ID = 1L;
+    private static final Long REGULAR_CUSTOMER_ID = 2L;
+    // customer, active rents check, rented equipments sum and deletes of customer, details and address
+    private static final long DELETE_STATEMENTS_COUNT = 6;
+
+    private static SessionFactory sessionFactory;
+    private static CustomerServiceBean customerService;
+
+    @BeforeAll
+    static void createDatabase() {
+        sessionFactory = InMemoryDatabase.createSessionFactory("ski-delete-customer");
+        try (final Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            for (final String sql : List.of(
+                "INSERT INTO roles (id, role_name, alias, role_eng) VALUES (1, 'pracownik', 'P', 'seller')",
+                "INSERT INTO user_details (id, first_name, last_name) " +
+                    "VALUES (1, 'Anna', 'Nowak'), (2, 'Jan', 'Kos'), (3, 'Ewa', 'Lis')",
+                "INSERT INTO location_addresses (id, city) VALUES (1, 'Gliwice'), (2, 'Zabrze'), (3, 'Bytom')",
+                "INSERT INTO customers (id, user_details_id, location_address_id) VALUES (1, 2, 2), (2, 3, 3)",
+                "INSERT INTO employers (id, login, user_details_id, location_address_id, role_id) " +
+                    "VALUES (1, 'annnow321', 1, 1, 1)",
+                "INSERT INTO equipment_types (id, name) VALUES (1, 'Narty')",
+                "INSERT INTO equipment_brands (id, name) VALUES (1, 'Atomic')",
+                "INSERT INTO equipment_colors (id, name) VALUES (1, 'Czarny')",
+                "INSERT INTO equipments (id, name, type_id, brand_id, color_id) " +
+                    "VALUES (1, 'Narty 1', 1, 1, 1), (2, 'Narty 2', 1, 1, 1)",
+                "INSERT INTO rents (id, issued_identifier, status, customer_id, employer_id) " +
+                    "VALUES (1, 'WY/2024/1/0001', 'zwrócony', 1, 1)",
+                "INSERT INTO rents (id, issued_identifier, status, customer_id, employer_id) " +
+                    "SELECT X + 1, CONCAT('WY/2023/1/', X), 'zwrócony', 2, 1 FROM SYSTEM_RANGE(1, " +
+                    HISTORICAL_RENTS_COUNT + ")",
+                "INSERT INTO rent_equipments (id, count, rent_id, equipment_id) " +
+                    "SELECT 2 * X - 1, 1, X, 1 FROM SYSTEM_RANGE(1, " + (HISTORICAL_RENTS_COUNT + 1) + ")",
+                "INSERT INTO rent_equipments (id, count, rent_id, equipment_id) " +
+                    "SELECT 2 * X, 2, X, 2 FROM SYSTEM_RANGE(1, " + (HISTORICAL_RENTS_COUNT + 1) + ")"
+            )) {
+                session.createNativeMutationQuery(sql).executeUpdate();
+            }
+            // the same as in changelog, rents of removed customer are kept without customer
+            final String foreignKey = session.createNativeQuery("""
+                    SELECT k.CONSTRAINT_NAME FROM INFORMATION_SCHEMA.KEY_COLUMN_USAGE k
+                    INNER JOIN INFORMATION_SCHEMA.REFERENTIAL_CONSTRAINTS r ON r.CONSTRAINT_NAME = k.CONSTRAINT_NAME
+                    WHERE UPPER(k.TABLE_NAME) = 'RENTS' AND UPPER(k.COLUMN_NAME) = 'CUSTOMER_ID'
+                """, String.class).getSingleResult();
+            session.createNativeMutationQuery("ALTER TABLE rents DROP CONSTRAINT " + foreignKey).executeUpdate();
+            session.createNativeMutationQuery("ALTER TABLE rents ADD FOREIGN KEY (customer_id) " +
+                "REFERENCES customers(id) ON DELETE SET NULL").executeUpdate();
+            session.getTransaction().commit();
+        }
+        customerService = new CustomerServiceBean(InMemoryDatabase.createPersistenceBean(sessionFactory),
+            new CountCacheBean(60, 0), null);
+    }
+
+    @AfterAll
+    static void closeDatabase() {
+        sessionFactory.close();
+    }
+
+    @Test
+    void deleteCustomerExecutesTheSameStatementsRegardlessOfRentsHistory() {
+        final long newCustomerStatements = countDeleteStatements(NEW_CUSTOMER_ID);
+        final long regularCustomerStatements = countDeleteStatements(REGULAR_CUSTOMER_ID);
+
+        assertEquals(DELETE_STATEMENTS_COUNT, newCustomerStatements);
+        assertEquals(newCustomerStatements, regularCustomerStatements);
+        try (final Session session = sessionFactory.openSession()) {
+            assertNull(session.get(CustomerEntity.class, REGULAR_CUSTOMER_ID));
+            final Long unboundRents = session
+                .createNativeQuery("SELECT COUNT(*) FROM rents WHERE customer_id IS NULL", Long.class)
+                .getSingleResult();
+            assertEquals(HISTORICAL_RENTS_COUNT + 1, unboundRents);
+        }
+    }
+
+    @Test
+    void findAllRentedEquipmentsCountBaseCustomerIdSumsInSingleStatement() {
+        try (final Session session = sessionFactory.openSession()) {
+            final long startStatements = CountingStatementInspector.getPreparedStatementsCount();
+
+            // returned rents do not hold equipments anymore
+            assertTrue(new RentDaoHib(session).findAllRentedEquipmentsCountBaseCustomerId(REGULAR_CUSTOMER_ID)
+                .isEmpty());
+            assertEquals(1, CountingStatementInspector.getPreparedStatementsCount() - startStatements);
+        }
+    }
+
+    private static long countDeleteStatements(Long customerId) {
+        final long startStatements = CountingStatementInspector.getPreparedStatementsCount();
+        customerService.deleteCustomer(customerId, new WebServletRequest(createRequest(), null));
+        return CountingStatementInspector.getPreparedStatementsCount() - startStatements;
+    }
+
+    // http session without any in-memory rent data
+    private static HttpServletRequest createRequest() {
+        final HttpSession httpSession = (HttpSession) Proxy.newProxyInstance(HttpSession.class.getClassLoader(),
+            new Class<?>[]{ HttpSession.class }, (proxy, method, args) -> null);
+        return (HttpServletRequest) Proxy.newProxyInstance(HttpServletRequest.class.getClassLoader(),
+            new Class<?>[]{ HttpServletRequest.class }, (proxy, method, args) ->
+                method.getName().equals("getSession") ? httpSession : null);
+    }
+}